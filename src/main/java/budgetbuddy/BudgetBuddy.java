@@ -1,6 +1,9 @@
 package budgetbuddy;
 
 import budgetbuddy.model.BudgetManager;
+import budgetbuddy.storage.Durability;
+import budgetbuddy.storage.StartupMode;
+import budgetbuddy.storage.StorageBackend;
 import budgetbuddy.storage.StorageManager;
 import budgetbuddy.ui.InputManager;
 import budgetbuddy.ui.Ui;
@@ -11,8 +14,19 @@ import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 public class BudgetBuddy {
+    private static final String DURABILITY_OPTION = "--durability=";
+    private static final String STARTUP_OPTION = "--startup=";
+    private static final String STORAGE_OPTION = "--storage=";
+    private static final String STORAGE_PROPERTY = "budgetbuddy.storage";
+    private static final String DEFAULT_STORAGE = "binary";
+
     /**
      * Main entry-point for the java.duke.Duke application.
+     * Accepts {@code --durability=none|batch|strict} to choose how far changes are pushed towards the disk,
+     * {@code --storage=binary|text|memory} to choose where data is kept, and {@code --startup=lazy|progressive}
+     * to choose whether older expenses are read when first needed or in the background from the start. The
+     * storage can also be configured through the {@code budgetbuddy.storage} system property, which the option
+     * overrides.
      */
     public static void main(String[] args) {
         Logger rootLogger = LogManager.getLogManager().getLogger("");
@@ -21,14 +35,41 @@ public class BudgetBuddy {
         }
         rootLogger.setLevel(Level.OFF);
 
+        String storage = System.getProperty(STORAGE_PROPERTY, DEFAULT_STORAGE);
+        for (String arg : args) {
+            if (arg.startsWith(STORAGE_OPTION)) {
+                storage = arg.substring(STORAGE_OPTION.length());
+            } else if (arg.startsWith(DURABILITY_OPTION)) {
+                try {
+                    StorageManager.setDurability(Durability.parse(arg.substring(DURABILITY_OPTION.length())));
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            } else if (arg.startsWith(STARTUP_OPTION)) {
+                try {
+                    StorageManager.setStartupMode(StartupMode.parse(arg.substring(STARTUP_OPTION.length())));
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+        }
+
+        StorageBackend backend;
+        try {
+            backend = StorageManager.createBackend(storage);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            backend = StorageManager.createBackend(DEFAULT_STORAGE);
+        }
+
         BudgetManager budgetManager = new BudgetManager();
-        StorageManager.load(budgetManager);
-        InputManager inputManager = new InputManager(budgetManager);
+        backend.load(budgetManager);
+        InputManager inputManager = new InputManager(budgetManager, backend::refresh, backend::commit);
         Ui ui = new Ui();
 
         ui.printWelcomeMessage();
 
         inputManager.processInputLoop();
-        StorageManager.save(budgetManager);
+        backend.close();
     }
 }
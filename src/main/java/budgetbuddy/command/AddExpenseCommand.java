@@ -1,6 +1,7 @@
 package budgetbuddy.command;
 
 import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Money;
 import budgetbuddy.parser.AddParser;
 import budgetbuddy.exception.InvalidInputException;
 
@@ -22,7 +23,7 @@ public class AddExpenseCommand extends Command {
      *
      * <p>The method first splits the input description into its components: the expense amount, category,
      * description and time.
-     * It then calls the {@link BudgetManager#addExpenseToBudget(String, double, String, String)}
+     * It then calls the {@link BudgetManager#addExpenseToBudgetCents(String, long, String, String)}
      * method to add the expense
      * to the specified category of the budget.</p>
      *
@@ -34,12 +35,12 @@ public class AddExpenseCommand extends Command {
         // Saving class
         AddParser parser = new AddParser(description);
         String[] splitLine = parser.parse();
-        double amount = Double.parseDouble(splitLine[0]);
+        long amountCents = Money.parseCents(splitLine[0]);
         String category = splitLine[1];
         String description = splitLine[2];
         String time = splitLine[3];
 
-        budgetManager.addExpenseToBudget(category, amount, description, time);
+        budgetManager.addExpenseToBudgetCents(category, amountCents, description, time);
     }
 
     /**
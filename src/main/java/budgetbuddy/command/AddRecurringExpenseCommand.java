@@ -2,12 +2,12 @@ package budgetbuddy.command;
 
 import budgetbuddy.exception.InvalidInputException;
 import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.RecurringRule;
 import budgetbuddy.parser.AddRecurringParser;
 import budgetbuddy.parser.DateTimeParser;
 import budgetbuddy.ui.Ui;
 
-import java.io.OutputStream;
-import java.io.PrintStream;
 import java.time.LocalDateTime;
 
 /**
@@ -36,11 +36,12 @@ import java.time.LocalDateTime;
  * Constraints:
  * <ul>
  *     <li>Maximum frequency: 1000 days</li>
- *     <li>Maximum iterations: 10</li>
+ *     <li>Maximum iterations: 10000</li>
  * </ul>
  * <p>
- * Output during repeated expense addition is temporarily suppressed to avoid console clutter.
- * Once complete, a confirmation message and the full expense list will be displayed.
+ * The expense is stored as a single {@link RecurringRule} rather than one expense per occurrence, so a long
+ * daily rule costs no more than a short one. Budget alerts and limits are checked once, and a confirmation
+ * is printed, followed by the full expense list.
  *
  * Example usage:
  * <pre>
@@ -54,7 +55,7 @@ public class AddRecurringExpenseCommand extends Command {
 
     //these are the constraints we are adding to this command
     public static final int MAX_FREQUENCY_ADD_RECURRING  = 1000;
-    public static final int MAX_ITERATIONS_ADD_RECURRING = 10;
+    public static final int MAX_ITERATIONS_ADD_RECURRING = 10000;
 
     public AddRecurringExpenseCommand(String description){
         super(description);
@@ -67,7 +68,7 @@ public class AddRecurringExpenseCommand extends Command {
         AddRecurringParser recurringParser = new AddRecurringParser(description);
         String[] parsedData = recurringParser.parse();
 
-        double amount = Double.parseDouble(parsedData[0]);
+        long amountCents = Money.parseCents(parsedData[0]);
         String category = parsedData[1];
         String expenseDescription = parsedData[2];
         String startTime = parsedData[3];
@@ -79,37 +80,27 @@ public class AddRecurringExpenseCommand extends Command {
             System.err.println("Frequency should be less than or equal to 1000 days for add-recurring command.");
             return;
         }
-        //throws error when iterations more than 10 and returns
+        //throws error when iterations more than 10000 and returns
         if(recurringIterations > MAX_ITERATIONS_ADD_RECURRING){
-            System.err.println("Iterations should be less than or equal to 10 for add-recurring command.");
+            System.err.println("Iterations should be less than or equal to " + MAX_ITERATIONS_ADD_RECURRING
+                    + " for add-recurring command.");
             return;
         }
 
         //get formatted date time from DateTimeParser,
         //even if user inputs wrong format, this will utilise the correct format
-        //and successive iterations would be based upon this
+        //and successive occurrences are based upon this
         LocalDateTime startTimeParsed = DateTimeParser.parseOrDefault(startTime, false);
-        startTime = startTimeParsed.format(DateTimeParser.DATETIME_FORMAT);
 
-
-        //From hereon we start adding expenses to budget
-        //While we are adding expenses, we redirect all the print notifications to nullspace
-        //this is done so that our console is not cluttered with all the addExpenseToBudget print lines
+        //the occurrences are not created; the rule stands for all of them
         System.out.println("Adding recurring expense to budget...");
-        PrintStream orignalOut = System.out;
-        System.setOut(new PrintStream(OutputStream.nullOutputStream())); //redirecting print lines
-
-        // SHOULD SUPPRESS ERROR MESSAGES ALSO?
-        for(int i=0; i<recurringIterations; i++){
-
-            //after the first iteration, we successively add time for the expenses
-            if(i>0){
-                startTimeParsed = startTimeParsed.plusDays(recurringFrequency);
-                startTime = startTimeParsed.format(DateTimeParser.DATETIME_FORMAT);
-            }
-            budgetManager.addExpenseToBudget(category , amount , expenseDescription , startTime );
+        try {
+            budgetManager.addRecurringRule(category, new RecurringRule(amountCents, expenseDescription,
+                    startTimeParsed, recurringFrequency, recurringIterations));
+        } catch (IllegalArgumentException e) {
+            Ui.printError(e.getMessage());
+            return;
         }
-        System.setOut(orignalOut); //re-instantiating to console
         Ui.printSeparator();
         System.out.println("Hooray! Added recurring expense(s) to budget.");
         System.out.println("Here is the list:");
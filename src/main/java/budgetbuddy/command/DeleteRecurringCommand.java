@@ -0,0 +1,35 @@
+package budgetbuddy.command;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.parser.DeleteRecurringParser;
+
+/**
+ * The DeleteRecurringCommand class represents a command that deletes a recurring expense, and with it
+ * all its occurrences, from every budget.
+ *
+ * <p>The index is the one shown next to the recurring expense in the output of {@code list}.</p>
+ */
+public class DeleteRecurringCommand extends Command {
+
+    public DeleteRecurringCommand(String description) {
+        super(description);
+    }
+
+    /**
+     * Executes the DeleteRecurringCommand by parsing the index of the recurring expense and deleting it.
+     *
+     * @param budgetManager The BudgetManager holding the recurring expense.
+     * @throws InvalidInputException If the index is missing, malformed or out of range.
+     */
+    @Override
+    public void execute(BudgetManager budgetManager) throws InvalidInputException {
+        DeleteRecurringParser parser = new DeleteRecurringParser(description);
+        budgetManager.deleteRecurringRule(parser.parse());
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
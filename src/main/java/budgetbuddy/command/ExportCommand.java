@@ -0,0 +1,80 @@
+package budgetbuddy.command;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.parser.DateTimeParser;
+import budgetbuddy.parser.ExportParser;
+import budgetbuddy.storage.ExpenseExporter;
+import budgetbuddy.storage.ExportFormat;
+import budgetbuddy.ui.Ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * The ExportCommand class represents a command to write expenses to a CSV or JSON Lines file.
+ *
+ * <p>The format is chosen by the file extension. Expenses can be limited to one category budget and to a
+ * range of time, and are streamed to the file by the {@link ExpenseExporter}.</p>
+ */
+public class ExportCommand extends Command {
+
+    public ExportCommand(String description) {
+        super(description);
+    }
+
+    /**
+     * Executes the ExportCommand by parsing the input and exporting the matching expenses.
+     *
+     * @param budgetManager The BudgetManager whose expenses are exported.
+     * @throws InvalidInputException If the input is invalid, the category does not exist, or the file cannot
+     *                               be written.
+     */
+    @Override
+    public void execute(BudgetManager budgetManager) throws InvalidInputException {
+        ExportParser parser = new ExportParser(description);
+        String[] fileCategoryStartEnd = parser.parse();
+        String fileName = fileCategoryStartEnd[0];
+        ExportFormat format;
+        try {
+            format = ExportFormat.ofFileName(fileName);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage());
+        }
+        LocalDateTime start = parseTime(fileCategoryStartEnd[2]);
+        LocalDateTime end = parseTime(fileCategoryStartEnd[3]);
+
+        long count;
+        try {
+            count = ExpenseExporter.export(budgetManager, new File(fileName), format, fileCategoryStartEnd[1],
+                    start, end);
+        } catch (IOException e) {
+            throw new InvalidInputException("Could not write " + fileName + ": " + e.getMessage());
+        }
+        Ui.printMessage("Exported " + count + (count == 1 ? " expense" : " expenses") + " to " + fileName);
+    }
+
+    /**
+     * Returns the time given, or {@code null} if none is given.
+     */
+    private static LocalDateTime parseTime(String time) throws InvalidInputException {
+        if (time.isEmpty()) {
+            return null;
+        }
+        if (!DateTimeParser.parseOrDefaultBooleanReturn(time, true)) {
+            throw new InvalidInputException("Invalid time '" + time + "'. Use the format MMM dd yyyy 'at' HH:mm.");
+        }
+        return DateTimeParser.parseOrDefault(time, true);
+    }
+
+    /**
+     * Returns {@code false} as this command does not signify the end of the program.
+     *
+     * @return {@code false} to indicate the program should not exit after executing this command.
+     */
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -1,14 +1,16 @@
 package budgetbuddy.command;
 
 import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.SearchMode;
 import budgetbuddy.exception.InvalidInputException;
 import budgetbuddy.parser.FindExpenseParser;
 
 /**
  * The FindExpenseCommand class represents a command that searches for expenses in the Overall budget.
  *
- * <p>This command parses the input description, extracts the keyword after "find",
- * and then calls the {@link BudgetManager#findExpense(String)} method to find and display matching expenses.</p>
+ * <p>This command parses the input description, extracts the search mode and keywords after "find",
+ * and then calls the {@link BudgetManager#findExpense(String, SearchMode)} method to find and display
+ * matching expenses.</p>
  */
 public class FindExpenseCommand extends Command {
 
@@ -20,7 +22,8 @@ public class FindExpenseCommand extends Command {
      * Executes the FindExpenseCommand by parsing the input and searching for the keyword in the Overall budget.
      *
      * <p>The method expects the user input to start with the keyword "find" followed by the search term.
-     * Example: "find food" will search for expenses containing "food" in the description.</p>
+     * Example: "find food" will search for expenses containing the word "food" in the description, and
+     * "find m/substring foo" for expenses containing "foo" anywhere in it.</p>
      *
      * @param budgetManager The BudgetManager responsible for managing expenses and budgets.
      * @throws InvalidInputException If there is invalid input while parsing the description.
@@ -28,8 +31,8 @@ public class FindExpenseCommand extends Command {
     @Override
     public void execute(BudgetManager budgetManager) throws InvalidInputException {
         FindExpenseParser parser = new FindExpenseParser(description);
-        String keyword = parser.parse();
-        budgetManager.findExpense(keyword);
+        String[] modeAndKeywords = parser.parse();
+        budgetManager.findExpense(modeAndKeywords[1], SearchMode.valueOf(modeAndKeywords[0]));
     }
 
     /**
@@ -0,0 +1,57 @@
+package budgetbuddy.command;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.parser.ImportParser;
+import budgetbuddy.storage.ExpenseImporter;
+import budgetbuddy.ui.Ui;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The ImportCommand class represents a command to add the expenses listed in a CSV file, such as a bank
+ * statement.
+ *
+ * <p>The columns holding the amount, date, description and category can be named or numbered; by default they
+ * are the ones written by the export command. The file is read by the {@link ExpenseImporter}.</p>
+ */
+public class ImportCommand extends Command {
+
+    public ImportCommand(String description) {
+        super(description);
+    }
+
+    /**
+     * Executes the ImportCommand by parsing the input, importing the file and reporting what was imported.
+     *
+     * @param budgetManager The BudgetManager to add the expenses to.
+     * @throws InvalidInputException If the input is invalid, or the file cannot be read or lacks a column.
+     */
+    @Override
+    public void execute(BudgetManager budgetManager) throws InvalidInputException {
+        ImportParser parser = new ImportParser(description);
+        String[] fileAndColumns = parser.parse();
+        String fileName = fileAndColumns[0];
+
+        ExpenseImporter.Result result;
+        try {
+            result = ExpenseImporter.importCsv(budgetManager, new File(fileName), fileAndColumns[1],
+                    fileAndColumns[2], fileAndColumns[3], fileAndColumns[4]);
+        } catch (IOException e) {
+            throw new InvalidInputException("Could not read " + fileName + ": " + e.getMessage());
+        }
+        Ui.printImportResult(fileName, result.getImportedCount(), result.getTotalCents(), result.getSkippedCount(),
+                result.getSkippedExamples(), result.getUnknownCategories());
+    }
+
+    /**
+     * Returns {@code false} as this command does not signify the end of the program.
+     *
+     * @return {@code false} to indicate the program should not exit after executing this command.
+     */
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -6,14 +6,14 @@ import budgetbuddy.ui.Ui;
  * Manages budget alerts and notifies the user when expenses exceed a specified amount.
  */
 public class Alert {
-    private double alertAmount;
+    private long alertCents;
     private boolean isActive;
 
     /**
      * Initializes the Alert with no active limit.
      */
     public Alert() {
-        this.alertAmount = 0;
+        this.alertCents = 0;
         this.isActive = false;
     }
 
@@ -37,11 +37,11 @@ public class Alert {
             Ui.printInvalidBudgetAlertWarning();
         }
 
-        this.alertAmount = amount;
-        this.isActive = amount > 0;
+        this.alertCents = Money.fromDouble(amount);
+        this.isActive = alertCents > 0;
 
         if (isActive) {
-            Ui.printSetBudgetAlert(alertAmount, false);
+            Ui.printSetBudgetAlert(alertCents, false);
         }else {
             Ui.printRemoveBudgetAlert();
         }
@@ -51,15 +51,15 @@ public class Alert {
      * Checks if total expenses exceed the alert amount.
      * if expenses hits exactly alert amount Hit Alert is triggered.
      *
-     * @param totalExpenses The current total expenses.
+     * @param totalCents The current total expenses, in cents.
      */
-    public void checkAlert(double totalExpenses) {
-        assert totalExpenses >= 0 : "Total expenses cannot be negative";
+    public void checkAlert(long totalCents) {
+        assert totalCents >= 0 : "Total expenses cannot be negative";
         if (isActive) {
-            if (totalExpenses > alertAmount) {
-                Ui.printCheckAlert(totalExpenses, alertAmount);
-            } else if (totalExpenses == alertAmount) {
-                Ui.printHitAlert(totalExpenses);
+            if (totalCents > alertCents) {
+                Ui.printCheckAlert(totalCents, alertCents);
+            } else if (totalCents == alertCents) {
+                Ui.printHitAlert(totalCents);
             }
         }
     }
@@ -70,7 +70,16 @@ public class Alert {
      * @return The alert threshold.
      */
     public double getAlertAmount() {
-        return alertAmount;
+        return Money.toDouble(alertCents);
+    }
+
+    /**
+     * Gets the current alert amount, in cents.
+     *
+     * @return The alert threshold in cents.
+     */
+    public long getAlertCents() {
+        return alertCents;
     }
 
 
@@ -82,14 +91,14 @@ public class Alert {
     public double editAlertAmount(double amount) {
         if (amount < 0) {
             Ui.printInvalidBudgetAlertWarning();
-            return (int) alertAmount;
+            return (int) getAlertAmount();
         }
 
-        this.alertAmount = amount;
-        this.isActive = amount > 0;
+        this.alertCents = Money.fromDouble(amount);
+        this.isActive = alertCents > 0;
 
         if (isActive) {
-            Ui.printSetBudgetAlert(alertAmount, true);
+            Ui.printSetBudgetAlert(alertCents, true);
         }else {
             Ui.printRemoveBudgetAlert();
         }
@@ -97,8 +106,18 @@ public class Alert {
         return amount;
     }
 
+    /**
+     * Sets the alert amount without printing anything. Used when restoring persisted data.
+     *
+     * @param cents The alert threshold, in cents, or 0 for no alert.
+     */
+    void restoreAlertCents(long cents) {
+        this.alertCents = Math.max(0, cents);
+        this.isActive = alertCents > 0;
+    }
+
     public void removeAlert() {
-        this.alertAmount = 0;
+        this.alertCents = 0;
         this.isActive = false;
         Ui.printRemoveBudgetAlert();
     }
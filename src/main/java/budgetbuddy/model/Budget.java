@@ -3,16 +3,29 @@ package budgetbuddy.model;
 import budgetbuddy.exception.InvalidInputException;
 import budgetbuddy.ui.Ui;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * Represents a Budget that tracks expenses within a specific category.
  * The budget can have an optional spending limit.
+ * <p>
+ * Expenses are kept in an {@link ExpenseStore}. A standalone budget owns its store; the category budgets of a
+ * {@link BudgetManager} share the Overall budget's store and only see the rows tagged with their category,
+ * so an expense is stored once no matter how many budgets it counts towards.
+ * </p>
  */
 public class Budget {
-    private String category;
-    private double limit; //Optional
-    private final ArrayList<Expense> expenses;
+    private static boolean isConsistencyCheckEnabled = false;
+
+    // StringDictionary ID of the category name.
+    private int categoryNameId;
+    private long limitCents; //Optional
+    private final ExpenseStore store;
+    // Which rows of the store belong to this budget; ALL_CATEGORIES for the store's owner.
+    private final int categoryId;
 
     /**
      * Constructs a Budget object with the given category and spending limit.
@@ -21,6 +34,18 @@ public class Budget {
      * @param limit    The spending limit for the budget.
      */
     public Budget(String category, double limit) {
+        this(category, limit, new ExpenseStore(), ExpenseStore.ALL_CATEGORIES);
+    }
+
+    /**
+     * Constructs a Budget backed by an existing store.
+     *
+     * @param category   The name of the budget category.
+     * @param limit      The spending limit for the budget.
+     * @param store      The store holding the expenses.
+     * @param categoryId The rows of the store this budget covers.
+     */
+    Budget(String category, double limit, ExpenseStore store, int categoryId) {
 
         if (category == null) {
             throw new IllegalArgumentException("Category cannot be empty.");
@@ -29,9 +54,23 @@ public class Budget {
             throw new IllegalArgumentException("Limit cannot be negative.");
         }
 
-        this.category = category;
-        this.limit = limit;
-        this.expenses = new ArrayList<>();
+        this.categoryNameId = StringDictionary.intern(category);
+        this.limitCents = Money.fromDouble(limit);
+        this.store = store;
+        this.categoryId = categoryId;
+    }
+
+    /**
+     * Enables or disables consistency checking for all budgets.
+     * <p>
+     * When enabled, every mutation recomputes the totals from scratch and compares them against the
+     * running aggregates, throwing {@code IllegalStateException} on a mismatch. Intended for tests only,
+     * as it turns every update back into an O(n) operation.
+     *
+     * @param isEnabled Whether consistency checks should run after each mutation.
+     */
+    public static void setConsistencyCheckEnabled(boolean isEnabled) {
+        isConsistencyCheckEnabled = isEnabled;
     }
 
     /**
@@ -43,7 +82,7 @@ public class Budget {
         if (category == null || category.trim().isEmpty()) {
             throw new IllegalArgumentException("Category cannot be empty.");
         }
-        this.category = category;
+        this.categoryNameId = StringDictionary.intern(category);
     }
 
     /**
@@ -52,25 +91,173 @@ public class Budget {
      * @return The current category name.
      */
     public String getCategory() {
-        return this.category;
+        return StringDictionary.text(categoryNameId);
     }
 
     /**
-     * Adds an expense to the list of expenses for this budget.
+     * Adds an expense to this budget.
+     * <p>
+     * For a category budget sharing the Overall store, an expense already in the store is tagged with this
+     * category rather than stored again.
      *
      * @param expense The expense to add to this budget.
      */
     public void addExpense(Expense expense) {
-        expenses.add(expense);
+        storeExpense(expense);
+        runConsistencyCheck();
+    }
+
+    /**
+     * Adds a batch of expenses to this budget, as {@link #addExpense(Expense)} does for each of them.
+     * The consistency check, when enabled, runs once for the whole batch.
+     *
+     * @param expenses The expenses to add to this budget.
+     */
+    public void addExpenses(Collection<Expense> expenses) {
+        for (Expense expense : expenses) {
+            storeExpense(expense);
+        }
+        runConsistencyCheck();
+    }
+
+    /**
+     * Removes the given expense from this budget, if present.
+     * Removing an expense from a category budget keeps it in the Overall budget.
+     *
+     * @param expense The expense to remove.
+     * @return {@code true} if the expense was part of this budget and has been removed.
+     */
+    public boolean removeExpense(Expense expense) {
+        boolean isRemoved;
+        if (categoryId == ExpenseStore.ALL_CATEGORIES) {
+            isRemoved = store.remove(expense.getId());
+        } else {
+            isRemoved = store.getCategory(expense.getId()) == categoryId
+                    && store.setCategory(expense.getId(), ExpenseStore.NO_CATEGORY);
+        }
+        runConsistencyCheck();
+        return isRemoved;
+    }
+
+    /**
+     * Writes the amount, description and time of an edited expense back to this budget,
+     * matching it by ID. The change is visible to every budget sharing the expense.
+     *
+     * @param expense The edited expense.
+     * @return {@code true} if the expense was found and updated.
+     */
+    public boolean updateExpense(Expense expense) {
+        boolean isUpdated = contains(expense) && store.update(expense);
+        runConsistencyCheck();
+        return isUpdated;
+    }
+
+    /**
+     * Adds a recurring expense rule to this budget.
+     * As with {@link #addExpense(Expense)}, a rule already in the shared store is tagged with this
+     * category rather than stored again.
+     *
+     * @param rule The rule to add.
+     */
+    public void addRecurringRule(RecurringRule rule) {
+        if (categoryId == ExpenseStore.ALL_CATEGORIES) {
+            store.addRule(rule, ExpenseStore.NO_CATEGORY);
+        } else if (!store.setRuleCategory(rule.getId(), categoryId)) {
+            store.addRule(rule, categoryId);
+        }
+    }
+
+    /**
+     * Removes a recurring expense rule from this budget, if present.
+     * Removing a rule from a category budget keeps it in the Overall budget.
+     *
+     * @param rule The rule to remove, matched by ID.
+     * @return {@code true} if the rule was part of this budget and has been removed.
+     */
+    public boolean removeRecurringRule(RecurringRule rule) {
+        if (categoryId == ExpenseStore.ALL_CATEGORIES) {
+            return store.removeRule(rule.getId());
+        }
+        return store.getRuleCategory(rule.getId()) == categoryId
+                && store.setRuleCategory(rule.getId(), ExpenseStore.NO_CATEGORY);
     }
 
     /**
-     * Calculates the total amount of all expenses in this budget.
+     * Returns the recurring expense rules of this budget, in the order they were added.
+     *
+     * @return The rules.
+     */
+    public ArrayList<RecurringRule> getRecurringRules() {
+        return store.getRules(categoryId);
+    }
+
+    /**
+     * Returns whether the given expense is part of this budget.
+     *
+     * @param expense The expense to look for, matched by ID.
+     * @return {@code true} if the expense belongs to this budget.
+     */
+    public boolean contains(Expense expense) {
+        int expenseCategory = store.getCategory(expense.getId());
+        return expenseCategory >= 0 && (categoryId == ExpenseStore.ALL_CATEGORIES || expenseCategory == categoryId);
+    }
+
+    /**
+     * Returns the total amount of all expenses in this budget.
      *
      * @return The total expenses for the budget.
      */
     public double getTotalExpenses() {
-        return expenses.stream().mapToDouble(e -> e.amount).sum();
+        return Money.toDouble(getTotalExpensesCents());
+    }
+
+    /**
+     * Returns the exact total amount of all expenses in this budget, in cents.
+     * Every occurrence of the budget's recurring expenses is included, from a running total rather than
+     * by generating the occurrences, and so are persisted expenses that have not been loaded.
+     *
+     * @return The total expenses for the budget in cents.
+     */
+    public long getTotalExpensesCents() {
+        return Math.addExact(Math.addExact(store.getTotal(categoryId), store.getRecurringTotal(categoryId)),
+                store.getUnloadedTotal(categoryId));
+    }
+
+    /**
+     * Returns the number of loaded expenses in this budget.
+     *
+     * @return The expense count.
+     */
+    public int getExpenseCount() {
+        return store.getCount(categoryId);
+    }
+
+    /**
+     * Returns the smallest expense amount in this budget, or 0 if there are no expenses.
+     *
+     * @return The minimum expense amount.
+     */
+    public double getMinExpense() {
+        return Money.toDouble(store.getMin(categoryId));
+    }
+
+    /**
+     * Returns the largest expense amount in this budget, or 0 if there are no expenses.
+     *
+     * @return The maximum expense amount.
+     */
+    public double getMaxExpense() {
+        return Money.toDouble(store.getMax(categoryId));
+    }
+
+    /**
+     * Recomputes total, count, minimum and maximum from the stored expenses and compares them with the running
+     * aggregates. A minimum and maximum awaiting a recount after a removal are not compared.
+     *
+     * @throws IllegalStateException if any running aggregate has drifted from the recomputed value.
+     */
+    public void verifyAggregates() {
+        store.verifyAggregates();
     }
 
     /**
@@ -79,11 +266,19 @@ public class Budget {
      * @param amount The new spending limit for this budget.
      */
     public void setLimit(double amount) {
-        if (amount < 0) {
+        setLimitCents(Money.fromDouble(amount));
+    }
+
+    /**
+     * Sets a new spending limit for this budget, in cents.
+     *
+     * @param cents The new spending limit for this budget in cents.
+     */
+    public void setLimitCents(long cents) {
+        if (cents < 0) {
             throw new IllegalArgumentException("Budget limit cannot be negative.");
         }
-        this.limit = amount;
-
+        this.limitCents = cents;
     }
 
     /**
@@ -92,17 +287,32 @@ public class Budget {
      * @return The current spending limit for this budget.
      */
     public double getLimit() {
-        return this.limit;
+        return Money.toDouble(limitCents);
+    }
+
+    /**
+     * Gets the spending limit of this budget, in cents.
+     *
+     * @return The current spending limit for this budget in cents.
+     */
+    public long getLimitCents() {
+        return limitCents;
     }
 
     /**
      * Prints all expenses under this budget in reverse order (most recent first).
      */
     public void printExpenses() {
-        if (expenses.isEmpty()) {
+        ArrayList<RecurringRule> rules = getRecurringRules();
+        if (getExpenseCount() == 0 && rules.isEmpty()) {
             Ui.printNoExpense();
-        } else {
-            Ui.printExpensesList(expenses);
+            return;
+        }
+        if (getExpenseCount() > 0) {
+            Ui.printExpensesList(getExpenses());
+        }
+        if (!rules.isEmpty()) {
+            Ui.printRecurringRules(rules);
         }
     }
 
@@ -113,12 +323,119 @@ public class Budget {
 
     public void printExpenses(String start, String end) {
 
-        if (expenses.isEmpty()) {
+        if (getExpenseCount() == 0 && getRecurringRules().isEmpty()) {
             Ui.printNoExpense();
 
         }else {
-            Ui.printExpensesList(expenses, start, end);
+            Ui.printExpensesList(this, start, end);
+        }
+    }
+
+    /**
+     * Returns the expenses whose time falls in the given range, oldest first.
+     * Both bounds are inclusive and compared at minute precision, the precision expenses are displayed in.
+     * The lookup is O(log n) in the number of expenses, plus the size of the range.
+     *
+     * @param start The earliest time to include, or {@code null} for no lower bound.
+     * @param end   The latest time to include, or {@code null} for no upper bound.
+     * @return The matching expenses in chronological order.
+     */
+    public ArrayList<Expense> getExpensesBetween(LocalDateTime start, LocalDateTime end) {
+        int fromRank = firstRankOf(start);
+        return store.getRange(fromRank, Math.max(fromRank, endRankOf(end)), categoryId);
+    }
+
+    /**
+     * Passes the expenses whose time falls in the given range to the visitor, oldest first, without creating
+     * {@link Expense} objects or a list of them. The range is as in {@link #getExpensesBetween}.
+     * The occurrences of the budget's recurring rules in the range are passed too, in time order after any
+     * expenses of the same time, with the ID {@link ExpenseVisitor#NO_ID}.
+     *
+     * @param start         The earliest time to include, or {@code null} for no lower bound.
+     * @param end           The latest time to include, or {@code null} for no upper bound.
+     * @param categoryNames The name of each category ID of the store, with {@code null} for no category.
+     * @param visitor       The visitor to pass the expenses to.
+     */
+    void forEachExpenseBetween(LocalDateTime start, LocalDateTime end, String[] categoryNames,
+            ExpenseVisitor visitor) {
+        ArrayList<RecurringRule> rules = getRecurringRules();
+        ArrayList<String> ruleCategories = new ArrayList<>(rules.size());
+        for (RecurringRule rule : rules) {
+            ruleCategories.add(categoryNames[store.getRuleCategory(rule.getId())]);
+        }
+        OccurrenceMerger occurrences = new OccurrenceMerger(rules, ruleCategories, start, end, visitor);
+        int fromRank = firstRankOf(start);
+        store.forEachInRange(fromRank, Math.max(fromRank, endRankOf(end)), categoryId, categoryNames,
+                (id, amountCents, descriptionId, epochSecond, category) -> {
+                    occurrences.visitBefore(epochSecond);
+                    visitor.visit(id, amountCents, descriptionId, epochSecond, category);
+                });
+        occurrences.visitRest();
+    }
+
+    private int firstRankOf(LocalDateTime start) {
+        return start == null ? 0 : store.firstRankAtOrAfter(start);
+    }
+
+    // Rank after the last expense at or before the end, which is inclusive at minute precision.
+    private int endRankOf(LocalDateTime end) {
+        if (end == null) {
+            return store.size();
+        }
+        return store.firstRankAtOrAfter(end.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1));
+    }
+
+    /**
+     * Returns the expenses whose description contains the keyword, ignoring case, oldest first.
+     * Each distinct description is tested once through the {@link StringDictionary}; expenses are then
+     * matched by description ID.
+     *
+     * @param keyword The keyword to search for.
+     * @return The matching expenses in chronological order.
+     */
+    public ArrayList<Expense> findExpenses(String keyword) {
+        return store.getByDescription(StringDictionary.markContainingIgnoreCase(keyword), categoryId);
+    }
+
+    /**
+     * Returns the expenses whose description matches the query under the given mode, oldest first.
+     * Word modes are answered from the store's inverted index in time proportional to the number of matches;
+     * {@link SearchMode#SUBSTRING} falls back to {@link #findExpenses(String)}.
+     *
+     * @param query The keywords, separated by spaces, or the text to look for in substring mode.
+     * @param mode  How the query is matched.
+     * @return The matching expenses in chronological order.
+     */
+    public ArrayList<Expense> findExpenses(String query, SearchMode mode) {
+        if (mode == SearchMode.SUBSTRING) {
+            return findExpenses(query);
+        }
+        return store.getByWords(query, mode == SearchMode.ALL, categoryId);
+    }
+
+    /**
+     * Returns the 1-based position of an expense in the most-recent-first listing of this budget.
+     *
+     * @param expense An expense in this budget.
+     * @return The index the expense is displayed and addressed by.
+     */
+    public int getDisplayIndex(Expense expense) {
+        return store.countFromRank(store.rankOf(expense.getId()), categoryId);
+    }
+
+    /**
+     * Returns the expense at the given 1-based position of the most-recent-first listing.
+     *
+     * @param index The index the expense is displayed with.
+     * @return The expense at that index.
+     * @throws InvalidInputException if the index is out of range.
+     */
+    public Expense getExpenseAtDisplayIndex(int index) throws InvalidInputException {
+        int count = getExpenseCount();
+        if (index < 1 || index > count) {
+            throw new InvalidInputException("Invalid index. Please provide a valid expense number.");
         }
+        return store.getAtRank(count - index, categoryId);
     }
 
     /**
@@ -127,14 +444,17 @@ public class Budget {
      * @throws InvalidInputException when wrong index provided
      */
     public void deleteExpense(int index) throws InvalidInputException {
-        if (index < 1 || index > expenses.size()) {
-            throw new InvalidInputException("Invalid index. Please provide a valid expense number.");
-        }
-        expenses.remove(expenses.size() - index);
+        removeExpense(getExpenseAtDisplayIndex(index));
     }
 
+    /**
+     * Returns the expenses in this budget, oldest first.
+     * The list holds freshly created views; changing them does not affect the budget.
+     *
+     * @return The list of expenses in chronological order.
+     */
     public ArrayList<Expense> getExpenses() {
-        return expenses;
+        return store.getRange(0, store.size(), categoryId);
     }
 
     /**
@@ -144,24 +464,21 @@ public class Budget {
      * @throws IllegalStateException if no budget has been set (limit = 0)
      */
     public double getRemainingBudget() throws IllegalStateException, ArithmeticException {
-        // Check if budget is set
-        if (limit <= 0) {
-            return 0.0;
-        }
-
-        double totalExpenses = getTotalExpenses();
-        double remaining = limit - totalExpenses;
-
-        if (remaining < 0) {
-            remaining = 0.0;
-        }
+        return Money.toDouble(getRemainingBudgetCents());
+    }
 
-        // Check for arithmetic overflow
-        if (Double.isInfinite(remaining)) {
-            throw new ArithmeticException("Budget calculation overflow - amounts too large");
+    /**
+     * Calculates the remaining budget in cents, or 0 if no limit is set or the limit has been exceeded.
+     *
+     * @return The remaining budget amount in cents
+     * @throws ArithmeticException if the calculation overflows
+     */
+    public long getRemainingBudgetCents() throws ArithmeticException {
+        if (limitCents <= 0) {
+            return 0;
         }
-
-        return remaining;
+        long remainingCents = Math.subtractExact(limitCents, getTotalExpensesCents());
+        return Math.max(0, remainingCents);
     }
 
     /**
@@ -177,13 +494,51 @@ public class Budget {
      * </ul>
      */
     public void checkLimit() {
-        double totalExpenses = this.getTotalExpenses();
-        if (this.limit != 0) {
-            if (totalExpenses > limit) {
-                Ui.printBudgetExceeded(totalExpenses, limit, category);
-            } else if (totalExpenses == limit) {
-                Ui.printBudgetReached(totalExpenses, limit, category);
+        long totalCents = this.getTotalExpensesCents();
+        if (this.limitCents != 0) {
+            if (totalCents > limitCents) {
+                Ui.printBudgetExceeded(totalCents, limitCents, getCategory());
+            } else if (totalCents == limitCents) {
+                Ui.printBudgetReached(totalCents, limitCents, getCategory());
             }
         }
     }
+
+    /**
+     * Estimates the heap held by the expense store behind this budget, excluding description texts.
+     * Category budgets share the overall budget's store, so they report the same figure.
+     *
+     * @return The approximate footprint in bytes.
+     */
+    public long estimateFootprintBytes() {
+        return store.estimateFootprintBytes();
+    }
+
+    /**
+     * Returns the store holding this budget's expenses.
+     */
+    ExpenseStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns which rows of the store this budget covers.
+     */
+    int getCategoryId() {
+        return categoryId;
+    }
+
+    private void storeExpense(Expense expense) {
+        if (categoryId == ExpenseStore.ALL_CATEGORIES) {
+            store.add(expense, ExpenseStore.NO_CATEGORY);
+        } else if (!store.setCategory(expense.getId(), categoryId)) {
+            store.add(expense, categoryId);
+        }
+    }
+
+    private void runConsistencyCheck() {
+        if (isConsistencyCheckEnabled) {
+            verifyAggregates();
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package budgetbuddy.model;
+
+/**
+ * Receives every change that a user command makes to the data of a {@link BudgetManager}, after the change
+ * has been applied, so that it can be persisted as it happens.
+ * <p>
+ * Restoring persisted data through the {@code restore...} methods of {@link BudgetManager} is not reported.
+ * Every method does nothing by default.
+ * </p>
+ */
+public interface BudgetChangeListener {
+    /**
+     * Called when a budget is created or its limit changes.
+     *
+     * @param category   The budget category, "Overall" included.
+     * @param limitCents The new limit, in cents.
+     */
+    default void budgetSet(String category, long limitCents) {
+    }
+
+    /**
+     * Called when a category budget is renamed.
+     *
+     * @param oldName The previous name of the budget.
+     * @param newName The new name of the budget.
+     */
+    default void budgetRenamed(String oldName, String newName) {
+    }
+
+    /**
+     * Called when an expense is added.
+     *
+     * @param category The category budget the expense was added to, or "Overall" if it was added to no category.
+     * @param expense  The new expense.
+     */
+    default void expenseAdded(String category, Expense expense) {
+    }
+
+    /**
+     * Called when the amount, description or time of an expense changes.
+     *
+     * @param expense The expense, holding its new values.
+     */
+    default void expenseEdited(Expense expense) {
+    }
+
+    /**
+     * Called when an expense is deleted.
+     *
+     * @param id The ID of the deleted expense.
+     */
+    default void expenseDeleted(long id) {
+    }
+
+    /**
+     * Called when a recurring expense rule is added.
+     *
+     * @param category The category budget the rule was added to, or "Overall" if it was added to no category.
+     * @param rule     The new rule.
+     */
+    default void recurringRuleAdded(String category, RecurringRule rule) {
+    }
+
+    /**
+     * Called when a recurring expense rule is deleted.
+     *
+     * @param id The ID of the deleted rule.
+     */
+    default void recurringRuleDeleted(long id) {
+    }
+
+    /**
+     * Called when the budget alert is set, changed or removed.
+     *
+     * @param alertCents The new alert threshold, in cents, or 0 if the alert was removed.
+     */
+    default void alertSet(long alertCents) {
+    }
+}
@@ -1,10 +1,13 @@
 package budgetbuddy.model;
 
 import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.parser.DateTimeParser;
 import budgetbuddy.ui.Ui;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Logger;
@@ -17,6 +20,13 @@ public class BudgetManager {
     private static final Logger logger = Logger.getLogger(BudgetManager.class.getName());
     private final HashMap<String, Budget> budgets;
     private final Alert alert;
+    // Holds every expense once; the Overall budget sees all of it, category budgets their tagged rows.
+    private final ExpenseStore ledger;
+    private final HashMap<Integer, Budget> budgetsByCategoryId;
+    private BudgetChangeListener changeListener = new BudgetChangeListener() {
+    };
+    private ExpenseLoader expenseLoader = from -> {
+    };
 
     /**
      * Constructs a BudgetManager with an initial "Overall" budget.
@@ -25,7 +35,9 @@ public class BudgetManager {
     public BudgetManager() {
         this.budgets = new HashMap<>();
         this.alert = new Alert(); // Initialise alert system
-        budgets.put("Overall", new Budget("Overall", 0));
+        this.ledger = new ExpenseStore();
+        this.budgetsByCategoryId = new HashMap<>();
+        budgets.put("Overall", newOverallBudget(0));
         logger.info("BudgetManager initialized with Overall budget.");
 
         assert budgets != null : "Budgets HashMap should be initialized.";
@@ -44,16 +56,28 @@ public class BudgetManager {
      */
     public void addExpenseToBudget(String category, double amount, String description, String time) {
         assert amount > 0 : "Error: Expense amount should be positive.";
+        addExpenseToBudgetCents(category, Money.fromDouble(amount), description, time);
+    }
 
+    /**
+     * Adds an expense whose amount has already been parsed into cents.
+     * Behaves exactly like {@link #addExpenseToBudget(String, double, String, String)}.
+     *
+     * @param category    The budget category (e.g., "Food"), or empty for "Overall".
+     * @param amountCents The expense amount, in cents.
+     * @param description A brief description of the expense.
+     */
+    public void addExpenseToBudgetCents(String category, long amountCents, String description, String time) {
         try {
             // Instantiate a new expense
-            Expense expense = new Expense(amount, description, time);
+            Expense expense = Expense.ofCents(amountCents, description, time);
+            expenseLoader.loadExpensesFrom(expense.getDateTime());
             boolean addedToCategory = false;
             String message = "";
 
             // Handle Overall budget
             if (!budgets.containsKey("Overall")) {
-                budgets.put("Overall", new Budget("Overall", 0));
+                budgets.put("Overall", newOverallBudget(0));
                 logger.warning("Overall budget was missing. Initialized a new Overall budget.");
                 assert budgets.get("Overall") != null : "Overall budget should be initialized.";
             }
@@ -71,6 +95,8 @@ public class BudgetManager {
                 logger.info("Expense Added: " + expense);
             }
 
+            changeListener.expenseAdded(addedToCategory ? category : "Overall", expense);
+
             // Call UI with all relevant information
             Ui.printAddExpense(expense, category, addedToCategory, message);
 
@@ -87,6 +113,153 @@ public class BudgetManager {
     }
 
 
+    /**
+     * Adds a batch of expenses to the Overall budget and, if it exists, to a category budget.
+     * <p>
+     * Unlike adding the expenses one by one, the budget alert and limits are evaluated once, after the whole
+     * batch is in, and a single consolidated notification is printed for the batch.
+     * </p>
+     *
+     * @param category The budget category (e.g., "Food"), or empty for "Overall".
+     * @param expenses The expenses to add.
+     */
+    public void addExpenses(String category, Collection<Expense> expenses) {
+        String trimmedCategory = category == null ? "" : category.trim();
+        boolean isCategory = !trimmedCategory.isEmpty() && !trimmedCategory.equals("Overall");
+        boolean addedToCategory = isCategory && budgets.containsKey(trimmedCategory);
+        String message = isCategory && !addedToCategory
+                ? "Budget category '" + trimmedCategory + "' not found. Added to Overall Budget." : "";
+        if (!storeExpenses(Map.of(trimmedCategory, expenses))) {
+            return;
+        }
+
+        long totalCents = 0;
+        for (Expense expense : expenses) {
+            totalCents += expense.getAmountCents();
+        }
+        Ui.printAddExpenses(expenses.size(), totalCents, trimmedCategory, addedToCategory, message);
+        checkBatchLimits(List.of(trimmedCategory));
+    }
+
+    /**
+     * Adds a batch of expenses spread over several category budgets, as an import does. Each expense goes to
+     * the Overall budget and, if it exists, to the category budget it is listed under.
+     * <p>
+     * Nothing is printed for the expenses themselves; the caller reports the batch. The budget alert and the
+     * limits of the budgets involved are evaluated once, after the whole batch is in.
+     * </p>
+     *
+     * @param expensesByCategory The expenses to add, by budget category, with empty for "Overall".
+     */
+    public void addExpenses(Map<String, ? extends Collection<Expense>> expensesByCategory) {
+        if (storeExpenses(expensesByCategory)) {
+            checkBatchLimits(expensesByCategory.keySet());
+        }
+    }
+
+    // Adds a batch to the budgets without any checks or output, returning false if it holds no expenses.
+    private boolean storeExpenses(Map<String, ? extends Collection<Expense>> expensesByCategory) {
+        LocalDateTime earliest = null;
+        int count = 0;
+        for (Collection<Expense> expenses : expensesByCategory.values()) {
+            for (Expense expense : expenses) {
+                if (earliest == null || expense.getDateTime().isBefore(earliest)) {
+                    earliest = expense.getDateTime();
+                }
+            }
+            count += expenses.size();
+        }
+        if (earliest == null) {
+            return false;
+        }
+        expenseLoader.loadExpensesFrom(earliest);
+        if (!budgets.containsKey("Overall")) {
+            budgets.put("Overall", newOverallBudget(0));
+            logger.warning("Overall budget was missing. Initialized a new Overall budget.");
+        }
+
+        for (Map.Entry<String, ? extends Collection<Expense>> entry : expensesByCategory.entrySet()) {
+            String category = entry.getKey() == null ? "" : entry.getKey().trim();
+            Collection<Expense> expenses = entry.getValue();
+            budgets.get("Overall").addExpenses(expenses);
+            boolean addedToCategory = false;
+            if (!category.isEmpty() && !category.equals("Overall")) {
+                if (!budgets.containsKey(category)) {
+                    logger.warning("Budget category '" + category + "' not found. Added to Overall Budget.");
+                } else {
+                    budgets.get(category).addExpenses(expenses);
+                    addedToCategory = true;
+                }
+            }
+            for (Expense expense : expenses) {
+                changeListener.expenseAdded(addedToCategory ? category : "Overall", expense);
+            }
+        }
+        logger.info(count + " expenses added in a batch.");
+        return true;
+    }
+
+    private void checkBatchLimits(Collection<String> categories) {
+        checkBudgetAlert();
+        checkBudgetLimit("Overall");
+        for (String category : categories) {
+            checkBudgetLimit(category == null ? "" : category.trim());
+        }
+    }
+
+    /**
+     * Adds a recurring expense rule to the Overall budget and, if it exists, to a category budget.
+     * Its occurrences are never created; they count towards budget totals, alerts and limits straight away.
+     *
+     * @param category The budget category (e.g., "Food"), or empty for "Overall".
+     * @param rule     The recurring expense rule to add.
+     */
+    public void addRecurringRule(String category, RecurringRule rule) {
+        if (!budgets.containsKey("Overall")) {
+            budgets.put("Overall", newOverallBudget(0));
+            logger.warning("Overall budget was missing. Initialized a new Overall budget.");
+        }
+        budgets.get("Overall").addRecurringRule(rule);
+
+        boolean addedToCategory = false;
+        String message = "";
+        String trimmedCategory = category == null ? "" : category.trim();
+        if (!trimmedCategory.isEmpty() && !trimmedCategory.equals("Overall")) {
+            if (!budgets.containsKey(trimmedCategory)) {
+                message = "Budget category '" + trimmedCategory + "' not found. Added to Overall Budget.";
+                logger.warning(message);
+            } else {
+                budgets.get(trimmedCategory).addRecurringRule(rule);
+                addedToCategory = true;
+            }
+        }
+        logger.info("Recurring expense added: " + rule);
+        changeListener.recurringRuleAdded(addedToCategory ? trimmedCategory : "Overall", rule);
+        Ui.printAddRecurringRule(rule, trimmedCategory, addedToCategory, message);
+
+        checkBudgetAlert();
+        checkBudgetLimit("Overall");
+        checkBudgetLimit(trimmedCategory);
+    }
+
+    /**
+     * Deletes a recurring expense rule, and with it all its occurrences, from every budget.
+     *
+     * @param index The 1-based position of the rule in the Overall budget's recurring expense list.
+     * @throws InvalidInputException if the index is invalid.
+     */
+    public void deleteRecurringRule(int index) throws InvalidInputException {
+        List<RecurringRule> rules = budgets.get("Overall").getRecurringRules();
+        if (index < 1 || index > rules.size()) {
+            throw new InvalidInputException("Invalid index. Please provide a valid recurring expense number.");
+        }
+        RecurringRule rule = rules.get(index - 1);
+        budgets.get("Overall").removeRecurringRule(rule);
+        logger.info("Recurring expense at index " + index + " deleted.");
+        changeListener.recurringRuleDeleted(rule.getId());
+        Ui.printDeleteRecurringRule(rule);
+    }
+
     /**
      * Sets a budget alert at the specified amount.
      * If total expenses exceed this limit, a notification will be triggered.
@@ -96,6 +269,18 @@ public class BudgetManager {
     public void setBudgetAlert(double amount) {
         assert amount >= 0 : "Error: Budget amount should not be negative.";
         alert.setAlert(amount);
+        changeListener.alertSet(alert.getAlertCents());
+        checkBudgetAlert();
+    }
+
+    /**
+     * Changes the amount of the budget alert. A negative amount leaves the alert unchanged.
+     *
+     * @param amount The new alert threshold. If 0, the alert is removed.
+     */
+    public void editBudgetAlert(double amount) {
+        alert.editAlertAmount(amount);
+        changeListener.alertSet(alert.getAlertCents());
         checkBudgetAlert();
     }
 
@@ -103,8 +288,7 @@ public class BudgetManager {
      * Checks if total expenses exceed the alert limit.
      */
     public void checkBudgetAlert() {
-        double totalExpenses = getTotalExpenses();
-        alert.checkAlert(totalExpenses); // Alert system will notify if limit is exceeded
+        alert.checkAlert(getTotalExpensesCents()); // Alert system will notify if limit is exceeded
     }
 
     /**
@@ -129,19 +313,21 @@ public class BudgetManager {
                 if (budgets.containsKey("Overall")) {
                     budgets.get("Overall").setLimit(amount);
                 } else {
-                    budgets.put("Overall", new Budget("Overall", amount));
+                    budgets.put("Overall", newOverallBudget(amount));
                 }
+                changeListener.budgetSet("Overall", budgets.get("Overall").getLimitCents());
                 Ui.printSetOverallBudget(amount);
                 checkBudgetAlert();
                 checkBudgetLimit("Overall");
             } else {
                 if (!budgets.containsKey(category)) {
-                    budgets.put(category, new Budget(category, amount));
+                    budgets.put(category, newCategoryBudget(category, amount));
                     logger.info("Created new budget category: " + category + " with limit $" + amount);
                 } else {
                     budgets.get(category).setLimit(amount);
                     logger.info("Updated budget for category " + category + " to: $" + amount);
                 }
+                changeListener.budgetSet(category, budgets.get(category).getLimitCents());
                 Ui.printSetCategoryBudget(category, amount);
                 checkBudgetLimit(category);
             }
@@ -167,8 +353,17 @@ public class BudgetManager {
      * @return The sum of all expenses.
      */
     public double getTotalExpenses() {
+        return Money.toDouble(getTotalExpensesCents());
+    }
+
+    /**
+     * Calculates the exact total expenses across all budgets, in cents.
+     *
+     * @return The sum of all expenses in cents.
+     */
+    public long getTotalExpensesCents() {
         Budget overallBudget = budgets.get("Overall");
-        return (overallBudget != null) ? overallBudget.getTotalExpenses() : 0.0;
+        return (overallBudget != null) ? overallBudget.getTotalExpensesCents() : 0;
     }
 
     /**
@@ -176,6 +371,7 @@ public class BudgetManager {
      */
     public void listAllExpenses() {
         assert budgets.containsKey("Overall") : "Error: 'Overall' budget should exist before listing expenses.";
+        expenseLoader.loadExpensesFrom(null);
         Budget overall = budgets.get("Overall");
         overall.printExpenses();
     }
@@ -186,10 +382,41 @@ public class BudgetManager {
      */
     public void listPartialExpenses(String start, String end) {
         assert budgets.containsKey("Overall") : "Error: 'Overall' budget should exist before listing expenses.";
+        // An invalid start is refused when listing, and parses as now, which loads nothing.
+        expenseLoader.loadExpensesFrom(start.isBlank() ? null : DateTimeParser.parseOrDefault(start, true));
         Budget overall = budgets.get("Overall");
         overall.printExpenses(start, end);
     }
 
+    /**
+     * Passes the expenses of a budget whose time falls in the given range to the visitor, oldest first, without
+     * any user-facing output. Expenses are read straight from the store, so any number of them can be streamed
+     * elsewhere in constant memory. Expenses not yet loaded are loaded first. The occurrences of the budget's
+     * recurring expenses in the range are passed in time order with them, with the ID
+     * {@link ExpenseVisitor#NO_ID}.
+     *
+     * @param category The category budget to visit, or "Overall" or an empty string for every expense.
+     * @param start    The earliest time to include, or {@code null} for no lower bound.
+     * @param end      The latest time to include, inclusive at minute precision, or {@code null} for no upper
+     *                 bound.
+     * @param visitor  The visitor to pass the expenses to.
+     * @throws InvalidInputException If the category budget does not exist.
+     */
+    public void forEachExpense(String category, LocalDateTime start, LocalDateTime end, ExpenseVisitor visitor)
+            throws InvalidInputException {
+        Budget budget = budgets.get(category.isBlank() ? "Overall" : category);
+        if (budget == null) {
+            throw new InvalidInputException("Category '" + category + "' does not exist.");
+        }
+        expenseLoader.loadExpensesFrom(start);
+        String[] categoryNames = new String[budgetsByCategoryId.keySet().stream().mapToInt(id -> id).max()
+                .orElse(ExpenseStore.NO_CATEGORY) + 1];
+        for (Budget categoryBudget : budgetsByCategoryId.values()) {
+            categoryNames[categoryBudget.getCategoryId()] = categoryBudget.getCategory();
+        }
+        budget.forEachExpenseBetween(start, end, categoryNames, visitor);
+    }
+
     /**
      * Deletes an expense from the Overall Budget based on the index.
      * Also deletes the same expense from the corresponding category budget.
@@ -203,34 +430,21 @@ public class BudgetManager {
         }
 
         Budget overallBudget = budgets.get("Overall");
-        if (index < 1 || index > overallBudget.getExpenses().size()) {
-            throw new InvalidInputException("Invalid index. Please provide a valid expense number.");
+        if (index > overallBudget.getExpenseCount()) {
+            expenseLoader.loadExpensesFrom(null);
         }
+        Expense expenseToDelete = overallBudget.getExpenseAtDisplayIndex(index);
+        Budget categoryBudget = getCategoryBudgetOf(expenseToDelete.getId());
+        Ui.printDeleteExpense(expenseToDelete);
 
-        ArrayList<Expense> expenses = overallBudget.getExpenses();
-        Expense expenseToDelete = expenses.get(overallBudget.getExpenses().size() - index);
-        Ui.printDeleteExpense(expenses, index);
-
-        overallBudget.deleteExpense(index);
+        // Removing the row from the shared store also removes it from its category budget.
+        overallBudget.removeExpense(expenseToDelete);
         logger.info("Expense at index " + index + " deleted from Overall Budget.");
+        changeListener.expenseDeleted(expenseToDelete.getId());
 
-        for (Map.Entry<String, Budget> entry : budgets.entrySet()) {
-            String category = entry.getKey();
-            Budget categoryBudget = entry.getValue();
-
-            if (category.equals("Overall")) {
-                continue;
-            }
-
-            for (int i = 0; i < categoryBudget.getExpenses().size(); i++) {
-                Expense categoryExpense = categoryBudget.getExpenses().get(i);
-                if (categoryExpense.equals(expenseToDelete)) {
-                    categoryBudget.getExpenses().remove(i);
-                    Ui.printDeleteExpenseCategory(category);
-                    logger.info("Expense deleted from category '" + category + "'.");
-                    break;
-                }
-            }
+        if (categoryBudget != null) {
+            Ui.printDeleteExpenseCategory(categoryBudget.getCategory());
+            logger.info("Expense deleted from category '" + categoryBudget.getCategory() + "'.");
         }
     }
 
@@ -260,7 +474,10 @@ public class BudgetManager {
         }
 
         Budget overallBudget = budgets.get("Overall");
-        if (index < 1 || index > overallBudget.getExpenses().size()) {
+        if (index > overallBudget.getExpenseCount()) {
+            expenseLoader.loadExpensesFrom(null);
+        }
+        if (index < 1 || index > overallBudget.getExpenseCount()) {
             throw new InvalidInputException("Invalid index. Please provide a valid expense number.");
         }
 
@@ -269,29 +486,189 @@ public class BudgetManager {
                     "or date, to update.");
         }
 
-        Expense expenseToEdit = overallBudget.getExpenses().get(overallBudget.getExpenses().size() - index);
-        String category = "";
-        for (Map.Entry<String, Budget> entry : budgets.entrySet()) {
-            category = entry.getKey();
-            Budget categoryBudget = entry.getValue();
+        Expense expenseToEdit = overallBudget.getExpenseAtDisplayIndex(index);
+        Budget categoryBudget = getCategoryBudgetOf(expenseToEdit.getId());
 
-            if (category.equals("Overall")) {
-                continue;
-            }
+        expenseToEdit.editExpense(amount, description, dateTime);
+        expenseLoader.loadExpensesFrom(expenseToEdit.getDateTime());
+        overallBudget.updateExpense(expenseToEdit);
+        changeListener.expenseEdited(expenseToEdit);
+        Ui.printExpenseEditedMessage(expenseToEdit, index);
+        checkBudgetAlert();
+        checkBudgetLimit("Overall");
+        if (categoryBudget != null) {
+            checkBudgetLimit(categoryBudget.getCategory());
+        }
+    }
 
-            for (int i = 0; i < categoryBudget.getExpenses().size(); i++) {
-                Expense categoryExpense = categoryBudget.getExpenses().get(i);
-                if (categoryExpense.equals(expenseToEdit)) {
-                    break;
-                }
+    /**
+     * Looks up an expense by its unique ID.
+     *
+     * @param id The ID of the expense.
+     * @return The expense, or {@code null} if no expense has that ID.
+     */
+    public Expense getExpenseById(long id) {
+        return ledger.get(id);
+    }
+
+    /**
+     * Returns the budget an expense counts towards besides Overall.
+     *
+     * @param id The ID of the expense.
+     * @return The category budget, or {@code null} if the expense belongs to no category or does not exist.
+     */
+    public Budget getCategoryBudgetOf(long id) {
+        return budgetsByCategoryId.get(ledger.getCategory(id));
+    }
+
+    /**
+     * Creates or updates a budget without any user-facing output.
+     * Used when restoring persisted data.
+     *
+     * @param category   The budget category, "Overall" included.
+     * @param limitCents The spending limit of the budget, in cents.
+     * @return The restored budget.
+     */
+    public Budget restoreBudget(String category, long limitCents) {
+        Budget budget = budgets.get(category);
+        if (budget == null) {
+            budget = category.equals("Overall") ? newOverallBudget(0) : newCategoryBudget(category, 0);
+            budgets.put(category, budget);
+        }
+        budget.setLimitCents(limitCents);
+        return budget;
+    }
+
+    /**
+     * Adds a persisted expense to a budget without any user-facing output or alert checks.
+     * An expense already known by ID is not stored again; restoring it under a category only tags it.
+     * Expenses created afterwards take higher IDs.
+     *
+     * @param category The category the expense belongs to, or "Overall".
+     * @param expense  The expense to restore.
+     */
+    public void restoreExpense(String category, Expense expense) {
+        Expense.reserveIdsFrom(expense.getId() + 1);
+        Budget budget = budgets.get(category);
+        if (budget == null) {
+            budget = restoreBudget(category, 0);
+        }
+        budget.addExpense(expense);
+    }
+
+    /**
+     * Adds a persisted recurring expense rule to a budget without any user-facing output or alert checks.
+     * A rule already known by ID is not stored again; restoring it under a category only tags it.
+     * Rules created afterwards take higher IDs.
+     *
+     * @param category The category the rule belongs to, or "Overall".
+     * @param rule     The rule to restore.
+     */
+    public void restoreRecurringRule(String category, RecurringRule rule) {
+        RecurringRule.reserveIdsFrom(rule.getId() + 1);
+        Budget budget = budgets.get(category);
+        if (budget == null) {
+            budget = restoreBudget(category, 0);
+        }
+        budget.addRecurringRule(rule);
+    }
+
+    /**
+     * Renames a budget without any user-facing output. Used when replaying persisted changes.
+     *
+     * @param oldName The current name of the budget.
+     * @param newName The new name of the budget.
+     */
+    public void restoreBudgetRename(String oldName, String newName) {
+        Budget budget = budgets.remove(oldName);
+        if (budget != null) {
+            budget.setCategory(newName);
+            budgets.put(newName, budget);
+        }
+    }
+
+    /**
+     * Writes persisted new values of an existing expense back without any user-facing output or alert checks.
+     * The expense is matched by ID; an unknown ID is ignored.
+     *
+     * @param expense An expense holding the ID and the new values.
+     */
+    public void restoreExpenseEdit(Expense expense) {
+        budgets.get("Overall").updateExpense(expense);
+    }
+
+    /**
+     * Deletes an expense by ID without any user-facing output. An unknown ID is ignored.
+     *
+     * @param id The ID of the expense.
+     */
+    public void restoreExpenseDeletion(long id) {
+        Expense expense = ledger.get(id);
+        if (expense != null) {
+            budgets.get("Overall").removeExpense(expense);
+        }
+    }
+
+    /**
+     * Deletes a recurring expense rule by ID without any user-facing output. An unknown ID is ignored.
+     *
+     * @param id The ID of the rule.
+     */
+    public void restoreRecurringRuleDeletion(long id) {
+        Budget overallBudget = budgets.get("Overall");
+        for (RecurringRule rule : overallBudget.getRecurringRules()) {
+            if (rule.getId() == id) {
+                overallBudget.removeRecurringRule(rule);
+                return;
             }
         }
+    }
 
-        expenseToEdit.editExpense(amount, description, dateTime);
-        Ui.printExpenseEditedMessage(overallBudget.getExpenses(), index);
-        checkBudgetAlert();
-        checkBudgetLimit("Overall");
-        checkBudgetLimit(category);
+    /**
+     * Sets the budget alert without any user-facing output or alert check.
+     *
+     * @param alertCents The alert threshold, in cents, or 0 for no alert.
+     */
+    public void restoreBudgetAlert(long alertCents) {
+        alert.restoreAlertCents(alertCents);
+    }
+
+    /**
+     * Counts persisted expenses that are not loaded towards the totals of a budget, without any user-facing
+     * output. The budget is created if it does not exist.
+     *
+     * @param category The category the expenses belong to, or "Overall" for expenses in no category.
+     * @param cents    The amount to add, negative once the expenses have been loaded.
+     */
+    public void restoreUnloadedTotal(String category, long cents) {
+        Budget budget = budgets.get(category);
+        if (budget == null) {
+            budget = restoreBudget(category, 0);
+        }
+        int categoryId = category.equals("Overall") ? ExpenseStore.NO_CATEGORY : budget.getCategoryId();
+        ledger.addUnloadedTotal(categoryId, cents);
+    }
+
+    /**
+     * Registers the loader asked for persisted expenses that were not loaded, whenever an operation needs
+     * them. Replaces any previous loader.
+     *
+     * @param loader The loader.
+     */
+    public void setExpenseLoader(ExpenseLoader loader) {
+        assert loader != null : "Expense loader should not be null.";
+        this.expenseLoader = loader;
+    }
+
+    /**
+     * Registers the listener told about every change made through the user-facing operations of this manager.
+     * Replaces any previous listener.
+     *
+     * @param listener The listener.
+     */
+    public void setChangeListener(BudgetChangeListener listener) {
+        assert listener != null : "Change listener should not be null.";
+        this.changeListener = listener;
     }
 
     /**
@@ -306,9 +683,9 @@ public class BudgetManager {
             Budget overallBudget = budgets.get("Overall");
             assert overallBudget != null : "Error: 'Overall' budget should always exist.";
 
-            double totalBudget = overallBudget.getLimit();
-            double spent = overallBudget.getTotalExpenses();
-            double remaining = Math.max(0, totalBudget - spent);
+            long totalBudget = overallBudget.getLimitCents();
+            long spent = overallBudget.getTotalExpensesCents();
+            long remaining = Math.max(0, totalBudget - spent);
             Ui.printCheckBudget("", totalBudget, spent, remaining);
         } else {
             if (!budgets.containsKey(category)) {
@@ -319,9 +696,9 @@ public class BudgetManager {
             assert budgets.get(category) != null : "Category budget should exist when checking.";
 
             Budget categoryBudget = budgets.get(category);
-            double totalBudget = categoryBudget.getLimit();
-            double spent = categoryBudget.getTotalExpenses();
-            double remaining = Math.max(0, totalBudget - spent);
+            long totalBudget = categoryBudget.getLimitCents();
+            long spent = categoryBudget.getTotalExpensesCents();
+            long remaining = Math.max(0, totalBudget - spent);
             Ui.printCheckBudget(category, totalBudget, spent, remaining);
         }
     }
@@ -331,24 +708,35 @@ public class BudgetManager {
     }
 
     /**
-     * Finds and displays expenses from the Overall budget that match the given keyword.
+     * Finds and displays expenses from the Overall budget whose description contains every word of the keyword.
      *
      * @param keyword The keyword to search for in expense descriptions.
      */
     public void findExpense(String keyword) {
+        findExpense(keyword, SearchMode.ALL);
+    }
+
+    /**
+     * Finds and displays expenses from the Overall budget whose description matches the keyword.
+     *
+     * @param keyword The keyword, or space-separated keywords, to search for in expense descriptions.
+     * @param mode    Whether all words, any word, or the keyword as a substring must match.
+     */
+    public void findExpense(String keyword, SearchMode mode) {
         assert keyword != null && !keyword.trim().isEmpty() : "Error: Keyword should not be null or empty.";
 
+        expenseLoader.loadExpensesFrom(null);
         Budget overallBudget = budgets.get("Overall");
         boolean found = false;
 
 
         Ui.printSearchHeader(keyword);
-        for (int i = 0; i < overallBudget.getExpenses().size(); i++) {
-            Expense expense = overallBudget.getExpenses().get(i);
-            if (expense.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
-                Ui.printMatchingExpense(i + 1, expense);
-                found = true;
-            }
+        // Most recent first, numbered as in the expense list so the numbers work with delete and edit
+        List<Expense> matches = overallBudget.findExpenses(keyword, mode);
+        for (int i = matches.size() - 1; i >= 0; i--) {
+            Expense expense = matches.get(i);
+            Ui.printMatchingExpense(overallBudget.getDisplayIndex(expense), expense);
+            found = true;
         }
 
         if (!found) {
@@ -381,15 +769,19 @@ public class BudgetManager {
         // Update the budget limit if specified
         if (newAmount >= 0) {
             budgetToEdit.setLimit(newAmount);
+            changeListener.budgetSet(currentName, budgetToEdit.getLimitCents());
             Ui.printUpdateBudgetLimit(currentName, newAmount);
             checkBudgetLimit(currentName);
         }
 
         // Rename the budget if a new name is provided and different from the current one
         if (newName != null && !newName.equals(currentName) && !newName.isEmpty()) {
+            // Expenses not loaded yet are persisted under the current name.
+            expenseLoader.loadExpensesFrom(null);
             budgets.remove(currentName);
             budgetToEdit.setCategory(newName);
             budgets.put(newName, budgetToEdit);
+            changeListener.budgetRenamed(currentName, newName);
             Ui.printRenamedBudget(currentName, newName);
         }
 
@@ -404,6 +796,7 @@ public class BudgetManager {
      */
     public void removeBudgetAlert() {
         alert.removeAlert();
+        changeListener.alertSet(0);
         logger.info("Budget alert removed.");
     }
 
@@ -426,4 +819,14 @@ public class BudgetManager {
         }
         budget.checkLimit();
     }
+
+    private Budget newOverallBudget(double limit) {
+        return new Budget("Overall", limit, ledger, ExpenseStore.ALL_CATEGORIES);
+    }
+
+    private Budget newCategoryBudget(String category, double limit) {
+        Budget budget = new Budget(category, limit, ledger, ledger.registerCategory());
+        budgetsByCategoryId.put(budget.getCategoryId(), budget);
+        return budget;
+    }
 }
@@ -0,0 +1,194 @@
+package budgetbuddy.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+
+/**
+ * Inverted index over the descriptions of the rows of an {@link ExpenseStore}.
+ * <p>
+ * The index has two levels. Each normalized token maps to the {@link StringDictionary} IDs of the distinct
+ * descriptions containing it, and each description ID heads a linked list of the slots of the rows that
+ * carry it. A description is tokenized only the first time a row uses it, and a lookup only touches the
+ * descriptions and rows it returns, so its cost follows the number of matches rather than the number of rows.
+ * </p>
+ * <p>
+ * A token is a maximal run of letters and digits, lower-cased, so "Lunch@Home" has the tokens "lunch" and
+ * "home".
+ * </p>
+ */
+class DescriptionIndex {
+    private static final int NONE = -1;
+
+    private final HashMap<String, HashSet<Integer>> descriptionIdsByToken;
+    // Indexed by description ID: the first slot of its row list, and whether its tokens have been indexed.
+    private int[] heads;
+    private boolean[] isTokenized;
+    // Indexed by slot: the neighbours of the row in its description's row list.
+    private int[] nextSlots;
+    private int[] previousSlots;
+
+    DescriptionIndex(int slotCapacity) {
+        descriptionIdsByToken = new HashMap<>();
+        heads = new int[0];
+        isTokenized = new boolean[0];
+        nextSlots = new int[slotCapacity];
+        previousSlots = new int[slotCapacity];
+    }
+
+    /**
+     * Splits text into lower-case tokens of letters and digits.
+     *
+     * @param text The text to split.
+     * @return The tokens in order of appearance, possibly with repeats.
+     */
+    static String[] tokenize(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isTokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTokenChar && start < 0) {
+                start = i;
+            } else if (!isTokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    void growSlots(int capacity) {
+        nextSlots = Arrays.copyOf(nextSlots, capacity);
+        previousSlots = Arrays.copyOf(previousSlots, capacity);
+    }
+
+    /**
+     * Adds a row to the list of its description, indexing the description's tokens if it is new.
+     */
+    void link(int slot, int descriptionId) {
+        if (descriptionId >= heads.length) {
+            int oldLength = heads.length;
+            int capacity = Math.max(descriptionId + 1, oldLength * 2);
+            heads = Arrays.copyOf(heads, capacity);
+            Arrays.fill(heads, oldLength, capacity, NONE);
+            isTokenized = Arrays.copyOf(isTokenized, capacity);
+        }
+        if (!isTokenized[descriptionId]) {
+            for (String token : tokenize(StringDictionary.text(descriptionId))) {
+                descriptionIdsByToken.computeIfAbsent(token, k -> new HashSet<>()).add(descriptionId);
+            }
+            isTokenized[descriptionId] = true;
+        }
+        int head = heads[descriptionId];
+        nextSlots[slot] = head;
+        previousSlots[slot] = NONE;
+        if (head != NONE) {
+            previousSlots[head] = slot;
+        }
+        heads[descriptionId] = slot;
+    }
+
+    /**
+     * Removes a row from the list of its description.
+     */
+    void unlink(int slot, int descriptionId) {
+        int next = nextSlots[slot];
+        int previous = previousSlots[slot];
+        if (previous == NONE) {
+            heads[descriptionId] = next;
+        } else {
+            nextSlots[previous] = next;
+        }
+        if (next != NONE) {
+            previousSlots[next] = previous;
+        }
+    }
+
+    /**
+     * Returns the slots of the rows whose description contains all, or any, of the tokens.
+     *
+     * @param tokens The normalized tokens to look up.
+     * @param isAll  Whether a description must contain every token rather than at least one.
+     * @return The matching slots, in no particular order.
+     */
+    int[] findSlots(String[] tokens, boolean isAll) {
+        HashSet<Integer> matchingIds = new HashSet<>();
+        if (isAll) {
+            HashSet<Integer> rarest = null;
+            for (String token : tokens) {
+                HashSet<Integer> candidates = descriptionIdsByToken.get(token);
+                if (candidates == null) {
+                    return new int[0];
+                }
+                if (rarest == null || candidates.size() < rarest.size()) {
+                    rarest = candidates;
+                }
+            }
+            if (rarest != null) {
+                for (int descriptionId : rarest) {
+                    if (containsAll(descriptionId, tokens)) {
+                        matchingIds.add(descriptionId);
+                    }
+                }
+            }
+        } else {
+            for (String token : tokens) {
+                matchingIds.addAll(descriptionIdsByToken.getOrDefault(token, new HashSet<>()));
+            }
+        }
+        SlotCollector collector = new SlotCollector();
+        for (int descriptionId : matchingIds) {
+            collector.addRowsOf(descriptionId);
+        }
+        return collector.toArray();
+    }
+
+    /**
+     * Returns the slots of the rows whose description ID is marked in {@code isMatch}.
+     */
+    int[] findSlots(boolean[] isMatch) {
+        SlotCollector collector = new SlotCollector();
+        for (int descriptionId = 0; descriptionId < Math.min(isMatch.length, heads.length); descriptionId++) {
+            if (isMatch[descriptionId]) {
+                collector.addRowsOf(descriptionId);
+            }
+        }
+        return collector.toArray();
+    }
+
+    long estimateFootprintBytes() {
+        return nextSlots.length * (long) Integer.BYTES * 2 + heads.length * (long) (Integer.BYTES + 1);
+    }
+
+    private boolean containsAll(int descriptionId, String[] tokens) {
+        for (String token : tokens) {
+            if (!descriptionIdsByToken.get(token).contains(descriptionId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Growable list of slots gathered from description row lists.
+     */
+    private class SlotCollector {
+        private int[] slots = new int[16];
+        private int count;
+
+        void addRowsOf(int descriptionId) {
+            for (int slot = heads[descriptionId]; slot != NONE; slot = nextSlots[slot]) {
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, count * 2);
+                }
+                slots[count++] = slot;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, count);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package budgetbuddy.model;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -18,13 +19,17 @@ public class Expense {
     // Formatter to display date and time.
     protected static final DateTimeFormatter DATETIME_FORMAT =
             DateTimeFormatter.ofPattern("MMM dd yyyy 'at' HH:mm");
+    // Source of unique expense IDs. IDs are never reused within a session.
+    private static final AtomicLong nextId = new AtomicLong(1);
 
     // The date and time when the expense was recorded.
     public LocalDateTime dateTime;
-    // A textual description of the expense.
-    protected String description;
-    // The monetary amount of the expense.
-    protected double amount;
+    // Dictionary ID of the textual description of the expense.
+    protected int descriptionId;
+    // The monetary amount of the expense, in cents.
+    protected long amountCents;
+    // Unique identifier of the expense, stable across edits and persisted with it.
+    private final long id;
 
     /**
      * Creates a new Expense with a specified amount and description.
@@ -46,8 +51,9 @@ public class Expense {
             throw new IllegalArgumentException("Amount cannot be negative.");
         }
         // Initialize instance variables.
-        this.description = description;
-        this.amount = amount;
+        this.descriptionId = StringDictionary.intern(description);
+        this.amountCents = Money.fromDouble(amount);
+        this.id = nextId.getAndIncrement();
         // Set dateTime to the system's current date and time.
         this.dateTime = LocalDateTime.now();
         assert dateTime != null : "DateTime cannot be null.";
@@ -75,8 +81,9 @@ public class Expense {
             throw new IllegalArgumentException("Amount cannot be negative.");
         }
         // Initialize fields.
-        this.description = description;
-        this.amount = amount;
+        this.descriptionId = StringDictionary.intern(description);
+        this.amountCents = Money.fromDouble(amount);
+        this.id = nextId.getAndIncrement();
 
         if (dateTimeString == "") {
             this.dateTime = LocalDateTime.now();
@@ -106,8 +113,9 @@ public class Expense {
             throw new IllegalArgumentException("Amount cannot be negative.");
         }
         // Initialize fields.
-        this.description = description;
-        this.amount = amount;
+        this.descriptionId = StringDictionary.intern(description);
+        this.amountCents = Money.fromDouble(amount);
+        this.id = nextId.getAndIncrement();
         // Use the DateTimeUtil to parse the provided string.
         this.dateTime = budgetbuddy.parser.DateTimeParser.parseOrDefault(dateTimeString, noErrorPrint);
         //when noErrorPrint is true then we don't print error messages
@@ -138,11 +146,112 @@ public class Expense {
             throw new IllegalArgumentException("DateTime cannot be null.");
         }
         // Initialize instance variables.
-        this.description = description;
-        this.amount = amount;
+        this.descriptionId = StringDictionary.intern(description);
+        this.amountCents = Money.fromDouble(amount);
+        this.id = nextId.getAndIncrement();
         this.dateTime = (LocalDateTime) dateTime;
     }
 
+    /**
+     * Re-creates a previously persisted expense with its original ID.
+     * <p>
+     * The ID counter is left alone, since the store also builds such expenses as views of the rows it holds;
+     * {@link BudgetManager#restoreExpense(String, Expense)} advances it past the ID of a restored expense.
+     * </p>
+     *
+     * @param id          The persisted ID of the expense. Must be positive.
+     * @param amountCents The amount spent, in cents. Must be non-negative.
+     * @param description The description of the expense. Cannot be null.
+     * @param dateTime    The date and time of the expense. Cannot be null.
+     * @throws IllegalArgumentException If the ID is not positive or any other field is invalid.
+     */
+    public Expense(long id, long amountCents, String description, LocalDateTime dateTime) {
+        this(id, amountCents, internDescription(description), dateTime);
+    }
+
+    /**
+     * Re-creates a previously persisted expense whose description is already in the {@link StringDictionary}.
+     *
+     * @param id            The persisted ID of the expense. Must be positive.
+     * @param amountCents   The amount spent, in cents. Must be non-negative.
+     * @param descriptionId The dictionary ID of the description.
+     * @param dateTime      The date and time of the expense. Cannot be null.
+     * @throws IllegalArgumentException If the ID is not positive or any other field is invalid.
+     */
+    public Expense(long id, long amountCents, int descriptionId, LocalDateTime dateTime) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Expense ID must be positive.");
+        }
+        if (descriptionId < 0 || descriptionId >= StringDictionary.size()) {
+            throw new IllegalArgumentException("Unknown description ID: " + descriptionId);
+        }
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative.");
+        }
+        if (dateTime == null) {
+            throw new IllegalArgumentException("DateTime cannot be null.");
+        }
+        this.id = id;
+        this.descriptionId = descriptionId;
+        this.amountCents = amountCents;
+        this.dateTime = dateTime;
+    }
+
+    /**
+     * Makes new expenses take IDs from at least the given one, so that they cannot clash with IDs given out
+     * elsewhere below it.
+     *
+     * @param firstId The lowest ID a new expense may take.
+     * @return The ID the next new expense takes.
+     */
+    public static long reserveIdsFrom(long firstId) {
+        return nextId.accumulateAndGet(firstId, Math::max);
+    }
+
+    /**
+     * Makes the next new expense take the given ID, undoing the effect of expenses restored with IDs given out
+     * elsewhere, such as in another process. The caller makes sure no expense holds it or an ID above it that may
+     * be given out.
+     *
+     * @param id The ID the next new expense takes.
+     */
+    public static void resumeIdsAt(long id) {
+        nextId.set(id);
+    }
+
+    /**
+     * Creates a new expense from an amount already parsed into cents, as the add commands do.
+     * <p>
+     * An empty {@code dateTimeString} means now; otherwise it is parsed the same way as in
+     * {@link #Expense(double, String, String)}.
+     * </p>
+     *
+     * @param amountCents    The amount spent, in cents. Must be non-negative.
+     * @param description    The description of the expense. Cannot be null.
+     * @param dateTimeString The user provided date and time as a string.
+     * @return The new expense.
+     * @throws IllegalArgumentException If the description is null or the amount is negative.
+     */
+    public static Expense ofCents(long amountCents, String description, String dateTimeString) {
+        LocalDateTime dateTime = dateTimeString.isEmpty()
+                ? LocalDateTime.now()
+                : budgetbuddy.parser.DateTimeParser.parseOrDefault(dateTimeString, false);
+        return new Expense(nextId.getAndIncrement(), amountCents, description, dateTime);
+    }
+
+    /**
+     * Creates a new expense from fields that have already been parsed, as an import does.
+     *
+     * @param amountCents   The amount spent, in cents. Must be non-negative.
+     * @param descriptionId The dictionary ID of the description.
+     * @param dateTime      The date and time of the expense. Cannot be null.
+     * @return The new expense.
+     * @throws IllegalArgumentException If any field is invalid.
+     */
+    public static Expense ofCents(long amountCents, int descriptionId, LocalDateTime dateTime) {
+        return new Expense(nextId.getAndIncrement(), amountCents, descriptionId, dateTime);
+    }
+
     /**
      * Returns a string representation of the expense, including the amount and timestamp.
      * <p>
@@ -156,9 +265,23 @@ public class Expense {
         // Format the dateTime using the specified formatter.
         String formattedDateTime = dateTime.format(DATETIME_FORMAT);
         // Format the amount as currency.
-        String formattedAmount = String.format("$%,.2f", amount);
+        String formattedAmount = Money.formatCurrency(amountCents);
         // Build and return the full string representation.
-        return formattedAmount + " spent on " + description + " (" + formattedDateTime + ")";
+        return formattedAmount + " spent on " + getDescription() + " (" + formattedDateTime + ")";
+    }
+
+    /**
+     * Returns whether the other object is an expense with the same ID.
+     * Views of the same stored expense are equal even when created separately.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Expense && ((Expense) other).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
     }
 
     /**
@@ -181,27 +304,45 @@ public class Expense {
      */
     public void editExpense(String amountStr, String description, String dateTime){
         if (!amountStr.isEmpty()) {
-            double amount = Double.parseDouble(amountStr);
-            if (amount <= 0)  {
+            long cents = Money.parseCents(amountStr);
+            if (cents <= 0)  {
                 throw new IllegalArgumentException ("Amount cannot be zero or negative");
             }
-            this.amount = amount;
+            this.amountCents = cents;
         }
         if (!description.isEmpty()) {
-            this.description = description;
+            this.descriptionId = StringDictionary.intern(description);
         }
         if (!dateTime.isEmpty()) {
             this.dateTime = budgetbuddy.parser.DateTimeParser.parseOrDefault(dateTime, false);
         }
     }
 
+    /**
+     * Retrieves the unique ID of the expense.
+     *
+     * @return The expense ID.
+     */
+    public long getId() {
+        return id;
+    }
+
     /**
      * Retrieves the monetary amount of the expense.
      *
      * @return The expense amount.
      */
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amountCents);
+    }
+
+    /**
+     * Retrieves the exact monetary amount of the expense, in cents.
+     *
+     * @return The expense amount in cents.
+     */
+    public long getAmountCents() {
+        return amountCents;
     }
 
     /**
@@ -210,7 +351,16 @@ public class Expense {
      * @return The expense description.
      */
     public String getDescription() {
-        return description;
+        return StringDictionary.text(descriptionId);
+    }
+
+    /**
+     * Retrieves the dictionary ID of the description of the expense.
+     *
+     * @return The description ID in the {@link StringDictionary}.
+     */
+    public int getDescriptionId() {
+        return descriptionId;
     }
 
     /**
@@ -224,4 +374,11 @@ public class Expense {
     public LocalDateTime getDateTime() {
         return dateTime;
     }
+
+    private static int internDescription(String description) {
+        if (description == null) {
+            throw new IllegalArgumentException("Description cannot be empty.");
+        }
+        return StringDictionary.intern(description);
+    }
 }
@@ -0,0 +1,22 @@
+package budgetbuddy.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Loads persisted expenses that were left out when the data of a {@link BudgetManager} was loaded.
+ * <p>
+ * Expenses left out are always older than every loaded one, and are only counted in budget totals until
+ * loaded. The manager asks for them before an operation that needs them as rows: listing or searching
+ * expenses, addressing one by an index past the loaded ones, or adding or moving one to a time that is not
+ * loaded.
+ * </p>
+ */
+public interface ExpenseLoader {
+    /**
+     * Loads every expense not yet loaded that is dated at or after the given time, restoring it into the
+     * manager without any user-facing output.
+     *
+     * @param from The earliest time needed, or {@code null} for every expense.
+     */
+    void loadExpensesFrom(LocalDateTime from);
+}
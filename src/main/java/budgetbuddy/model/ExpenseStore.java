@@ -0,0 +1,657 @@
+package budgetbuddy.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Columnar storage engine for expenses.
+ * <p>
+ * Each expense is a row spread across parallel primitive arrays (ID, timestamp, amount,
+ * {@link StringDictionary} description ID and category ID), so a row costs a few dozen bytes instead of a
+ * full object graph. {@link Expense} objects are only created on demand as views of a row. Deleted rows are
+ * recycled by later inserts, so a row keeps its slot for as long as it exists.
+ * </p>
+ * <p>
+ * Besides the columns, the store keeps:
+ * <ul>
+ *     <li>an ID-to-slot index, for constant-time lookup by expense ID,</li>
+ *     <li>a chronological order-statistic tree of slots, for positional and time-range access in
+ *     O(log n),</li>
+ *     <li>running total, count, min and max per category and for all rows together.</li>
+ * </ul>
+ * Recurring expenses are kept apart as {@link RecurringRule}s, each tagged with a category like a row.
+ * Their occurrences are never materialized as rows; only a running total of them per category is kept.
+ * Likewise, expenses that are persisted but not loaded are only represented by a total per category.
+ * A single store is shared by the Overall budget and every category budget of a {@link BudgetManager};
+ * the category column records which category budget, if any, a row also belongs to.
+ * </p>
+ */
+public class ExpenseStore {
+    /** Category ID selecting every row in the store. */
+    public static final int ALL_CATEGORIES = -1;
+    /** Category ID of rows that belong to no category budget. */
+    public static final int NO_CATEGORY = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+    // Number of slots taken from the time order at a time when visiting a range.
+    private static final int VISIT_CHUNK = 4096;
+
+    // Row columns, indexed by slot.
+    private long[] ids;
+    private long[] timestamps;
+    private long[] amounts; // cents
+    private int[] descriptionIds;
+    private int[] categoryIds;
+    // Slots below this mark have been used at least once; free ones are listed in freeSlots.
+    private int slotHighWaterMark;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private final IdIndex slotsById;
+    // Slots of live rows ordered by (timestamp, id), and by (category ID, timestamp, id) for positions within
+    // one category.
+    private final OrderStatisticTree timeOrder;
+    private final OrderStatisticTree categoryOrder;
+    private final DescriptionIndex descriptionIndex;
+
+    // Aggregates, indexed by category ID + 1 so that ALL_CATEGORIES maps to index 0.
+    private long[] totals;
+    private int[] counts;
+    private long[] mins;
+    private long[] maxes;
+    private boolean[] isExtremaStale;
+    private int categoryCount;
+
+    // Recurring rules in insertion order, with their categories and the running total of their occurrences.
+    private final LinkedHashMap<Long, RecurringRule> rulesById;
+    private final HashMap<Long, Integer> ruleCategoryIds;
+    private long[] recurringTotals;
+    // Totals of persisted expenses that have not been loaded as rows, indexed like the aggregates.
+    private long[] unloadedTotals;
+
+    /**
+     * Creates an empty store.
+     */
+    public ExpenseStore() {
+        ids = new long[INITIAL_CAPACITY];
+        timestamps = new long[INITIAL_CAPACITY];
+        amounts = new long[INITIAL_CAPACITY];
+        descriptionIds = new int[INITIAL_CAPACITY];
+        categoryIds = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        timeOrder = new OrderStatisticTree(new OrderStatisticTree.SlotKeys() {
+            @Override
+            public long primaryKey(int slot) {
+                return timestamps[slot];
+            }
+
+            @Override
+            public long secondaryKey(int slot) {
+                return ids[slot];
+            }
+        }, INITIAL_CAPACITY);
+        categoryOrder = new OrderStatisticTree(new OrderStatisticTree.SlotKeys() {
+            @Override
+            public long groupKey(int slot) {
+                return categoryIds[slot];
+            }
+
+            @Override
+            public long primaryKey(int slot) {
+                return timestamps[slot];
+            }
+
+            @Override
+            public long secondaryKey(int slot) {
+                return ids[slot];
+            }
+        }, INITIAL_CAPACITY);
+        slotsById = new IdIndex(slot -> ids[slot]);
+        descriptionIndex = new DescriptionIndex(INITIAL_CAPACITY);
+        categoryCount = 1; // NO_CATEGORY
+        totals = new long[2];
+        counts = new int[2];
+        mins = new long[2];
+        maxes = new long[2];
+        isExtremaStale = new boolean[2];
+        rulesById = new LinkedHashMap<>();
+        ruleCategoryIds = new HashMap<>();
+        recurringTotals = new long[2];
+        unloadedTotals = new long[2];
+    }
+
+    /**
+     * Reserves a new category ID for a category budget backed by this store.
+     *
+     * @return A category ID not used by any other budget of this store.
+     */
+    int registerCategory() {
+        int categoryId = categoryCount++;
+        int length = categoryCount + 1;
+        if (totals.length < length) {
+            int capacity = Math.max(length, totals.length * 2);
+            totals = Arrays.copyOf(totals, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxes = Arrays.copyOf(maxes, capacity);
+            isExtremaStale = Arrays.copyOf(isExtremaStale, capacity);
+            recurringTotals = Arrays.copyOf(recurringTotals, capacity);
+            unloadedTotals = Arrays.copyOf(unloadedTotals, capacity);
+        }
+        return categoryId;
+    }
+
+    /**
+     * Returns the number of expenses in the store.
+     */
+    public int size() {
+        return timeOrder.size();
+    }
+
+    /**
+     * Returns whether an expense with the given ID is stored.
+     */
+    public boolean contains(long id) {
+        return slotsById.get(id) != IdIndex.MISSING;
+    }
+
+    /**
+     * Appends a row for the expense.
+     *
+     * @param expense    The expense to store.
+     * @param categoryId The category the expense belongs to, or {@link #NO_CATEGORY}.
+     * @return {@code false} if an expense with the same ID is already stored, in which case nothing changes.
+     */
+    boolean add(Expense expense, int categoryId) {
+        if (contains(expense.getId())) {
+            return false;
+        }
+        int slot = allocateSlot();
+        ids[slot] = expense.getId();
+        timestamps[slot] = toTimestamp(expense.getDateTime());
+        amounts[slot] = expense.getAmountCents();
+        descriptionIds[slot] = expense.getDescriptionId();
+        categoryIds[slot] = categoryId;
+        slotsById.put(slot);
+        timeOrder.insert(slot);
+        categoryOrder.insert(slot);
+        descriptionIndex.link(slot, descriptionIds[slot]);
+        include(ALL_CATEGORIES, amounts[slot]);
+        include(categoryId, amounts[slot]);
+        return true;
+    }
+
+    /**
+     * Removes the row of the expense with the given ID.
+     *
+     * @return {@code false} if no such expense is stored.
+     */
+    boolean remove(long id) {
+        int slot = slotsById.get(id);
+        if (slot == IdIndex.MISSING) {
+            return false;
+        }
+        timeOrder.remove(slot);
+        categoryOrder.remove(slot);
+        slotsById.remove(id);
+        descriptionIndex.unlink(slot, descriptionIds[slot]);
+        exclude(ALL_CATEGORIES, amounts[slot]);
+        exclude(categoryIds[slot], amounts[slot]);
+        freeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Returns the category ID of the expense with the given ID, or -1 if it is not stored.
+     */
+    int getCategory(long id) {
+        int slot = slotsById.get(id);
+        return slot == IdIndex.MISSING ? -1 : categoryIds[slot];
+    }
+
+    /**
+     * Moves the expense with the given ID to another category, updating both categories' aggregates.
+     *
+     * @return {@code false} if no such expense is stored.
+     */
+    boolean setCategory(long id, int categoryId) {
+        int slot = slotsById.get(id);
+        if (slot == IdIndex.MISSING) {
+            return false;
+        }
+        if (categoryIds[slot] != categoryId) {
+            exclude(categoryIds[slot], amounts[slot]);
+            categoryOrder.remove(slot);
+            categoryIds[slot] = categoryId;
+            categoryOrder.insert(slot);
+            include(categoryId, amounts[slot]);
+        }
+        return true;
+    }
+
+    /**
+     * Overwrites the amount, description and time of a stored expense with those of {@code expense},
+     * matched by ID.
+     *
+     * @return {@code false} if no expense with that ID is stored.
+     */
+    boolean update(Expense expense) {
+        int slot = slotsById.get(expense.getId());
+        if (slot == IdIndex.MISSING) {
+            return false;
+        }
+        long timestamp = toTimestamp(expense.getDateTime());
+        if (timestamp != timestamps[slot]) {
+            timeOrder.remove(slot);
+            categoryOrder.remove(slot);
+            timestamps[slot] = timestamp;
+            timeOrder.insert(slot);
+            categoryOrder.insert(slot);
+        }
+        exclude(ALL_CATEGORIES, amounts[slot]);
+        exclude(categoryIds[slot], amounts[slot]);
+        amounts[slot] = expense.getAmountCents();
+        include(ALL_CATEGORIES, amounts[slot]);
+        include(categoryIds[slot], amounts[slot]);
+        if (descriptionIds[slot] != expense.getDescriptionId()) {
+            descriptionIndex.unlink(slot, descriptionIds[slot]);
+            descriptionIds[slot] = expense.getDescriptionId();
+            descriptionIndex.link(slot, descriptionIds[slot]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a view of the expense with the given ID, or {@code null} if it is not stored.
+     */
+    Expense get(long id) {
+        int slot = slotsById.get(id);
+        return slot == IdIndex.MISSING ? null : view(slot);
+    }
+
+    /**
+     * Returns a view of the expense at the given position in chronological order (0 is the oldest).
+     */
+    Expense getAtRank(int rank) {
+        return view(timeOrder.select(rank));
+    }
+
+    /**
+     * Returns a view of the expense at the given position in the chronological order of one category (0 is the
+     * oldest), in O(log n).
+     */
+    Expense getAtRank(int rank, int categoryId) {
+        if (categoryId == ALL_CATEGORIES) {
+            return getAtRank(rank);
+        }
+        return view(categoryOrder.select(categoryOrder.countBelow(categoryId, Long.MIN_VALUE, Long.MIN_VALUE) + rank));
+    }
+
+    /**
+     * Returns the position of the expense in chronological order, or -1 if it is not stored.
+     */
+    int rankOf(long id) {
+        int slot = slotsById.get(id);
+        return slot == IdIndex.MISSING ? -1 : timeOrder.rankOf(slot);
+    }
+
+    /**
+     * Returns the position in chronological order of the first expense at or after the given time.
+     */
+    int firstRankAtOrAfter(LocalDateTime dateTime) {
+        return timeOrder.countBelow(toTimestamp(dateTime), Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns views of the expenses with positions {@code fromRank} (inclusive) to {@code toRank} (exclusive)
+     * in chronological order, keeping only those of the given category.
+     */
+    ArrayList<Expense> getRange(int fromRank, int toRank, int categoryId) {
+        ArrayList<Expense> result = new ArrayList<>(categoryId == ALL_CATEGORIES ? toRank - fromRank : 0);
+        for (int slot : timeOrder.slotsInRange(fromRank, toRank)) {
+            if (matches(slot, categoryId)) {
+                result.add(view(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes the expenses with positions {@code fromRank} (inclusive) to {@code toRank} (exclusive) in
+     * chronological order to the visitor, keeping only those of the given category. Rows are read from the
+     * columns and the range is walked a chunk at a time, so memory use does not depend on its size.
+     *
+     * @param categoryNames The name of each category ID, with {@code null} for {@link #NO_CATEGORY}.
+     */
+    void forEachInRange(int fromRank, int toRank, int categoryId, String[] categoryNames, ExpenseVisitor visitor) {
+        for (int chunkStart = fromRank; chunkStart < toRank; chunkStart += VISIT_CHUNK) {
+            for (int slot : timeOrder.slotsInRange(chunkStart, Math.min(toRank, chunkStart + VISIT_CHUNK))) {
+                if (matches(slot, categoryId)) {
+                    visitor.visit(ids[slot], amounts[slot], descriptionIds[slot], timestamps[slot],
+                            categoryNames[categoryIds[slot]]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns views of the expenses of a category whose description ID is marked in {@code isMatch},
+     * in chronological order. Rows are tested by ID only; the text is never looked at.
+     */
+    ArrayList<Expense> getByDescription(boolean[] isMatch, int categoryId) {
+        return viewsInTimeOrder(descriptionIndex.findSlots(isMatch), categoryId);
+    }
+
+    /**
+     * Returns views of the expenses of a category whose description contains all, or any, of the words of
+     * {@code query}, in chronological order. The cost follows the number of matches, not the store size.
+     */
+    ArrayList<Expense> getByWords(String query, boolean isAll, int categoryId) {
+        return viewsInTimeOrder(descriptionIndex.findSlots(DescriptionIndex.tokenize(query), isAll), categoryId);
+    }
+
+    /**
+     * Returns the number of expenses of a category at or after the given chronological position, in O(log n).
+     */
+    int countFromRank(int fromRank, int categoryId) {
+        if (categoryId == ALL_CATEGORIES) {
+            return size() - fromRank;
+        }
+        if (fromRank >= size()) {
+            return 0;
+        }
+        int slot = timeOrder.select(fromRank);
+        return categoryOrder.countBelow(categoryId + 1L, Long.MIN_VALUE, Long.MIN_VALUE)
+                - categoryOrder.countBelow(categoryId, timestamps[slot], ids[slot]);
+    }
+
+    /**
+     * Stores a recurring rule.
+     *
+     * @param rule       The rule to store.
+     * @param categoryId The category the rule belongs to, or {@link #NO_CATEGORY}.
+     * @return {@code false} if a rule with the same ID is already stored, in which case nothing changes.
+     */
+    boolean addRule(RecurringRule rule, int categoryId) {
+        if (rulesById.containsKey(rule.getId())) {
+            return false;
+        }
+        rulesById.put(rule.getId(), rule);
+        ruleCategoryIds.put(rule.getId(), categoryId);
+        long total = rule.getTotalCents();
+        recurringTotals[0] = Math.addExact(recurringTotals[0], total);
+        recurringTotals[categoryId + 1] = Math.addExact(recurringTotals[categoryId + 1], total);
+        return true;
+    }
+
+    /**
+     * Removes the recurring rule with the given ID.
+     *
+     * @return {@code false} if no such rule is stored.
+     */
+    boolean removeRule(long id) {
+        RecurringRule rule = rulesById.remove(id);
+        if (rule == null) {
+            return false;
+        }
+        int categoryId = ruleCategoryIds.remove(id);
+        recurringTotals[0] -= rule.getTotalCents();
+        recurringTotals[categoryId + 1] -= rule.getTotalCents();
+        return true;
+    }
+
+    /**
+     * Returns the category ID of the recurring rule with the given ID, or -1 if it is not stored.
+     */
+    int getRuleCategory(long id) {
+        return ruleCategoryIds.getOrDefault(id, -1);
+    }
+
+    /**
+     * Moves the recurring rule with the given ID to another category.
+     *
+     * @return {@code false} if no such rule is stored.
+     */
+    boolean setRuleCategory(long id, int categoryId) {
+        RecurringRule rule = rulesById.get(id);
+        if (rule == null) {
+            return false;
+        }
+        int oldCategoryId = ruleCategoryIds.put(id, categoryId);
+        recurringTotals[oldCategoryId + 1] -= rule.getTotalCents();
+        recurringTotals[categoryId + 1] += rule.getTotalCents();
+        return true;
+    }
+
+    /**
+     * Returns the recurring rules of a category, in the order they were added.
+     */
+    ArrayList<RecurringRule> getRules(int categoryId) {
+        ArrayList<RecurringRule> result = new ArrayList<>();
+        for (RecurringRule rule : rulesById.values()) {
+            if (categoryId == ALL_CATEGORIES || ruleCategoryIds.get(rule.getId()) == categoryId) {
+                result.add(rule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total of every occurrence of the recurring rules of a category, in cents.
+     */
+    long getRecurringTotal(int categoryId) {
+        return recurringTotals[categoryId + 1];
+    }
+
+    /**
+     * Adjusts the total of the expenses of a category that are persisted but not loaded.
+     *
+     * @param categoryId The category of the expenses, or {@link #NO_CATEGORY}.
+     * @param cents      The amount to add, negative once the expenses have been loaded as rows.
+     */
+    void addUnloadedTotal(int categoryId, long cents) {
+        unloadedTotals[ALL_CATEGORIES + 1] += cents;
+        unloadedTotals[categoryId + 1] += cents;
+    }
+
+    /**
+     * Returns the total of the expenses of a category that are persisted but not loaded, in cents.
+     */
+    long getUnloadedTotal(int categoryId) {
+        return unloadedTotals[categoryId + 1];
+    }
+
+    long getTotal(int categoryId) {
+        return totals[categoryId + 1];
+    }
+
+    int getCount(int categoryId) {
+        return counts[categoryId + 1];
+    }
+
+    long getMin(int categoryId) {
+        refreshExtremaIfStale(categoryId);
+        return mins[categoryId + 1];
+    }
+
+    long getMax(int categoryId) {
+        refreshExtremaIfStale(categoryId);
+        return maxes[categoryId + 1];
+    }
+
+    /**
+     * Recomputes every aggregate from the columns and compares it with the running value. A min and max
+     * marked stale are recomputed on their next read anyway, so only those kept up to date are compared.
+     *
+     * @throws IllegalStateException if any running aggregate has drifted.
+     */
+    void verifyAggregates() {
+        long[] recomputedTotals = new long[categoryCount + 1];
+        int[] recomputedCounts = new int[categoryCount + 1];
+        long[] recomputedMins = new long[categoryCount + 1];
+        long[] recomputedMaxes = new long[categoryCount + 1];
+        boolean[] isFree = markFreeSlots();
+        for (int slot = 0; slot < slotHighWaterMark; slot++) {
+            if (isFree[slot]) {
+                continue;
+            }
+            recount(0, amounts[slot], recomputedTotals, recomputedCounts, recomputedMins, recomputedMaxes);
+            recount(categoryIds[slot] + 1, amounts[slot], recomputedTotals, recomputedCounts, recomputedMins,
+                    recomputedMaxes);
+        }
+        for (int i = 0; i <= categoryCount; i++) {
+            if (recomputedCounts[i] != counts[i]
+                    || recomputedTotals[i] != totals[i]) {
+                throw new IllegalStateException("Running aggregates of category " + (i - 1)
+                        + " do not match the stored expenses: total " + totals[i] + " vs "
+                        + recomputedTotals[i] + ", count " + counts[i] + " vs " + recomputedCounts[i]);
+            }
+            if (!isExtremaStale[i] && (recomputedMins[i] != mins[i] || recomputedMaxes[i] != maxes[i])) {
+                throw new IllegalStateException("Running extrema of category " + (i - 1)
+                        + " do not match the stored expenses: min " + mins[i] + " vs " + recomputedMins[i]
+                        + ", max " + maxes[i] + " vs " + recomputedMaxes[i]);
+            }
+        }
+        int rowCount = slotHighWaterMark - freeSlotCount;
+        if (slotsById.size() != rowCount || size() != rowCount || categoryOrder.size() != rowCount) {
+            throw new IllegalStateException("ID index holds " + slotsById.size() + " entries, time index "
+                    + size() + " and category index " + categoryOrder.size() + " for " + rowCount + " rows");
+        }
+    }
+
+    /**
+     * Estimates the heap used by the store's arrays, excluding the description texts.
+     *
+     * @return The approximate footprint in bytes.
+     */
+    public long estimateFootprintBytes() {
+        long perSlot = Long.BYTES * 3L + Integer.BYTES * 3L; // columns and free list
+        return ids.length * perSlot + slotsById.estimateFootprintBytes() + timeOrder.estimateFootprintBytes()
+                + categoryOrder.estimateFootprintBytes() + descriptionIndex.estimateFootprintBytes();
+    }
+
+    private Expense view(int slot) {
+        return new Expense(ids[slot], amounts[slot], descriptionIds[slot],
+                LocalDateTime.ofEpochSecond(timestamps[slot], 0, ZoneOffset.UTC));
+    }
+
+    private ArrayList<Expense> viewsInTimeOrder(int[] slots, int categoryId) {
+        // Rank in the high half, slot in the low half, so sorting the keys sorts the slots chronologically.
+        long[] rankedSlots = new long[slots.length];
+        int count = 0;
+        for (int slot : slots) {
+            if (matches(slot, categoryId)) {
+                rankedSlots[count++] = (long) timeOrder.rankOf(slot) << 32 | slot;
+            }
+        }
+        Arrays.sort(rankedSlots, 0, count);
+        ArrayList<Expense> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(view((int) rankedSlots[i]));
+        }
+        return result;
+    }
+
+    private boolean matches(int slot, int categoryId) {
+        return categoryId == ALL_CATEGORIES || categoryIds[slot] == categoryId;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotHighWaterMark == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            descriptionIds = Arrays.copyOf(descriptionIds, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+            timeOrder.growSlots(capacity);
+            categoryOrder.growSlots(capacity);
+            descriptionIndex.growSlots(capacity);
+        }
+        return slotHighWaterMark++;
+    }
+
+    private void freeSlot(int slot) {
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    /**
+     * Returns an array indexed by slot, {@code true} for the slots below the high-water mark holding no row.
+     * Full scans walk the columns in slot order with this mask rather than the time index, for locality.
+     */
+    private boolean[] markFreeSlots() {
+        boolean[] isFree = new boolean[slotHighWaterMark];
+        for (int i = 0; i < freeSlotCount; i++) {
+            isFree[freeSlots[i]] = true;
+        }
+        return isFree;
+    }
+
+    // Adds one row to recomputed aggregates, where an empty category has a min and max of 0 as in include.
+    private static void recount(int i, long amount, long[] totals, int[] counts, long[] mins, long[] maxes) {
+        totals[i] += amount;
+        mins[i] = counts[i] == 0 ? amount : Math.min(mins[i], amount);
+        maxes[i] = counts[i] == 0 ? amount : Math.max(maxes[i], amount);
+        counts[i]++;
+    }
+
+    private void include(int categoryId, long amount) {
+        int i = categoryId + 1;
+        totals[i] += amount;
+        counts[i]++;
+        if (counts[i] == 1) {
+            mins[i] = amount;
+            maxes[i] = amount;
+            isExtremaStale[i] = false;
+        } else if (!isExtremaStale[i]) {
+            mins[i] = Math.min(mins[i], amount);
+            maxes[i] = Math.max(maxes[i], amount);
+        }
+    }
+
+    private void exclude(int categoryId, long amount) {
+        int i = categoryId + 1;
+        counts[i]--;
+        if (counts[i] == 0) {
+            totals[i] = 0;
+            mins[i] = 0;
+            maxes[i] = 0;
+            isExtremaStale[i] = false;
+            return;
+        }
+        totals[i] -= amount;
+        if (amount <= mins[i] || amount >= maxes[i]) {
+            isExtremaStale[i] = true;
+        }
+    }
+
+    private void refreshExtremaIfStale(int categoryId) {
+        int i = categoryId + 1;
+        if (!isExtremaStale[i]) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean[] isFree = markFreeSlots();
+        for (int slot = 0; slot < slotHighWaterMark; slot++) {
+            if (!isFree[slot] && matches(slot, categoryId)) {
+                min = Math.min(min, amounts[slot]);
+                max = Math.max(max, amounts[slot]);
+            }
+        }
+        mins[i] = min;
+        maxes[i] = max;
+        isExtremaStale[i] = false;
+    }
+
+    private static long toTimestamp(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,22 @@
+package budgetbuddy.model;
+
+/**
+ * Receives expenses one at a time as plain fields, read straight from the columns of the {@link ExpenseStore}
+ * without creating {@link Expense} objects. Used to stream large numbers of expenses elsewhere.
+ */
+@FunctionalInterface
+public interface ExpenseVisitor {
+    /** The ID passed for an occurrence of a recurring expense, which has no ID of its own. */
+    long NO_ID = 0;
+
+    /**
+     * Receives one expense.
+     *
+     * @param id            The ID of the expense, or {@link #NO_ID} for an occurrence of a recurring expense.
+     * @param amountCents   The amount, in cents.
+     * @param descriptionId The {@link StringDictionary} ID of the description.
+     * @param epochSecond   The time, in seconds since 1970-01-01T00:00.
+     * @param category      The category budget the expense belongs to, or {@code null} if it belongs to none.
+     */
+    void visit(long id, long amountCents, int descriptionId, long epochSecond, String category);
+}
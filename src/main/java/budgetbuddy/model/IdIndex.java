@@ -0,0 +1,104 @@
+package budgetbuddy.model;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * Open-addressing hash index from expense IDs to the slots of an {@link ExpenseStore}.
+ * <p>
+ * The table holds slot numbers only. The ID of an occupied bucket is read back from the store's ID column
+ * through {@code idOfSlot}, so the index costs one {@code int} per bucket instead of a key-value pair.
+ * </p>
+ */
+class IdIndex {
+    static final int MISSING = -1;
+    // Bucket values: 0 is empty, -1 a deleted entry, and slot + 1 an occupied bucket.
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IntToLongFunction idOfSlot;
+    private int[] buckets;
+    private int size;
+    // Live entries plus tombstones; drives resizing so probe chains stay short.
+    private int usedBuckets;
+
+    IdIndex(IntToLongFunction idOfSlot) {
+        this.idOfSlot = idOfSlot;
+        buckets = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the slot holding the ID, or {@link #MISSING} if there is none.
+     */
+    int get(long id) {
+        int mask = buckets.length - 1;
+        for (int i = hash(id) & mask; buckets[i] != EMPTY; i = (i + 1) & mask) {
+            if (buckets[i] != DELETED && idOfSlot.applyAsLong(buckets[i] - 1) == id) {
+                return buckets[i] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Adds a slot whose ID, as read from the ID column, is not in the index yet.
+     */
+    void put(int slot) {
+        if ((usedBuckets + 1) * 4L >= buckets.length * 3L) {
+            rehash(size * 4 >= buckets.length ? buckets.length * 2 : buckets.length);
+        }
+        int mask = buckets.length - 1;
+        int i = hash(idOfSlot.applyAsLong(slot)) & mask;
+        while (buckets[i] != EMPTY && buckets[i] != DELETED) {
+            i = (i + 1) & mask;
+        }
+        if (buckets[i] == EMPTY) {
+            usedBuckets++;
+        }
+        buckets[i] = slot + 1;
+        size++;
+    }
+
+    /**
+     * Removes the ID. Must be called while its slot still holds the ID in the ID column.
+     *
+     * @return The slot that held the ID, or {@link #MISSING}.
+     */
+    int remove(long id) {
+        int mask = buckets.length - 1;
+        for (int i = hash(id) & mask; buckets[i] != EMPTY; i = (i + 1) & mask) {
+            if (buckets[i] != DELETED && idOfSlot.applyAsLong(buckets[i] - 1) == id) {
+                int slot = buckets[i] - 1;
+                buckets[i] = DELETED;
+                size--;
+                return slot;
+            }
+        }
+        return MISSING;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long estimateFootprintBytes() {
+        return buckets.length * (long) Integer.BYTES;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldBuckets = buckets;
+        buckets = new int[capacity];
+        size = 0;
+        usedBuckets = 0;
+        for (int bucket : oldBuckets) {
+            if (bucket != EMPTY && bucket != DELETED) {
+                put(bucket - 1);
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,172 @@
+package budgetbuddy.model;
+
+/**
+ * Converts monetary amounts between text and whole cents.
+ * <p>
+ * Amounts are held as {@code long} cents throughout the model so that totals are exact and alert and limit
+ * checks can compare with {@code ==}. Parsing and formatting work directly on characters, without going
+ * through {@code double} or {@code String.format}.
+ * </p>
+ */
+public final class Money {
+    public static final long CENTS_PER_UNIT = 100;
+    // Largest whole-unit part that still fits in a long once converted to cents.
+    private static final long MAX_UNITS = Long.MAX_VALUE / CENTS_PER_UNIT - 1;
+
+    private Money() {
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "12"}, {@code "12.5"} or {@code "-0.25"} into cents.
+     * <p>
+     * Digits beyond the second decimal place are rounded half up. Exponents, grouping separators,
+     * {@code NaN} and {@code Infinity} are rejected.
+     * </p>
+     *
+     * @param text The amount to parse.
+     * @return The amount in cents.
+     * @throws NumberFormatException If the text is not a plain decimal number or is too large.
+     */
+    public static long parseCents(CharSequence text) {
+        return parseCents(text, 0, text.length());
+    }
+
+    /**
+     * Parses the characters {@code text[start, end)} the same way as {@link #parseCents(CharSequence)},
+     * so that a field can be read in place from a longer line.
+     *
+     * @param text  The sequence holding the amount.
+     * @param start The index of the first character, inclusive.
+     * @param end   The index of the last character, exclusive.
+     * @return The amount in cents.
+     * @throws NumberFormatException If the characters are not a plain decimal number or are too large.
+     */
+    public static long parseCents(CharSequence text, int start, int end) {
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            isNegative = text.charAt(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int unitDigits = 0;
+        for (; i < end && text.charAt(i) != '.'; i++, unitDigits++) {
+            int digit = digitAt(text, i, start, end);
+            if (units > (MAX_UNITS - digit) / 10) {
+                throw new NumberFormatException("Amount is too large: \"" + text.subSequence(start, end) + "\"");
+            }
+            units = units * 10 + digit;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end) {
+            i++; // skip the decimal point
+            for (; i < end; i++, fractionDigits++) {
+                int digit = digitAt(text, i, start, end);
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + digit;
+                } else if (fractionDigits == 2 && digit >= 5) {
+                    fraction++;
+                }
+            }
+        }
+        if (unitDigits == 0 && fractionDigits == 0) {
+            throw new NumberFormatException("Not an amount: \"" + text.subSequence(start, end) + "\"");
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = units * CENTS_PER_UNIT + fraction;
+        return isNegative ? -cents : cents;
+    }
+
+    /**
+     * Formats cents as a plain decimal with two places, such as {@code "1234.50"}.
+     * This is the form written to the data file and read back by {@link #parseCents(CharSequence)}.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder(24);
+        appendTo(builder, cents, false);
+        return builder.toString();
+    }
+
+    /**
+     * Appends cents in the form of {@link #format(long)} to a buffer, without creating a string.
+     *
+     * @param builder The buffer to append to.
+     * @param cents   The amount in cents.
+     */
+    public static void append(StringBuilder builder, long cents) {
+        appendTo(builder, cents, false);
+    }
+
+    /**
+     * Formats cents for display, with a dollar sign and thousands separators, such as {@code "$1,234.50"}.
+     * Negative amounts are shown as {@code "$-1.00"}, matching {@code String.format("$%,.2f", ...)}.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String formatCurrency(long cents) {
+        StringBuilder builder = new StringBuilder(28).append('$');
+        appendTo(builder, cents, true);
+        return builder.toString();
+    }
+
+    /**
+     * Converts an amount given in whole units to cents, rounding to the nearest cent.
+     *
+     * @param amount The amount, such as {@code 12.5}.
+     * @return The amount in cents.
+     */
+    public static long fromDouble(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts cents to an amount in whole units, for callers that still work with {@code double}.
+     *
+     * @param cents The amount in cents.
+     * @return The amount in whole units.
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    private static void appendTo(StringBuilder builder, long cents, boolean isGrouped) {
+        if (cents < 0) {
+            builder.append('-');
+        }
+        // Divide before taking the absolute value, which cannot overflow once the cents are split off.
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        int fraction = (int) Math.abs(cents % CENTS_PER_UNIT);
+        if (isGrouped) {
+            appendGrouped(builder, units);
+        } else {
+            builder.append(units);
+        }
+        builder.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private static void appendGrouped(StringBuilder builder, long units) {
+        if (units < 1000) {
+            builder.append(units);
+            return;
+        }
+        appendGrouped(builder, units / 1000);
+        int group = (int) (units % 1000);
+        builder.append(',').append((char) ('0' + group / 100)).append((char) ('0' + group / 10 % 10))
+                .append((char) ('0' + group % 10));
+    }
+
+    private static int digitAt(CharSequence text, int index, int start, int end) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not an amount: \"" + text.subSequence(start, end) + "\"");
+        }
+        return c - '0';
+    }
+}
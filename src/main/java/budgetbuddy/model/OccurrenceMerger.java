@@ -0,0 +1,96 @@
+package budgetbuddy.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Passes the occurrences of recurring rules in a time range to an {@link ExpenseVisitor}, in time order, so
+ * that they can be interleaved with expenses streamed from an {@link ExpenseStore}.
+ * <p>
+ * Only the next occurrence of each rule is held, in a heap, and occurrences are generated as they are
+ * passed on, so memory use follows the number of rules, not of occurrences.
+ * </p>
+ */
+class OccurrenceMerger {
+    private final ExpenseVisitor visitor;
+    private final PriorityQueue<Pending> pending = new PriorityQueue<>();
+
+    /**
+     * Prepares the occurrences of the given rules whose time falls in the range.
+     *
+     * @param rules      The rules whose occurrences to pass on.
+     * @param categories The category name of each rule, or {@code null} for no category, in the same order.
+     * @param start      The earliest time to include, or {@code null} for no lower bound.
+     * @param end        The latest time to include, or {@code null} for no upper bound.
+     * @param visitor    The visitor to pass the occurrences to.
+     */
+    OccurrenceMerger(Collection<RecurringRule> rules, Collection<String> categories, LocalDateTime start,
+            LocalDateTime end, ExpenseVisitor visitor) {
+        this.visitor = visitor;
+        Iterator<String> category = categories.iterator();
+        int order = 0;
+        for (RecurringRule rule : rules) {
+            Pending next = new Pending(rule, category.next(), rule.occurrencesBetween(start, end), order++);
+            if (next.advance()) {
+                pending.add(next);
+            }
+        }
+    }
+
+    /**
+     * Passes on every remaining occurrence earlier than the given time, oldest first.
+     *
+     * @param epochSecond The time, in seconds since 1970-01-01T00:00, to stop at.
+     */
+    void visitBefore(long epochSecond) {
+        while (!pending.isEmpty() && pending.peek().epochSecond < epochSecond) {
+            Pending next = pending.poll();
+            RecurringRule rule = next.rule;
+            visitor.visit(ExpenseVisitor.NO_ID, rule.getAmountCents(), rule.getDescriptionId(), next.epochSecond,
+                    next.category);
+            if (next.advance()) {
+                pending.add(next);
+            }
+        }
+    }
+
+    /**
+     * Passes on every remaining occurrence, oldest first.
+     */
+    void visitRest() {
+        visitBefore(Long.MAX_VALUE);
+    }
+
+    // The next occurrence of a rule; rules are visited in the order they were added when times are equal.
+    private static final class Pending implements Comparable<Pending> {
+        private final RecurringRule rule;
+        private final String category;
+        private final Iterator<LocalDateTime> times;
+        private final int order;
+        private long epochSecond;
+
+        Pending(RecurringRule rule, String category, Iterator<LocalDateTime> times, int order) {
+            this.rule = rule;
+            this.category = category;
+            this.times = times;
+            this.order = order;
+        }
+
+        boolean advance() {
+            if (!times.hasNext()) {
+                return false;
+            }
+            epochSecond = times.next().toEpochSecond(ZoneOffset.UTC);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byTime = Long.compare(epochSecond, other.epochSecond);
+            return byTime != 0 ? byTime : Integer.compare(order, other.order);
+        }
+    }
+}
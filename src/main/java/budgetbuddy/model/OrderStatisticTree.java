@@ -0,0 +1,241 @@
+package budgetbuddy.model;
+
+import java.util.Arrays;
+
+/**
+ * Order-statistic tree over the slots of an {@link ExpenseStore}, ordered by a (group, primary, secondary) key.
+ * <p>
+ * The tree is a treap whose nodes are the slots themselves: children and subtree sizes live in arrays indexed
+ * by slot, so no node objects are allocated. Subtree sizes give the rank of a slot and the slot at a rank in
+ * O(log n), and insertion and removal are O(log n) as well. Node priorities are a hash of the slot, which
+ * keeps the tree balanced in expectation, even for keys inserted in sorted order, without storing them.
+ * </p>
+ * <p>
+ * Slots of the same group are contiguous in key order, so the rank of the first slot of a group, found with
+ * {@link #countBelow(long, long, long)}, turns ranks within the group into ranks in the tree and back.
+ * </p>
+ */
+class OrderStatisticTree {
+    private static final int NONE = -1;
+
+    private final SlotKeys keys;
+    private int[] leftChildren;
+    private int[] rightChildren;
+    private int[] subtreeSizes;
+    private int root = NONE;
+
+    /**
+     * Supplies the ordering key of a slot. Keys must be unique and must not change while the slot is in the tree.
+     */
+    interface SlotKeys {
+        /**
+         * Returns the key slots are ordered by first. All slots share one group unless overridden.
+         */
+        default long groupKey(int slot) {
+            return 0;
+        }
+
+        long primaryKey(int slot);
+
+        long secondaryKey(int slot);
+    }
+
+    OrderStatisticTree(SlotKeys keys, int slotCapacity) {
+        this.keys = keys;
+        leftChildren = new int[slotCapacity];
+        rightChildren = new int[slotCapacity];
+        subtreeSizes = new int[slotCapacity];
+    }
+
+    void growSlots(int capacity) {
+        leftChildren = Arrays.copyOf(leftChildren, capacity);
+        rightChildren = Arrays.copyOf(rightChildren, capacity);
+        subtreeSizes = Arrays.copyOf(subtreeSizes, capacity);
+    }
+
+    int size() {
+        return sizeOf(root);
+    }
+
+    void insert(int slot) {
+        root = insert(root, slot);
+    }
+
+    void remove(int slot) {
+        root = remove(root, slot);
+    }
+
+    /**
+     * Returns the slot with the given rank, 0 being the smallest key.
+     */
+    int select(int rank) {
+        assert rank >= 0 && rank < size() : "Rank out of range";
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(leftChildren[node]);
+            if (rank < leftSize) {
+                node = leftChildren[node];
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = rightChildren[node];
+            }
+        }
+    }
+
+    /**
+     * Returns the rank of a slot that is in the tree.
+     */
+    int rankOf(int slot) {
+        return countBelow(keys.groupKey(slot), keys.primaryKey(slot), keys.secondaryKey(slot));
+    }
+
+    /**
+     * Returns the number of slots whose key, in the default group, is smaller than the given key, which is also
+     * the rank of the first slot whose key is equal or larger.
+     */
+    int countBelow(long primaryKey, long secondaryKey) {
+        return countBelow(0, primaryKey, secondaryKey);
+    }
+
+    /**
+     * Returns the number of slots whose key is smaller than the given key, which is also the rank of the first
+     * slot whose key is equal or larger.
+     */
+    int countBelow(long groupKey, long primaryKey, long secondaryKey) {
+        int count = 0;
+        int node = root;
+        while (node != NONE) {
+            if (compare(groupKey, primaryKey, secondaryKey, node) <= 0) {
+                node = leftChildren[node];
+            } else {
+                count += sizeOf(leftChildren[node]) + 1;
+                node = rightChildren[node];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the slots with ranks {@code fromRank} (inclusive) to {@code toRank} (exclusive), in key order.
+     * Runs in O(log n) plus the size of the range.
+     */
+    int[] slotsInRange(int fromRank, int toRank) {
+        int[] slots = new int[Math.max(0, toRank - fromRank)];
+        collect(root, 0, fromRank, toRank, slots);
+        return slots;
+    }
+
+    private void collect(int node, int offset, int fromRank, int toRank, int[] slots) {
+        if (node == NONE || offset >= toRank || offset + subtreeSizes[node] <= fromRank) {
+            return;
+        }
+        collect(leftChildren[node], offset, fromRank, toRank, slots);
+        int rank = offset + sizeOf(leftChildren[node]);
+        if (rank >= fromRank && rank < toRank) {
+            slots[rank - fromRank] = node;
+        }
+        collect(rightChildren[node], rank + 1, fromRank, toRank, slots);
+    }
+
+    long estimateFootprintBytes() {
+        return leftChildren.length * (long) Integer.BYTES * 3;
+    }
+
+    private int insert(int node, int slot) {
+        if (node == NONE) {
+            leftChildren[slot] = NONE;
+            rightChildren[slot] = NONE;
+            subtreeSizes[slot] = 1;
+            return slot;
+        }
+        subtreeSizes[node]++;
+        if (compare(keys.groupKey(slot), keys.primaryKey(slot), keys.secondaryKey(slot), node) < 0) {
+            leftChildren[node] = insert(leftChildren[node], slot);
+            if (priority(leftChildren[node]) > priority(node)) {
+                return rotateRight(node);
+            }
+        } else {
+            rightChildren[node] = insert(rightChildren[node], slot);
+            if (priority(rightChildren[node]) > priority(node)) {
+                return rotateLeft(node);
+            }
+        }
+        return node;
+    }
+
+    private int remove(int node, int slot) {
+        assert node != NONE : "Slot is not in the tree";
+        if (node == slot) {
+            return merge(leftChildren[node], rightChildren[node]);
+        }
+        subtreeSizes[node]--;
+        if (compare(keys.groupKey(slot), keys.primaryKey(slot), keys.secondaryKey(slot), node) < 0) {
+            leftChildren[node] = remove(leftChildren[node], slot);
+        } else {
+            rightChildren[node] = remove(rightChildren[node], slot);
+        }
+        return node;
+    }
+
+    private int merge(int left, int right) {
+        if (left == NONE) {
+            return right;
+        }
+        if (right == NONE) {
+            return left;
+        }
+        if (priority(left) > priority(right)) {
+            rightChildren[left] = merge(rightChildren[left], right);
+            updateSize(left);
+            return left;
+        }
+        leftChildren[right] = merge(left, leftChildren[right]);
+        updateSize(right);
+        return right;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = leftChildren[node];
+        leftChildren[node] = rightChildren[pivot];
+        rightChildren[pivot] = node;
+        updateSize(node);
+        updateSize(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = rightChildren[node];
+        rightChildren[node] = leftChildren[pivot];
+        leftChildren[pivot] = node;
+        updateSize(node);
+        updateSize(pivot);
+        return pivot;
+    }
+
+    private void updateSize(int node) {
+        subtreeSizes[node] = sizeOf(leftChildren[node]) + sizeOf(rightChildren[node]) + 1;
+    }
+
+    private int sizeOf(int node) {
+        return node == NONE ? 0 : subtreeSizes[node];
+    }
+
+    private int compare(long groupKey, long primaryKey, long secondaryKey, int node) {
+        int result = Long.compare(groupKey, keys.groupKey(node));
+        if (result == 0) {
+            result = Long.compare(primaryKey, keys.primaryKey(node));
+        }
+        return result != 0 ? result : Long.compare(secondaryKey, keys.secondaryKey(node));
+    }
+
+    // A bijective mix of the slot number, so distinct slots never tie.
+    private static int priority(int slot) {
+        int h = slot * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,231 @@
+package budgetbuddy.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A recurring expense stored as a rule: an amount and description that recur every fixed number of days,
+ * a given number of times, from a start time.
+ * <p>
+ * Occurrences are never stored. Their count and total in any time range follow in closed form from the
+ * rule, and {@link #occurrencesBetween(LocalDateTime, LocalDateTime)} generates their times lazily, so a
+ * rule costs the same few fields whether it recurs twice or for ten years.
+ * </p>
+ */
+public final class RecurringRule {
+    // Source of unique rule IDs, separate from expense IDs.
+    private static final AtomicLong nextId = new AtomicLong(1);
+
+    private final long id;
+    private final long amountCents;
+    private final int descriptionId;
+    private final LocalDateTime start;
+    private final int intervalDays;
+    private final int occurrenceCount;
+
+    /**
+     * Creates a new rule with a fresh ID.
+     *
+     * @param amountCents     The amount of each occurrence, in cents. Must be non-negative.
+     * @param description     The description of each occurrence. Cannot be null.
+     * @param start           The time of the first occurrence. Cannot be null.
+     * @param intervalDays    The number of days between occurrences. Must be positive.
+     * @param occurrenceCount The number of occurrences. Must be positive.
+     * @throws IllegalArgumentException If any field is invalid.
+     */
+    public RecurringRule(long amountCents, String description, LocalDateTime start, int intervalDays,
+                         int occurrenceCount) {
+        this(nextId.getAndIncrement(), amountCents, description, start, intervalDays, occurrenceCount);
+    }
+
+    /**
+     * Re-creates a previously persisted rule with its original ID. The ID counter is left alone;
+     * {@link BudgetManager#restoreRecurringRule(String, RecurringRule)} advances it past a restored rule.
+     *
+     * @param id              The persisted ID of the rule. Must be positive.
+     * @param amountCents     The amount of each occurrence, in cents. Must be non-negative.
+     * @param description     The description of each occurrence. Cannot be null.
+     * @param start           The time of the first occurrence. Cannot be null.
+     * @param intervalDays    The number of days between occurrences. Must be positive.
+     * @param occurrenceCount The number of occurrences. Must be positive.
+     * @throws IllegalArgumentException If any field is invalid.
+     */
+    public RecurringRule(long id, long amountCents, String description, LocalDateTime start, int intervalDays,
+                         int occurrenceCount) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Recurring rule ID must be positive.");
+        }
+        if (description == null) {
+            throw new IllegalArgumentException("Description cannot be null.");
+        }
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative.");
+        }
+        if (start == null) {
+            throw new IllegalArgumentException("Start time cannot be null.");
+        }
+        if (intervalDays < 1 || occurrenceCount < 1) {
+            throw new IllegalArgumentException("Interval and occurrence count must be positive.");
+        }
+        this.id = id;
+        this.amountCents = amountCents;
+        this.descriptionId = StringDictionary.intern(description);
+        this.start = start;
+        this.intervalDays = intervalDays;
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    /**
+     * Makes new rules take IDs from at least the given one, so that they cannot clash with IDs given out
+     * elsewhere below it.
+     *
+     * @param firstId The lowest ID a new rule may take.
+     * @return The ID the next new rule takes.
+     */
+    public static long reserveIdsFrom(long firstId) {
+        return nextId.accumulateAndGet(firstId, Math::max);
+    }
+
+    /**
+     * Makes the next new rule take the given ID, undoing the effect of rules restored with IDs given out
+     * elsewhere, such as in another process. The caller makes sure no rule holds it or an ID above it that may
+     * be given out.
+     *
+     * @param id The ID the next new rule takes.
+     */
+    public static void resumeIdsAt(long id) {
+        nextId.set(id);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public String getDescription() {
+        return StringDictionary.text(descriptionId);
+    }
+
+    /**
+     * Retrieves the dictionary ID of the description of the rule.
+     *
+     * @return The description ID in the {@link StringDictionary}.
+     */
+    public int getDescriptionId() {
+        return descriptionId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    /**
+     * Returns the time of an occurrence.
+     *
+     * @param index The occurrence, 0 being the first.
+     * @return Its date and time.
+     */
+    public LocalDateTime getOccurrenceTime(int index) {
+        return start.plusDays((long) index * intervalDays);
+    }
+
+    /**
+     * Returns the sum of all occurrences, in cents.
+     *
+     * @throws ArithmeticException If the total overflows.
+     */
+    public long getTotalCents() {
+        return Math.multiplyExact(amountCents, (long) occurrenceCount);
+    }
+
+    /**
+     * Returns the number of occurrences whose time falls in the given range, computed without iterating.
+     * Both bounds are inclusive and compared at minute precision, as for expenses.
+     *
+     * @param from The earliest time to include, or {@code null} for no lower bound.
+     * @param to   The latest time to include, or {@code null} for no upper bound.
+     * @return The number of occurrences in the range.
+     */
+    public int countOccurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, lastIndexAtOrBefore(to) - firstIndexAtOrAfter(from) + 1);
+    }
+
+    /**
+     * Returns the times of the occurrences in the given range, oldest first, generated one at a time.
+     * Bounds are as for {@link #countOccurrencesBetween(LocalDateTime, LocalDateTime)}.
+     *
+     * @param from The earliest time to include, or {@code null} for no lower bound.
+     * @param to   The latest time to include, or {@code null} for no upper bound.
+     * @return A lazy iterator over the occurrence times.
+     */
+    public Iterator<LocalDateTime> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        int first = firstIndexAtOrAfter(from);
+        int last = lastIndexAtOrBefore(to);
+        return new Iterator<>() {
+            private int next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next <= last;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getOccurrenceTime(next++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Money.formatCurrency(amountCents) + " spent on " + getDescription() + " every " + intervalDays
+                + " day(s), " + occurrenceCount + " time(s) from " + start.format(Expense.DATETIME_FORMAT)
+                + " (total " + Money.formatCurrency(getTotalCents()) + ")";
+    }
+
+    private int firstIndexAtOrAfter(LocalDateTime from) {
+        if (from == null || !from.isAfter(start)) {
+            return 0;
+        }
+        long days = Duration.between(start, from.truncatedTo(ChronoUnit.MINUTES)).toDays();
+        long index = Math.max(0, days / intervalDays);
+        while (index < occurrenceCount && getOccurrenceTime((int) index).isBefore(from)) {
+            index++;
+        }
+        return (int) Math.min(index, occurrenceCount);
+    }
+
+    private int lastIndexAtOrBefore(LocalDateTime to) {
+        if (to == null) {
+            return occurrenceCount - 1;
+        }
+        LocalDateTime endExclusive = to.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        if (!endExclusive.isAfter(start)) {
+            return -1;
+        }
+        long days = Duration.between(start, endExclusive).toDays();
+        long index = Math.min(occurrenceCount - 1L, days / intervalDays);
+        while (index >= 0 && !getOccurrenceTime((int) index).isBefore(endExclusive)) {
+            index--;
+        }
+        return (int) index;
+    }
+}
@@ -0,0 +1,13 @@
+package budgetbuddy.model;
+
+/**
+ * How the keywords of a {@code find} query are matched against expense descriptions.
+ */
+public enum SearchMode {
+    /** Descriptions containing every keyword as a whole word, ignoring case. */
+    ALL,
+    /** Descriptions containing at least one keyword as a whole word, ignoring case. */
+    ANY,
+    /** Descriptions containing the query text anywhere, ignoring case. */
+    SUBSTRING
+}
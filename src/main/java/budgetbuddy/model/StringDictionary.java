@@ -0,0 +1,177 @@
+package budgetbuddy.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Global dictionary that maps each distinct description or category name to a small integer ID.
+ * <p>
+ * Expenses and budgets hold dictionary IDs instead of their own {@code String} copies, so a description
+ * repeated across thousands of expenses is stored once. Text can be interned straight from a range of a
+ * larger sequence, such as a line read from the data file, without allocating a substring when the text is
+ * already known. IDs are never reused or removed for the lifetime of the program.
+ * </p>
+ * <p>
+ * Lookups take no lock, so threads parsing in parallel only contend when they meet new text. Texts are written
+ * before the buckets that point at them, and the buckets are read and written atomically, so a thread that finds
+ * a bucket also sees its text. New text is added under the class lock, which also guards growing the table.
+ * </p>
+ */
+public final class StringDictionary {
+    /** Returned by {@link #find(CharSequence)} for text that has never been interned. */
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Replaced as a whole when it grows, so that readers always see texts and buckets of the same size.
+    private static volatile Table table = new Table(new String[INITIAL_CAPACITY], INITIAL_CAPACITY * 2);
+    // Written after the text and its bucket, so that every ID below it can be read.
+    private static volatile int size;
+
+    private StringDictionary() {
+    }
+
+    /**
+     * Returns the ID of {@code text}, adding it to the dictionary if it is new.
+     *
+     * @param text The text to intern. Cannot be null.
+     * @return The ID of the text.
+     */
+    public static int intern(String text) {
+        return intern(text, 0, text.length());
+    }
+
+    /**
+     * Returns the ID of the characters {@code source[start, end)}, adding them to the dictionary if new.
+     * No {@code String} is allocated when the text is already in the dictionary, and no lock is taken.
+     *
+     * @param source The sequence holding the text.
+     * @param start  The index of the first character, inclusive.
+     * @param end    The index of the last character, exclusive.
+     * @return The ID of the text.
+     */
+    public static int intern(CharSequence source, int start, int end) {
+        int id = table.find(source, start, end);
+        return id != NOT_FOUND ? id : add(source, start, end);
+    }
+
+    /**
+     * Returns the ID of {@code text} without adding it.
+     *
+     * @param text The text to look up.
+     * @return The ID of the text, or {@link #NOT_FOUND} if it has never been interned.
+     */
+    public static int find(CharSequence text) {
+        return table.find(text, 0, text.length());
+    }
+
+    /**
+     * Returns the text with the given ID.
+     *
+     * @param id An ID returned by {@link #intern(String)}.
+     * @return The text.
+     * @throws IllegalArgumentException If no text has that ID.
+     */
+    public static String text(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown dictionary ID: " + id);
+        }
+        return table.texts[id];
+    }
+
+    /**
+     * Returns the number of distinct texts interned so far. IDs range from 0 to {@code size() - 1}.
+     *
+     * @return The dictionary size.
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * Marks every text that contains {@code keyword}, ignoring case.
+     * The substring test runs once per distinct text, so callers can then test expenses by ID alone.
+     *
+     * @param keyword The keyword to search for.
+     * @return An array indexed by ID, {@code true} where the text contains the keyword.
+     */
+    public static boolean[] markContainingIgnoreCase(String keyword) {
+        String lowerKeyword = keyword.toLowerCase();
+        int count = size;
+        String[] texts = table.texts;
+        boolean[] isMatch = new boolean[count];
+        for (int id = 0; id < count; id++) {
+            isMatch[id] = texts[id].toLowerCase().contains(lowerKeyword);
+        }
+        return isMatch;
+    }
+
+    private static synchronized int add(CharSequence source, int start, int end) {
+        Table current = table;
+        int bucket = current.findBucket(source, start, end);
+        if (current.buckets.get(bucket) != 0) {
+            return current.buckets.get(bucket) - 1; // added by another thread since the lookup
+        }
+        if (size == current.texts.length) {
+            current = new Table(Arrays.copyOf(current.texts, size * 2), current.buckets.length() * 2);
+            for (int id = 0; id < size; id++) {
+                String text = current.texts[id];
+                current.buckets.set(current.findBucket(text, 0, text.length()), id + 1);
+            }
+            table = current;
+            bucket = current.findBucket(source, start, end);
+        }
+        int id = size;
+        current.texts[id] = source.subSequence(start, end).toString();
+        current.buckets.set(bucket, id + 1);
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Texts by ID, with an open-addressing table of ID + 1 over them, so that 0 marks an empty bucket.
+     */
+    private static final class Table {
+        private final String[] texts;
+        private final AtomicIntegerArray buckets;
+
+        private Table(String[] texts, int capacity) {
+            this.texts = texts;
+            this.buckets = new AtomicIntegerArray(capacity);
+        }
+
+        private int find(CharSequence source, int start, int end) {
+            return buckets.get(findBucket(source, start, end)) - 1;
+        }
+
+        private int findBucket(CharSequence source, int start, int end) {
+            int mask = buckets.length() - 1;
+            int i = hash(source, start, end) & mask;
+            int entry;
+            while ((entry = buckets.get(i)) != 0 && !regionEquals(texts[entry - 1], source, start, end)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+
+    private static int hash(CharSequence source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean regionEquals(String text, CharSequence source, int start, int end) {
+        if (text.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
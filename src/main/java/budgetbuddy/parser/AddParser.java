@@ -1,13 +1,14 @@
 package budgetbuddy.parser;
 
 import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.Money;
 
 
 /**
  * Parses the "add" command to extract amount, category, description, and date/time.
  */
 public class AddParser extends Parser<String[]> {
-    private static final double MAX_AMOUNT = 10000; // Define a maximum amount limit
+    private static final long MAX_AMOUNT_CENTS = 10000 * Money.CENTS_PER_UNIT; // Define a maximum amount limit
 
     public AddParser(String input) {
         super(input);
@@ -39,11 +40,11 @@ public class AddParser extends Parser<String[]> {
             throw new InvalidInputException("Amount is missing.");
         }
 
-        double amount;
+        long amountCents;
         try {
-            amount = Double.parseDouble(amountStr);
-            if (amount < 0 || amount > MAX_AMOUNT) {
-                throw new InvalidInputException("Amount must be between 0 and " + MAX_AMOUNT);
+            amountCents = Money.parseCents(amountStr);
+            if (amountCents < 0 || amountCents > MAX_AMOUNT_CENTS) {
+                throw new InvalidInputException("Amount must be between 0 and " + Money.format(MAX_AMOUNT_CENTS));
             }
         } catch (NumberFormatException e) {
             throw new InvalidInputException("Invalid amount format. Use: add <AMOUNT> c/<CATEGORY> d/<DESCRIPTION>");
@@ -65,7 +66,7 @@ public class AddParser extends Parser<String[]> {
             throw new InvalidInputException("Description cannot be empty.");
         }
 
-        return new String[]{String.valueOf(amount), category, description, dateTime
+        return new String[]{Money.format(amountCents), category, description, dateTime
 
         };
     }
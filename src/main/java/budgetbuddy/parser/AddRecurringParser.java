@@ -1,6 +1,7 @@
 package budgetbuddy.parser;
 
 import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.Money;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +13,7 @@ import java.util.List;
  * This is then sent to the AddRecurringExpenseCommand
  */
 public class AddRecurringParser extends Parser<String[]> {
-    private static final double MAX_AMOUNT = 10000; // Define a maximum amount limit
+    private static final long MAX_AMOUNT_CENTS = 10000 * Money.CENTS_PER_UNIT; // Define a maximum amount limit
 
     public AddRecurringParser(String input) {
         super(input);
@@ -98,9 +99,9 @@ public class AddRecurringParser extends Parser<String[]> {
 
         // Validate amount
         try {
-            double amountValue = Double.parseDouble(amount);
-            if (amountValue < 0 || amountValue > MAX_AMOUNT) {
-                throw new InvalidInputException("Amount must be between 0 and " + MAX_AMOUNT);
+            long amountCents = Money.parseCents(amount);
+            if (amountCents < 0 || amountCents > MAX_AMOUNT_CENTS) {
+                throw new InvalidInputException("Amount must be between 0 and " + Money.format(MAX_AMOUNT_CENTS));
             }
         } catch (NumberFormatException e) {
             throw new InvalidInputException("Invalid amount format");
@@ -0,0 +1,25 @@
+package budgetbuddy.parser;
+
+import budgetbuddy.exception.InvalidInputException;
+
+/**
+ * Parses the "delete-recurring" command to extract the index of the recurring expense.
+ */
+public class DeleteRecurringParser extends Parser<Integer> {
+    public DeleteRecurringParser(String input) {
+        super(input);
+    }
+
+    @Override
+    public Integer parse() throws InvalidInputException {
+        String[] parts = input.trim().split(" ");
+        if (parts.length != 2) {
+            throw new InvalidInputException("Use: delete-recurring <INDEX>");
+        }
+        try {
+            return Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("Use: delete-recurring <INDEX>");
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package budgetbuddy.parser;
 
 import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.Money;
 
 /**
  * Parses the "editExpense" command to extract index, amount, description, and time.
  * Supports optional parameters: a/, d/, t/
  */
 public class EditExpenseParser extends Parser<String[]> {
-    private static final double MAX_AMOUNT = 10000; // Define a maximum amount limit
+    private static final long MAX_AMOUNT_CENTS = 10000 * Money.CENTS_PER_UNIT; // Define a maximum amount limit
 
     public EditExpenseParser(String input) {
         super(input);
@@ -31,11 +32,10 @@ public class EditExpenseParser extends Parser<String[]> {
                 throw new InvalidInputException("New amount cannot be empty");
             }
             try {
-                double amount = Double.parseDouble(a);
-                if (amount < 0 || amount > MAX_AMOUNT) {
-                    throw new InvalidInputException("Amount must be between 0 and " + MAX_AMOUNT);
+                long amountCents = Money.parseCents(a);
+                if (amountCents < 0 || amountCents > MAX_AMOUNT_CENTS) {
+                    throw new InvalidInputException("Amount must be between 0 and " + Money.format(MAX_AMOUNT_CENTS));
                 }
-                result[1] = String.valueOf(amount);
             } catch (NumberFormatException e) {
                 throw new InvalidInputException("Invalid amount format");
             }
@@ -0,0 +1,36 @@
+package budgetbuddy.parser;
+
+import budgetbuddy.exception.InvalidInputException;
+
+/**
+ * Parses the "export" command to extract the file name and the optional category, start/ and end/ filters.
+ * Each value runs up to the next marker, so file names and categories may contain spaces.
+ */
+public class ExportParser extends Parser<String[]> {
+    private static final String[] MARKERS = {"f/", "c/", "start/", "end/"};
+
+    public ExportParser(String input) {
+        super(input);
+    }
+
+    /**
+     * Returns the file name, category, start and end, with an empty string for each one not given.
+     *
+     * @throws InvalidInputException If the file name is missing, or a marker is given without a value.
+     */
+    @Override
+    public String[] parse() throws InvalidInputException {
+        if (!input.startsWith("export")) {
+            throw new InvalidInputException("Use: export f/<File> c/<Category> start/<Time> end/<Time>");
+        }
+        String line = input.substring("export".length());
+        String[] result = new String[MARKERS.length];
+        for (int i = 0; i < MARKERS.length; i++) {
+            result[i] = valueAfter(line, MARKERS[i], MARKERS);
+        }
+        if (result[0].isEmpty()) {
+            throw new InvalidInputException("Missing f/ file to export to. Use: export f/expenses.csv");
+        }
+        return result;
+    }
+}
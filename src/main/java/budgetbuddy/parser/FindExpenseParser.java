@@ -1,21 +1,47 @@
 package budgetbuddy.parser;
 
 import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.SearchMode;
 
 /**
- * Parses the "find" command to extract a search keyword.
+ * Parses the "find" command to extract the search mode and keywords.
+ * <p>
+ * The mode is given by an optional leading {@code m/all}, {@code m/any} or {@code m/substring} and
+ * defaults to {@code all}.
+ * </p>
  */
-public class FindExpenseParser extends Parser<String> {
+public class FindExpenseParser extends Parser<String[]> {
+    private static final String USAGE = "Use: find [m/all|any|substring] <KEYWORD>...";
+
     public FindExpenseParser(String input) {
         super(input);
     }
 
+    /**
+     * Returns the search mode, as a {@link SearchMode} name, followed by the keywords.
+     *
+     * @return A two-element array: the mode and the keyword text.
+     * @throws InvalidInputException If the mode is unknown or no keyword is given.
+     */
     @Override
-    public String parse() throws InvalidInputException {
-        String[] parts = input.split(" ");
-        if (parts.length != 2) {
-            throw new InvalidInputException("Use: find <KEYWORD>");
+    public String[] parse() throws InvalidInputException {
+        String[] parts = input.trim().split(" ", 2);
+        String keywords = parts.length < 2 ? "" : parts[1].trim();
+        SearchMode mode = SearchMode.ALL;
+
+        if (keywords.startsWith("m/")) {
+            String[] modeAndKeywords = keywords.split(" ", 2);
+            try {
+                mode = SearchMode.valueOf(modeAndKeywords[0].substring(2).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Unknown search mode. " + USAGE);
+            }
+            keywords = modeAndKeywords.length < 2 ? "" : modeAndKeywords[1].trim();
+        }
+
+        if (keywords.isEmpty()) {
+            throw new InvalidInputException(USAGE);
         }
-        return parts[1].trim();
+        return new String[]{mode.name(), keywords};
     }
 }
@@ -0,0 +1,37 @@
+package budgetbuddy.parser;
+
+import budgetbuddy.exception.InvalidInputException;
+
+/**
+ * Parses the "import" command to extract the file name and the optional a/, t/, d/ and c/ column mapping.
+ * Each value runs up to the next marker, so file names and column names may contain spaces.
+ */
+public class ImportParser extends Parser<String[]> {
+    private static final String[] MARKERS = {"f/", "a/", "t/", "d/", "c/"};
+
+    public ImportParser(String input) {
+        super(input);
+    }
+
+    /**
+     * Returns the file name and the amount, date, description and category columns, with an empty string for
+     * each column not given.
+     *
+     * @throws InvalidInputException If the file name is missing, or a marker is given without a value.
+     */
+    @Override
+    public String[] parse() throws InvalidInputException {
+        if (!input.startsWith("import")) {
+            throw new InvalidInputException("Use: import f/<File> a/<Column> t/<Column> d/<Column> c/<Column>");
+        }
+        String line = input.substring("import".length());
+        String[] result = new String[MARKERS.length];
+        for (int i = 0; i < MARKERS.length; i++) {
+            result[i] = valueAfter(line, MARKERS[i], MARKERS);
+        }
+        if (result[0].isEmpty()) {
+            throw new InvalidInputException("Missing f/ file to import from. Use: import f/statement.csv");
+        }
+        return result;
+    }
+}
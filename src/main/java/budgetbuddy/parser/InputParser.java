@@ -7,12 +7,15 @@ import budgetbuddy.command.AlertCommand;
 import budgetbuddy.command.CheckBudgetCommand;
 import budgetbuddy.command.DeleteAlertCommand;
 import budgetbuddy.command.DeleteCommand;
+import budgetbuddy.command.DeleteRecurringCommand;
 import budgetbuddy.command.EditAlertCommand;
 import budgetbuddy.command.EditBudgetCommand;
 import budgetbuddy.command.EditExpenseCommand;
 import budgetbuddy.command.ExitCommand;
+import budgetbuddy.command.ExportCommand;
 import budgetbuddy.command.FindExpenseCommand;
 import budgetbuddy.command.HelpCommand;
+import budgetbuddy.command.ImportCommand;
 import budgetbuddy.command.ListCommand;
 import budgetbuddy.command.SetBudgetCommand;
 import budgetbuddy.command.SummaryCommand;
@@ -61,6 +64,9 @@ public class InputParser {
         case "edit-budget" -> new EditBudgetCommand(userInput);
         case "edit-alert" -> new EditAlertCommand(userInput);
         case "delete-alert" -> new DeleteAlertCommand(userInput);
+        case "delete-recurring" -> new DeleteRecurringCommand(userInput);
+        case "export" -> new ExportCommand(userInput);
+        case "import" -> new ImportCommand(userInput);
         default -> throw new InvalidInputException("Please enter 'help' for a list of commands.");
         };
     }
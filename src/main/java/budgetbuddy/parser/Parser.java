@@ -22,4 +22,44 @@ public abstract class Parser<T> {
      * @throws InvalidInputException if the input format is invalid
      */
     public abstract T parse() throws InvalidInputException;
+
+    /**
+     * Returns the value following a marker such as "c/" in the line, up to the next of the given markers, or
+     * an empty string if the marker is absent. Markers only count at the start of a word, so values may
+     * contain spaces, and slashes such as the "f/" in "reports/f/x.csv".
+     *
+     * @param line    The text to search.
+     * @param marker  The marker whose value to return.
+     * @param markers Every marker the command takes, which end the value.
+     * @return The trimmed value.
+     * @throws InvalidInputException If the marker is present without a value.
+     */
+    protected static String valueAfter(String line, String marker, String[] markers) throws InvalidInputException {
+        int markerIndex = markerIndex(line, marker, 0);
+        if (markerIndex < 0) {
+            return "";
+        }
+        int valueStart = markerIndex + marker.length();
+        int valueEnd = line.length();
+        for (String other : markers) {
+            int otherIndex = markerIndex(line, other, valueStart);
+            if (otherIndex >= 0 && otherIndex < valueEnd) {
+                valueEnd = otherIndex;
+            }
+        }
+        String value = line.substring(valueStart, valueEnd).trim();
+        if (value.isEmpty()) {
+            throw new InvalidInputException(marker + " marker is missing a value.");
+        }
+        return value;
+    }
+
+    // Returns where a marker starts a word in the line, at or after the given index, or -1 if it does not.
+    private static int markerIndex(String line, String marker, int from) {
+        int index = line.indexOf(marker, from);
+        while (index > 0 && !Character.isWhitespace(line.charAt(index - 1))) {
+            index = line.indexOf(marker, index + 1);
+        }
+        return index;
+    }
 }
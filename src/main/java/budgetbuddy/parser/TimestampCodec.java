@@ -0,0 +1,283 @@
+package budgetbuddy.parser;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Hand-written codec for timestamps on the persistence path, in two forms: the text form
+ * {@code MMM dd yyyy at HH:mm} with English month names, as in {@code Mar 01 2025 at 12:00}, and a numeric
+ * form counting minutes since 1970-01-01T00:00.
+ * <p>
+ * Unlike {@link DateTimeParser}, parsing reads straight from a range of a larger string, creates no substrings
+ * and signals bad input with {@link #INVALID} rather than an exception. Formatting appends to a caller's
+ * buffer. Timestamps are kept to the minute, as in the text form.
+ * </p>
+ */
+public final class TimestampCodec {
+    /** Returned by the parse methods for input that is not a valid timestamp. */
+    public static final long INVALID = Long.MIN_VALUE;
+    /** The length of a timestamp in text form. */
+    public static final int TEXT_LENGTH = 20;
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Days from 0000-03-01 to 1970-01-01, for the civil calendar conversions below.
+    private static final long EPOCH_SHIFT_DAYS = 719468;
+    private static final long DAYS_PER_ERA = 146097;
+
+    private TimestampCodec() {
+    }
+
+    /**
+     * Parses a timestamp in text form.
+     *
+     * @param text  The text holding the timestamp.
+     * @param start The index of its first character.
+     * @param end   The index after its last character.
+     * @return The timestamp in minutes since the epoch, or {@link #INVALID}.
+     */
+    public static long parseText(CharSequence text, int start, int end) {
+        if (end - start != TEXT_LENGTH || text.charAt(start + 3) != ' ' || text.charAt(start + 6) != ' '
+                || text.charAt(start + 11) != ' ' || text.charAt(start + 12) != 'a' || text.charAt(start + 13) != 't'
+                || text.charAt(start + 14) != ' ' || text.charAt(start + 17) != ':') {
+            return INVALID;
+        }
+        int month = monthOf(text, start);
+        int day = digits(text, start + 4, 2);
+        int year = digits(text, start + 7, 4);
+        int hour = digits(text, start + 15, 2);
+        int minute = digits(text, start + 18, 2);
+        if (month < 0 || day < 1 || year < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return epochDay(year, month, day) * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    /**
+     * Parses a timestamp in either form: numeric, as written by {@link #appendNumeric(StringBuilder, long)},
+     * or text.
+     *
+     * @return The timestamp in minutes since the epoch, or {@link #INVALID}.
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return INVALID;
+        }
+        char first = text.charAt(start);
+        if (first != '-' && (first < '0' || first > '9')) {
+            return parseText(text, start, end);
+        }
+        boolean isNegative = first == '-';
+        int i = isNegative ? start + 1 : start;
+        if (i == end || end - i > 15) {
+            return INVALID;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses a timestamp in ISO 8601 form, as written by {@link #appendIso(StringBuilder, long)}: a date
+     * {@code yyyy-MM-dd}, optionally followed by {@code T} or a space and a time {@code HH:mm}, which may carry
+     * seconds. A date alone means midnight, and seconds are dropped.
+     *
+     * @return The timestamp in minutes since the epoch, or {@link #INVALID}.
+     */
+    public static long parseIso(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length != 10 && length != 16 && length != 19 || text.charAt(start + 4) != '-'
+                || text.charAt(start + 7) != '-') {
+            return INVALID;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        int hour = 0;
+        int minute = 0;
+        if (length > 10) {
+            char separator = text.charAt(start + 10);
+            if (separator != 'T' && separator != ' ' || text.charAt(start + 13) != ':'
+                    || length == 19 && (text.charAt(start + 16) != ':' || digits(text, start + 17, 2) < 0)) {
+                return INVALID;
+            }
+            hour = digits(text, start + 11, 2);
+            minute = digits(text, start + 14, 2);
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0
+                || minute > 59 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return epochDay(year, month, day) * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    /**
+     * Parses a timestamp in either form into a date and time.
+     *
+     * @return The date and time, or {@code null} if the text is not a valid timestamp.
+     */
+    public static LocalDateTime parseDateTime(CharSequence text, int start, int end) {
+        long epochMinute = parse(text, start, end);
+        return epochMinute == INVALID ? null : fromEpochMinute(epochMinute);
+    }
+
+    /**
+     * Appends a timestamp in text form. Years outside 1 to 9999 are appended in numeric form instead,
+     * which {@link #parse(CharSequence, int, int)} reads back just as well.
+     *
+     * @param out         The buffer to append to.
+     * @param epochMinute The timestamp in minutes since the epoch.
+     */
+    public static void appendText(StringBuilder out, long epochMinute) {
+        long date = civilDate(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+        long year = date / 10000;
+        int month = (int) (date / 100 % 100);
+        int day = (int) (date % 100);
+        if (year < 1 || year > 9999) {
+            appendNumeric(out, epochMinute);
+            return;
+        }
+
+        out.append(MONTHS, (month - 1) * 3, month * 3).append(' ');
+        appendDigits(out, day, 2);
+        out.append(' ');
+        appendDigits(out, (int) year, 4);
+        out.append(" at ");
+        appendDigits(out, minuteOfDay / 60, 2);
+        out.append(':');
+        appendDigits(out, minuteOfDay % 60, 2);
+    }
+
+    /**
+     * Appends a timestamp in the ISO 8601 form {@code yyyy-MM-ddTHH:mm}, as in {@code 2025-03-01T12:00}, which
+     * other programs read without knowing this one. Years outside 1 to 9999 are appended in numeric form.
+     *
+     * @param out         The buffer to append to.
+     * @param epochMinute The timestamp in minutes since the epoch.
+     */
+    public static void appendIso(StringBuilder out, long epochMinute) {
+        long date = civilDate(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+        long year = date / 10000;
+        if (year < 1 || year > 9999) {
+            appendNumeric(out, epochMinute);
+            return;
+        }
+
+        // Filled in as one array and appended at once, as exports append this for millions of rows.
+        char[] text = {'0', '0', '0', '0', '-', '0', '0', '-', '0', '0', 'T', '0', '0', ':', '0', '0'};
+        putDigits(text, 0, (int) year, 4);
+        putDigits(text, 5, (int) (date / 100 % 100), 2);
+        putDigits(text, 8, (int) (date % 100), 2);
+        putDigits(text, 11, minuteOfDay / 60, 2);
+        putDigits(text, 14, minuteOfDay % 60, 2);
+        out.append(text);
+    }
+
+    /**
+     * Appends a date and time in text form, dropping seconds.
+     */
+    public static void appendText(StringBuilder out, LocalDateTime dateTime) {
+        appendText(out, toEpochMinute(dateTime));
+    }
+
+    /**
+     * Appends a timestamp in numeric form, as minutes since the epoch.
+     */
+    public static void appendNumeric(StringBuilder out, long epochMinute) {
+        out.append(epochMinute);
+    }
+
+    /**
+     * Returns a date and time as minutes since the epoch, dropping seconds.
+     */
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Returns the date and time a number of minutes after the epoch.
+     */
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static int monthOf(CharSequence text, int start) {
+        for (int month = 0; month < 12; month++) {
+            if (MONTHS.charAt(month * 3) == text.charAt(start)
+                    && MONTHS.charAt(month * 3 + 1) == text.charAt(start + 1)
+                    && MONTHS.charAt(month * 3 + 2) == text.charAt(start + 2)) {
+                return month + 1;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the value of a run of decimal digits, or -1 if a character is not a digit.
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int count) {
+        for (int divisor = count == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void putDigits(char[] text, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean isLeap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // Civil date of a day count since the epoch, as year * 10000 + month * 100 + day, in eras of 400 years
+    // starting on March 1st. Years before 1 are only ever checked against the range, never appended.
+    private static long civilDate(long epochDay) {
+        long shifted = epochDay + EPOCH_SHIFT_DAYS;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        long dayOfEra = shifted - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    // Days since the epoch of a civil date, in eras of 400 years starting on March 1st.
+    private static long epochDay(int year, int month, int day) {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        long yearOfEra = shiftedYear - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        long dayOfYear = (153L * shiftedMonth + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - EPOCH_SHIFT_DAYS;
+    }
+}
@@ -0,0 +1,239 @@
+package budgetbuddy.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes expense records compactly for the archive of older months kept in {@link Partitions}.
+ * <p>
+ * Records are grouped into blocks of up to {@link #BLOCK_RECORDS}. A block starts with its record count and
+ * byte length, as varints, followed by one column per field, each value a varint:
+ * <pre>
+ * times         epoch seconds, each as the zigzag difference from the previous one in the block
+ * ids           each as the zigzag difference from the previous one in the block
+ * amounts       zigzag cents
+ * descriptions  string index
+ * categories    string index plus one, or 0 for no category
+ * </pre>
+ * Expenses are written in time order and are mostly entered in ID order, so both differences are small
+ * non-negative numbers, and a record takes around 8 bytes rather than 32. Every block starts from zero, so
+ * it can be decoded on its own. Blocks are decoded one at a time into reused arrays, so memory does not
+ * grow with the number of records.
+ * </p>
+ */
+final class ArchiveCodec {
+    static final int BLOCK_RECORDS = 4096;
+
+    // A varint holds 7 bits per byte, so a 64-bit value takes at most 10 bytes.
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private ArchiveCodec() {
+    }
+
+    /**
+     * Collects records and writes them as blocks to a stream.
+     */
+    static final class Encoder {
+        private final DataOutputStream out;
+        private final long[] seconds = new long[BLOCK_RECORDS];
+        private final long[] ids = new long[BLOCK_RECORDS];
+        private final long[] amounts = new long[BLOCK_RECORDS];
+        private final int[] descriptions = new int[BLOCK_RECORDS];
+        private final int[] categories = new int[BLOCK_RECORDS];
+        private byte[] block = new byte[BLOCK_RECORDS * 8];
+        private int blockSize;
+        private int count;
+
+        /**
+         * Creates an encoder writing to the given stream.
+         */
+        Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Adds a record, writing out the block once it is full.
+         *
+         * @param category The string index of the category, or -1 for no category.
+         * @throws IOException If the stream cannot be written.
+         */
+        void add(long id, long amountCents, int description, long epochSecond, int category) throws IOException {
+            seconds[count] = epochSecond;
+            ids[count] = id;
+            amounts[count] = amountCents;
+            descriptions[count] = description;
+            categories[count] = category + 1;
+            count++;
+            if (count == BLOCK_RECORDS) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Writes out the records not yet written. Call once after the last record.
+         *
+         * @throws IOException If the stream cannot be written.
+         */
+        void finish() throws IOException {
+            if (count > 0) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            blockSize = 0;
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                putVarint(zigzag(seconds[i] - previous));
+                previous = seconds[i];
+            }
+            previous = 0;
+            for (int i = 0; i < count; i++) {
+                putVarint(zigzag(ids[i] - previous));
+                previous = ids[i];
+            }
+            for (int i = 0; i < count; i++) {
+                putVarint(zigzag(amounts[i]));
+            }
+            for (int i = 0; i < count; i++) {
+                putVarint(descriptions[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                putVarint(categories[i]);
+            }
+            writeVarint(out, count);
+            writeVarint(out, blockSize);
+            out.write(block, 0, blockSize);
+            count = 0;
+        }
+
+        private void putVarint(long value) {
+            if (blockSize + MAX_VARINT_BYTES > block.length) {
+                byte[] grown = new byte[block.length * 2];
+                System.arraycopy(block, 0, grown, 0, blockSize);
+                block = grown;
+            }
+            while ((value & ~0x7FL) != 0) {
+                block[blockSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            block[blockSize++] = (byte) value;
+        }
+    }
+
+    /**
+     * Decodes blocks from a buffer, one at a time, into arrays that are reused for every block.
+     */
+    static final class Decoder {
+        final long[] seconds = new long[BLOCK_RECORDS];
+        final long[] ids = new long[BLOCK_RECORDS];
+        final long[] amounts = new long[BLOCK_RECORDS];
+        final int[] descriptions = new int[BLOCK_RECORDS];
+        // String index of the category of each record, or -1 for no category.
+        final int[] categories = new int[BLOCK_RECORDS];
+        private final ByteBuffer buffer;
+        private byte[] block = new byte[BLOCK_RECORDS * 8];
+        private int position;
+
+        /**
+         * Creates a decoder reading blocks from the current position of the buffer.
+         */
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Decodes the next block into the arrays.
+         *
+         * @return The number of records in the block.
+         * @throws IllegalArgumentException If the block is malformed.
+         */
+        int nextBlock() {
+            int count = (int) readVarint(buffer);
+            long blockSize = readVarint(buffer);
+            if (count <= 0 || count > BLOCK_RECORDS || blockSize < 0 || blockSize > buffer.remaining()) {
+                throw new IllegalArgumentException("Malformed archive block");
+            }
+            // Decoding from an array in one bulk copy avoids a bounds-checked buffer access per byte.
+            if (block.length < blockSize) {
+                block = new byte[(int) blockSize];
+            }
+            buffer.get(block, 0, (int) blockSize);
+            position = 0;
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unzigzag(nextVarint());
+                seconds[i] = previous;
+            }
+            previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unzigzag(nextVarint());
+                ids[i] = previous;
+            }
+            for (int i = 0; i < count; i++) {
+                amounts[i] = unzigzag(nextVarint());
+            }
+            for (int i = 0; i < count; i++) {
+                descriptions[i] = (int) nextVarint();
+            }
+            for (int i = 0; i < count; i++) {
+                categories[i] = (int) nextVarint() - 1;
+            }
+            if (position != blockSize) {
+                throw new IllegalArgumentException("Malformed archive block");
+            }
+            return count;
+        }
+
+        private long nextVarint() {
+            byte next = block[position++];
+            if (next >= 0) {
+                return next;
+            }
+            long value = next & 0x7F;
+            for (int shift = 7; shift < MAX_VARINT_BYTES * 7; shift += 7) {
+                next = block[position++];
+                value |= (long) (next & 0x7F) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+
+    static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads a varint from the buffer.
+     *
+     * @throws IllegalArgumentException If the varint is longer than any 64-bit value needs.
+     */
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < MAX_VARINT_BYTES * 7; shift += 7) {
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // Maps signed values to unsigned ones so that numbers close to zero either way stay short.
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,117 @@
+package budgetbuddy.storage;
+
+import java.io.Closeable;
+
+/**
+ * Saves the records of a {@link Journal} in the background, coalescing bursts of changes into one write.
+ * <p>
+ * Once a change comes in, the saver waits until no further change has arrived for the quiet period, until
+ * the maximum delay since the first unsaved change has passed, or until the maximum number of records is
+ * pending, whichever is sooner, and then flushes the journal. Scripted bulk entry thus costs one write per
+ * burst rather than one per command, while an interactive session never has more than the maximum delay of
+ * work unsaved. Under {@link Durability#BATCH} each flush is a group commit, forcing every record of the
+ * burst to disk at once. The input loop only ever hands records to the journal in memory and never waits for
+ * the disk, unless {@link Durability#STRICT} asks it to.
+ * </p>
+ */
+public class AutoSaver implements Closeable {
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 3000;
+    public static final int DEFAULT_MAX_PENDING_RECORDS = 256;
+
+    private final Journal journal;
+    private final long quietPeriodMillis;
+    private final long maxDelayMillis;
+    private final int maxPendingRecords;
+    private final Thread thread;
+    private volatile boolean isRunning = true;
+
+    /**
+     * Starts saving a journal with the default quiet period and maximum delay.
+     *
+     * @param journal The journal to save.
+     */
+    public AutoSaver(Journal journal) {
+        this(journal, DEFAULT_QUIET_PERIOD_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_PENDING_RECORDS);
+    }
+
+    /**
+     * Starts saving a journal with the default maximum number of pending records.
+     *
+     * @param journal           The journal to save.
+     * @param quietPeriodMillis How long no change must arrive before pending changes are saved. Must be positive.
+     * @param maxDelayMillis    The longest a change stays unsaved, however busy the session. Must be positive.
+     * @throws IllegalArgumentException If either duration is not positive.
+     */
+    public AutoSaver(Journal journal, long quietPeriodMillis, long maxDelayMillis) {
+        this(journal, quietPeriodMillis, maxDelayMillis, DEFAULT_MAX_PENDING_RECORDS);
+    }
+
+    /**
+     * Starts saving a journal.
+     *
+     * @param journal           The journal to save.
+     * @param quietPeriodMillis How long no change must arrive before pending changes are saved. Must be positive.
+     * @param maxDelayMillis    The longest a change stays unsaved, however busy the session. Must be positive.
+     * @param maxPendingRecords The number of unsaved records that triggers a save. Must be positive.
+     * @throws IllegalArgumentException If a duration or the record count is not positive.
+     */
+    public AutoSaver(Journal journal, long quietPeriodMillis, long maxDelayMillis, int maxPendingRecords) {
+        if (quietPeriodMillis <= 0 || maxDelayMillis <= 0) {
+            throw new IllegalArgumentException("Autosave delays must be positive.");
+        }
+        if (maxPendingRecords <= 0) {
+            throw new IllegalArgumentException("Autosave record count must be positive.");
+        }
+        this.journal = journal;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPendingRecords = maxPendingRecords;
+        this.thread = new Thread(this::run, "budgetbuddy-autosave");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread and saves whatever is still pending.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.flush();
+    }
+
+    private void run() {
+        try {
+            while (isRunning) {
+                long seenGeneration = journal.getGeneration();
+                if (seenGeneration == journal.getSavedGeneration()) {
+                    journal.awaitChange(seenGeneration, 0);
+                    continue;
+                }
+                long firstChangeMillis = System.currentTimeMillis();
+                long lastChangeMillis = firstChangeMillis;
+                while (true) {
+                    long deadline = Math.min(lastChangeMillis + quietPeriodMillis, firstChangeMillis + maxDelayMillis);
+                    long waitMillis = deadline - System.currentTimeMillis();
+                    if (waitMillis <= 0 || seenGeneration - journal.getSavedGeneration() >= maxPendingRecords) {
+                        break;
+                    }
+                    if (journal.awaitChange(seenGeneration, waitMillis)) {
+                        seenGeneration = journal.getGeneration();
+                        lastChangeMillis = System.currentTimeMillis();
+                    }
+                }
+                journal.flush();
+            }
+        } catch (InterruptedException e) {
+            // Stopped by close(), which saves what is left.
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.model.StringDictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes the binary snapshot of a {@link BudgetManager}.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header      magic "BBSN", version, journal sequence, alert cents,
+ *             string, category, expense, recurring rule and partition counts
+ * strings     length-prefixed UTF-8, each description and category name once
+ * categories  name string index, limit cents
+ * expenses    32-byte records: id, amount cents, description index, epoch second, category index
+ * rules       40-byte records: id, amount cents, description index, start epoch second,
+ *             interval days, occurrence count, category index
+ * partitions  month, file version, expense count, fingerprint, total count,
+ *             then per category with expenses: category index, total cents
+ * </pre>
+ * Each expense and rule is written once, with the category it counts towards besides Overall as a field, and
+ * is restored once, so Overall and the category share it after loading as they do in memory.
+ * A category index of -1 means no category. The file is read through a memory map: apart from the strings,
+ * which are interned once each, every record is decoded in place with no text parsing.
+ * </p>
+ * <p>
+ * The partition section is the manifest of the {@link Partitions} the older expenses are kept in. Each
+ * partition file holds the expenses of one month, as a header of magic "BBSP", version, string and expense
+ * counts, then strings and the expenses, with the category index pointing into the strings. Since partition
+ * version 4 the expenses are encoded in the compact blocks of the {@link ArchiveCodec}, as they are read
+ * far less often than they are kept; earlier versions hold 32-byte records as above. Version 1 data files,
+ * written before partitions, have no partition count or section.
+ * </p>
+ * <p>
+ * Since version 3, every file ends with the CRC32C of all the bytes before it, which is verified before
+ * anything is restored. Files are always replaced whole, so a record cannot be torn on its own and one
+ * checksum per file detects any damage.
+ * </p>
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x4242534E;
+    static final int PARTITION_MAGIC = 0x42425350;
+    static final int VERSION = 3;
+    static final int PARTITION_VERSION = 4;
+    private static final int FIRST_ARCHIVED_PARTITION_VERSION = 4;
+    private static final int FIRST_CHECKSUMMED_VERSION = 3;
+    private static final int NO_CATEGORY = -1;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Returns whether a file starts with the binary snapshot magic number.
+     */
+    static boolean isBinary(File file) {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] magic = in.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES
+                    && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8
+                    | (magic[3] & 0xFF)) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the manager.
+     *
+     * @param journalSequence The sequence number of the last journaled change the snapshot includes.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(BudgetManager manager, File file, long journalSequence) throws IOException {
+        write(manager, file, journalSequence, manager.getBudgets().get("Overall").getExpenses(), List.of());
+    }
+
+    /**
+     * Writes a snapshot of the manager holding only some of its expenses, the others being kept in partitions.
+     *
+     * @param journalSequence The sequence number of the last journaled change the snapshot includes.
+     * @param expenses        The expenses to write into the file.
+     * @param manifest        The partitions holding the other expenses.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(BudgetManager manager, File file, long journalSequence, List<Expense> expenses,
+            Collection<Partitions.Partition> manifest) throws IOException {
+        List<String> categories = new ArrayList<>(manager.getBudgets().keySet());
+        Map<String, Integer> categoryIndices = new HashMap<>();
+        for (String category : categories) {
+            categoryIndices.put(category, categoryIndices.size());
+        }
+        Budget overall = manager.getBudgets().get("Overall");
+        List<RecurringRule> rules = overall.getRecurringRules();
+        Map<Long, Integer> ruleCategories = new HashMap<>();
+        for (Budget budget : manager.getBudgets().values()) {
+            if (budget != overall) {
+                for (RecurringRule rule : budget.getRecurringRules()) {
+                    ruleCategories.put(rule.getId(), categoryIndices.get(budget.getCategory()));
+                }
+            }
+        }
+
+        // Dictionary IDs are renumbered densely, so the file does not depend on the order strings were
+        // interned this session. Interning happens first, so the renumbering table covers every ID.
+        int[] categoryNames = new int[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            categoryNames[i] = StringDictionary.intern(categories.get(i));
+        }
+        int[] ruleDescriptions = new int[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            ruleDescriptions[i] = StringDictionary.intern(rules.get(i).getDescription());
+        }
+        int[] localIndices = new int[StringDictionary.size()];
+        Arrays.fill(localIndices, -1);
+        ArrayList<String> strings = new ArrayList<>();
+        for (int i = 0; i < categoryNames.length; i++) {
+            categoryNames[i] = localIndex(categoryNames[i], localIndices, strings);
+        }
+        for (int i = 0; i < ruleDescriptions.length; i++) {
+            ruleDescriptions[i] = localIndex(ruleDescriptions[i], localIndices, strings);
+        }
+        int[] expenseDescriptions = new int[expenses.size()];
+        for (int i = 0; i < expenses.size(); i++) {
+            expenseDescriptions[i] = localIndex(expenses.get(i).getDescriptionId(), localIndices, strings);
+        }
+
+        CRC32C checksum = new CRC32C();
+        try (DataOutputStream out = openChecked(file, checksum)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalSequence);
+            out.writeLong(manager.getBudgetAlert().getAlertCents());
+            out.writeInt(strings.size());
+            out.writeInt(categories.size());
+            out.writeInt(expenses.size());
+            out.writeInt(rules.size());
+            out.writeInt(manifest.size());
+            writeStrings(out, strings);
+            for (int i = 0; i < categories.size(); i++) {
+                out.writeInt(categoryNames[i]);
+                out.writeLong(manager.getBudgets().get(categories.get(i)).getLimitCents());
+            }
+            writeExpenses(out, manager, expenses, expenseDescriptions, categoryIndices);
+            for (int i = 0; i < rules.size(); i++) {
+                RecurringRule rule = rules.get(i);
+                out.writeLong(rule.getId());
+                out.writeLong(rule.getAmountCents());
+                out.writeInt(ruleDescriptions[i]);
+                out.writeLong(rule.getStart().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(rule.getIntervalDays());
+                out.writeInt(rule.getOccurrenceCount());
+                out.writeInt(ruleCategories.getOrDefault(rule.getId(), NO_CATEGORY));
+            }
+            for (Partitions.Partition partition : manifest) {
+                out.writeInt(partition.month);
+                out.writeInt(partition.version);
+                out.writeInt(partition.expenseCount);
+                out.writeLong(partition.fingerprint);
+                out.writeInt(partition.categories.length);
+                for (int i = 0; i < partition.categories.length; i++) {
+                    Integer category = categoryIndices.get(partition.categories[i]);
+                    out.writeInt(category == null || partition.categories[i].equals("Overall")
+                            ? NO_CATEGORY : category);
+                    out.writeLong(partition.totals[i]);
+                }
+            }
+            writeChecksum(out, checksum);
+        }
+    }
+
+    /**
+     * Writes a partition file holding the given expenses of the manager.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    static void writePartition(BudgetManager manager, File file, List<Expense> expenses) throws IOException {
+        ArrayList<String> strings = new ArrayList<>();
+        Map<String, Integer> categoryIndices = new HashMap<>();
+        for (Expense expense : expenses) {
+            StringDictionary.intern(expense.getDescription());
+        }
+        int[] localIndices = new int[StringDictionary.size()];
+        Arrays.fill(localIndices, -1);
+        int[] expenseDescriptions = new int[expenses.size()];
+        for (int i = 0; i < expenses.size(); i++) {
+            expenseDescriptions[i] = localIndex(expenses.get(i).getDescriptionId(), localIndices, strings);
+            Budget category = manager.getCategoryBudgetOf(expenses.get(i).getId());
+            if (category != null && !categoryIndices.containsKey(category.getCategory())) {
+                categoryIndices.put(category.getCategory(), strings.size());
+                strings.add(category.getCategory());
+            }
+        }
+
+        CRC32C checksum = new CRC32C();
+        try (DataOutputStream out = openChecked(file, checksum)) {
+            out.writeInt(PARTITION_MAGIC);
+            out.writeInt(PARTITION_VERSION);
+            out.writeInt(strings.size());
+            out.writeInt(expenses.size());
+            writeStrings(out, strings);
+            ArchiveCodec.Encoder encoder = new ArchiveCodec.Encoder(out);
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                Budget category = manager.getCategoryBudgetOf(expense.getId());
+                encoder.add(expense.getId(), expense.getAmountCents(), expenseDescriptions[i],
+                        expense.getDateTime().toEpochSecond(ZoneOffset.UTC),
+                        category == null ? NO_CATEGORY : categoryIndices.get(category.getCategory()));
+            }
+            encoder.finish();
+            writeChecksum(out, checksum);
+        }
+    }
+
+    /**
+     * Loads a snapshot into the manager without any user-facing output. The partitions listed in it are
+     * handed to the given {@link Partitions}, unloaded.
+     *
+     * @return The sequence number of the last journaled change the snapshot includes.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    static long read(BudgetManager manager, File file, Partitions partitions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a budget snapshot");
+            }
+            int version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            verifyChecksum(buffer, version);
+            long journalSequence = buffer.getLong();
+            long alertCents = buffer.getLong();
+            int stringCount = buffer.getInt();
+            int categoryCount = buffer.getInt();
+            int expenseCount = buffer.getInt();
+            int ruleCount = buffer.getInt();
+            int partitionCount = version == 1 ? 0 : buffer.getInt();
+
+            int[] descriptionIds = readStrings(buffer, stringCount);
+            String[] categories = new String[categoryCount];
+            for (int i = 0; i < categoryCount; i++) {
+                categories[i] = StringDictionary.text(descriptionIds[buffer.getInt()]);
+                manager.restoreBudget(categories[i], buffer.getLong());
+            }
+            for (int i = 0; i < expenseCount; i++) {
+                long id = buffer.getLong();
+                long amountCents = buffer.getLong();
+                int descriptionId = descriptionIds[buffer.getInt()];
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+                int category = buffer.getInt();
+                manager.restoreExpense(category == NO_CATEGORY ? "Overall" : categories[category],
+                        new Expense(id, amountCents, descriptionId, dateTime));
+            }
+            for (int i = 0; i < ruleCount; i++) {
+                long id = buffer.getLong();
+                long amountCents = buffer.getLong();
+                String description = StringDictionary.text(descriptionIds[buffer.getInt()]);
+                LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+                int intervalDays = buffer.getInt();
+                int occurrenceCount = buffer.getInt();
+                int category = buffer.getInt();
+                RecurringRule rule = new RecurringRule(id, amountCents, description, start, intervalDays,
+                        occurrenceCount);
+                manager.restoreRecurringRule("Overall", rule);
+                if (category != NO_CATEGORY) {
+                    manager.restoreRecurringRule(categories[category], rule);
+                }
+            }
+            for (int i = 0; i < partitionCount; i++) {
+                Partitions.Partition partition = new Partitions.Partition(buffer.getInt());
+                partition.version = buffer.getInt();
+                partition.expenseCount = buffer.getInt();
+                partition.fingerprint = buffer.getLong();
+                int totalCount = buffer.getInt();
+                partition.categories = new String[totalCount];
+                partition.totals = new long[totalCount];
+                for (int j = 0; j < totalCount; j++) {
+                    int category = buffer.getInt();
+                    partition.categories[j] = category == NO_CATEGORY ? "Overall" : categories[category];
+                    partition.totals[j] = buffer.getLong();
+                }
+                partitions.addUnloaded(partition);
+            }
+            manager.restoreBudgetAlert(alertCents);
+            return journalSequence;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Snapshot is truncated or corrupted", e);
+        }
+    }
+
+    /**
+     * Reads the expenses of a partition file, to be restored into a manager once the whole file is read.
+     * Reading is safe on any thread.
+     *
+     * @throws IOException If the file cannot be read or is not a valid partition.
+     */
+    static DecodedPartition decodePartition(File file) throws IOException {
+        DecodedPartition partition;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != PARTITION_MAGIC) {
+                throw new IOException("Not a budget partition");
+            }
+            int version = buffer.getInt();
+            if (version < 2 || version > PARTITION_VERSION) {
+                throw new IOException("Unsupported partition version " + version);
+            }
+            verifyChecksum(buffer, version);
+            int stringCount = buffer.getInt();
+            int expenseCount = buffer.getInt();
+            int[] descriptionIds = readStrings(buffer, stringCount);
+            partition = new DecodedPartition(expenseCount);
+            if (version >= FIRST_ARCHIVED_PARTITION_VERSION) {
+                readArchivedExpenses(buffer, descriptionIds, partition);
+                expenseCount = 0;
+            }
+            for (int i = 0; i < expenseCount; i++) {
+                long id = buffer.getLong();
+                long amountCents = buffer.getLong();
+                int descriptionId = descriptionIds[buffer.getInt()];
+                long epochSecond = buffer.getLong();
+                int category = buffer.getInt();
+                partition.add(id, amountCents, descriptionId, epochSecond, category == NO_CATEGORY ? "Overall"
+                        : StringDictionary.text(descriptionIds[category]));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Partition is truncated or corrupted", e);
+        }
+        return partition;
+    }
+
+    private static void readArchivedExpenses(MappedByteBuffer buffer, int[] descriptionIds,
+            DecodedPartition partition) {
+        ArchiveCodec.Decoder decoder = new ArchiveCodec.Decoder(buffer);
+        String[] categoryNames = new String[descriptionIds.length];
+        while (!partition.isFull()) {
+            int count = decoder.nextBlock();
+            for (int i = 0; i < count; i++) {
+                int category = decoder.categories[i];
+                if (category != NO_CATEGORY && categoryNames[category] == null) {
+                    categoryNames[category] = StringDictionary.text(descriptionIds[category]);
+                }
+                partition.add(decoder.ids[i], decoder.amounts[i], descriptionIds[decoder.descriptions[i]],
+                        decoder.seconds[i], category == NO_CATEGORY ? "Overall" : categoryNames[category]);
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Expense count does not match the blocks");
+        }
+    }
+
+    // The checksum sees the bytes as they leave the buffer, so it is complete once the stream is flushed.
+    private static DataOutputStream openChecked(File file, CRC32C checksum) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(new FileOutputStream(file),
+                checksum)));
+    }
+
+    private static void writeChecksum(DataOutputStream out, CRC32C checksum) throws IOException {
+        out.flush();
+        out.writeInt((int) checksum.getValue());
+    }
+
+    /**
+     * Checks the trailing checksum of a file of a version that has one, and excludes it from the buffer.
+     *
+     * @throws IOException If the checksum does not match.
+     */
+    private static void verifyChecksum(MappedByteBuffer buffer, int version) throws IOException {
+        if (version < FIRST_CHECKSUMMED_VERSION) {
+            return;
+        }
+        int contentEnd = buffer.limit() - Integer.BYTES;
+        if (contentEnd < buffer.position()) {
+            throw new IOException("File is truncated");
+        }
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(contentEnd);
+        CRC32C checksum = new CRC32C();
+        checksum.update(content);
+        if ((int) checksum.getValue() != buffer.getInt(contentEnd)) {
+            throw new IOException("Checksum mismatch; the file is damaged");
+        }
+        buffer.limit(contentEnd);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        for (String text : strings) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeExpenses(DataOutputStream out, BudgetManager manager, List<Expense> expenses,
+            int[] expenseDescriptions, Map<String, Integer> categoryIndices) throws IOException {
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            Budget category = manager.getCategoryBudgetOf(expense.getId());
+            out.writeLong(expense.getId());
+            out.writeLong(expense.getAmountCents());
+            out.writeInt(expenseDescriptions[i]);
+            out.writeLong(expense.getDateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(category == null ? NO_CATEGORY : categoryIndices.get(category.getCategory()));
+        }
+    }
+
+    // Interns the strings of a file and returns their dictionary IDs, indexed by their position in the file.
+    private static int[] readStrings(MappedByteBuffer buffer, int stringCount) {
+        int[] dictionaryIds = new int[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionaryIds[i] = StringDictionary.intern(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return dictionaryIds;
+    }
+
+    private static int localIndex(int dictionaryId, int[] localIndices, List<String> strings) {
+        if (localIndices[dictionaryId] < 0) {
+            localIndices[dictionaryId] = strings.size();
+            strings.add(StringDictionary.text(dictionaryId));
+        }
+        return localIndices[dictionaryId];
+    }
+
+    /**
+     * The expenses of a partition file, read but not yet restored into a manager. They are kept by column
+     * until restored, which takes far less memory than expense objects while partitions wait to be restored.
+     */
+    static final class DecodedPartition {
+        private final long[] ids;
+        private final long[] amounts;
+        private final long[] seconds;
+        private final int[] descriptionIds;
+        // The category of each expense, "Overall" for none.
+        private final String[] categories;
+        private int size;
+
+        private DecodedPartition(int expenseCount) {
+            if (expenseCount < 0) {
+                throw new IllegalArgumentException("Negative expense count");
+            }
+            ids = new long[expenseCount];
+            amounts = new long[expenseCount];
+            seconds = new long[expenseCount];
+            descriptionIds = new int[expenseCount];
+            categories = new String[expenseCount];
+        }
+
+        private void add(long id, long amountCents, int descriptionId, long epochSecond, String category) {
+            if (id <= 0 || amountCents < 0) {
+                throw new IllegalArgumentException("Invalid expense " + id);
+            }
+            ids[size] = id;
+            amounts[size] = amountCents;
+            seconds[size] = epochSecond;
+            descriptionIds[size] = descriptionId;
+            categories[size] = category;
+            size++;
+        }
+
+        private boolean isFull() {
+            return size == ids.length;
+        }
+
+        /**
+         * Restores the expenses into a manager without any user-facing output. Must be called on the thread
+         * that runs the commands.
+         */
+        void restoreInto(BudgetManager manager) {
+            for (int i = 0; i < size; i++) {
+                manager.restoreExpense(categories[i], new Expense(ids[i], amounts[i], descriptionIds[i],
+                        LocalDateTime.ofEpochSecond(seconds[i], 0, ZoneOffset.UTC)));
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Coordinates the BudgetBuddy processes that share a data file, through {@link FileChannel} locks on a lock
+ * file next to it. The data file itself cannot carry the locks, as every snapshot replaces it by a new file.
+ * <p>
+ * The lock file has two regions. The write region is held shared while the journal is read, and exclusively
+ * while the journal is appended to or the data file is loaded or replaced, so that no process reads a record
+ * half written. The session region is held shared by every process with an open {@link Journal}; replacing
+ * the data file and its partitions needs it exclusively, so it only happens in a process that has the data to
+ * itself. While several processes share the data, only the journal changes, and each picks up the records of
+ * the others from it.
+ * </p>
+ * <p>
+ * Past the regions, the lock file records the ends of the ranges of new expense and rule IDs claimed by open
+ * sessions. A session joining others claims the next ranges, so the records two processes append never share
+ * an ID; a session alone starts from the IDs it has loaded, so IDs only jump while sessions overlap.
+ * </p>
+ * <p>
+ * File locks belong to a whole process, and a process may not take two locks over the same region, so there is
+ * one instance per data file within a process, which also orders the threads of the process among themselves.
+ * If the lock file cannot be opened, as in a read-only folder, only the threads of this process are ordered.
+ * </p>
+ */
+final class DataLock {
+    private static final long WRITE_REGION = 0;
+    private static final long SESSION_REGION = 1;
+    private static final long RETRY_MILLIS = 5;
+    private static final long ID_LIMITS_POSITION = 8;
+    private static final long EXPENSE_ID_RANGE = 1L << 32;
+    private static final long RULE_ID_RANGE = 1L << 16;
+    private static final Map<String, DataLock> LOCKS = new HashMap<>();
+
+    private final File lockFile;
+    private final FileChannel channel;
+    // Orders the threads of this process; the file locks order processes.
+    private final ReentrantReadWriteLock writeRegion = new ReentrantReadWriteLock();
+    // The file locks currently held, and the number of threads sharing the write region or the session region.
+    private FileLock writeRegionLock;
+    private int writeRegionReaders;
+    private FileLock sessionLock;
+    private int sessionCount;
+
+    private DataLock(File lockFile, FileChannel channel) {
+        this.lockFile = lockFile;
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the lock of the data file at the given path, shared by every user of the file in this process.
+     */
+    static synchronized DataLock of(String dataPath) {
+        File lockFile = new File(pathOf(dataPath)).getAbsoluteFile();
+        String key = lockFile.getPath();
+        DataLock lock = LOCKS.get(key);
+        if (lock == null) {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                System.out.println("Error opening budget lock file, other BudgetBuddy processes are not kept out: "
+                        + e.getMessage());
+                channel = null;
+            }
+            lock = new DataLock(lockFile, channel);
+            LOCKS.put(key, lock);
+        }
+        return lock;
+    }
+
+    /**
+     * Returns the path of the lock file kept next to a data file.
+     */
+    static String pathOf(String dataPath) {
+        return dataPath + ".lock";
+    }
+
+    /**
+     * Takes the write region shared, waiting for any process that holds it exclusively. A thread that holds it
+     * exclusively already may also take it shared.
+     */
+    void lockShared() {
+        writeRegion.readLock().lock();
+        if (writeRegion.isWriteLockedByCurrentThread()) {
+            return;
+        }
+        synchronized (this) {
+            if (writeRegionReaders++ == 0) {
+                writeRegionLock = acquire(WRITE_REGION, true);
+            }
+        }
+    }
+
+    void unlockShared() {
+        if (!writeRegion.isWriteLockedByCurrentThread()) {
+            synchronized (this) {
+                if (--writeRegionReaders == 0) {
+                    writeRegionLock = release(writeRegionLock);
+                }
+            }
+        }
+        writeRegion.readLock().unlock();
+    }
+
+    /**
+     * Takes the write region exclusively, waiting for every other thread and process that holds it.
+     * The thread must not hold it shared.
+     */
+    void lockExclusive() {
+        writeRegion.writeLock().lock();
+        if (writeRegion.getWriteHoldCount() == 1) {
+            writeRegionLock = acquire(WRITE_REGION, false);
+        }
+    }
+
+    void unlockExclusive() {
+        if (writeRegion.getWriteHoldCount() == 1) {
+            writeRegionLock = release(writeRegionLock);
+        }
+        writeRegion.writeLock().unlock();
+    }
+
+    /**
+     * Joins the processes working on the data file, until {@link #endSession()}. The caller holds the write
+     * region exclusively and has loaded the data, so that the IDs it has seen are all below the ones claimed.
+     */
+    synchronized void startSession() {
+        if (sessionCount++ == 0) {
+            claimIds(tryAcquireSessionRegion());
+            sessionLock = release(sessionLock);
+            sessionLock = acquire(SESSION_REGION, true);
+        }
+    }
+
+    synchronized void endSession() {
+        if (--sessionCount == 0) {
+            sessionLock = release(sessionLock);
+        }
+    }
+
+    /**
+     * Takes the write region exclusively and makes sure no other session is open, in this process or another,
+     * so that the data file may be replaced. On success, the caller must call {@link #unlockAlone()}.
+     *
+     * @param isSession Whether the caller has a session of its own open.
+     * @return {@code false}, holding nothing, if another session is open.
+     */
+    boolean tryLockAlone(boolean isSession) {
+        lockExclusive();
+        synchronized (this) {
+            if (sessionCount > (isSession ? 1 : 0)) {
+                unlockExclusive();
+                return false;
+            }
+            // Sessions only start with the write region held shared or exclusively, so none can start meanwhile.
+            sessionLock = release(sessionLock);
+            if (!tryAcquireSessionRegion()) {
+                if (sessionCount > 0) {
+                    sessionLock = acquire(SESSION_REGION, true);
+                }
+                unlockExclusive();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void unlockAlone() {
+        synchronized (this) {
+            sessionLock = release(sessionLock);
+            if (sessionCount > 0) {
+                sessionLock = acquire(SESSION_REGION, true);
+            }
+        }
+        unlockExclusive();
+    }
+
+    // Claims ranges of new IDs above those of every other open session, and records where they end.
+    private void claimIds(boolean isAlone) {
+        if (channel == null) {
+            return;
+        }
+        ByteBuffer limits = ByteBuffer.allocate(2 * Long.BYTES);
+        try {
+            while (!isAlone && limits.hasRemaining()
+                    && channel.read(limits, ID_LIMITS_POSITION + limits.position()) > 0) {
+                // Reads until the buffer is full or the file ends; a new lock file reads as zeros.
+            }
+            limits.clear();
+            limits.putLong(Expense.reserveIdsFrom(limits.getLong(0)) + EXPENSE_ID_RANGE);
+            limits.putLong(RecurringRule.reserveIdsFrom(limits.getLong(Long.BYTES)) + RULE_ID_RANGE);
+            limits.flip();
+            while (limits.hasRemaining()) {
+                channel.write(limits, ID_LIMITS_POSITION + limits.position());
+            }
+        } catch (IOException e) {
+            System.out.println("Error reserving IDs in " + lockFile.getName() + ": " + e.getMessage());
+        }
+    }
+
+    // Waits for a file lock by polling, since a thread interrupted while blocked in FileChannel.lock closes the
+    // channel, and with it every lock of the process.
+    private FileLock acquire(long region, boolean isShared) {
+        if (channel == null) {
+            return null;
+        }
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                FileLock lock = channel.tryLock(region, 1, isShared);
+                if (lock != null) {
+                    return lock;
+                }
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error locking " + lockFile.getName() + ": " + e.getMessage());
+            return null;
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tries once to take the session region exclusively. Without working file locks, only the threads of this
+     * process are ordered, so this then succeeds.
+     *
+     * @return {@code false} if another process holds the region.
+     */
+    private boolean tryAcquireSessionRegion() {
+        if (channel == null) {
+            return true;
+        }
+        try {
+            sessionLock = channel.tryLock(SESSION_REGION, 1, false);
+            return sessionLock != null;
+        } catch (IOException e) {
+            System.out.println("Error locking " + lockFile.getName() + ": " + e.getMessage());
+            return true;
+        }
+    }
+
+    private FileLock release(FileLock lock) {
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                System.out.println("Error unlocking " + lockFile.getName() + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+}
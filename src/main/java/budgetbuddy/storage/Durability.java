@@ -0,0 +1,40 @@
+package budgetbuddy.storage;
+
+/**
+ * How far saved data is pushed towards the disk, trading command throughput for what survives a power loss
+ * or operating system crash. Every level survives the program itself being killed, since records handed to
+ * the operating system are kept by it.
+ */
+public enum Durability {
+    /**
+     * Data is handed to the operating system and left in its cache, to be written whenever it decides.
+     * A power loss can lose the last seconds of changes.
+     */
+    NONE,
+    /**
+     * Journal records are forced to disk in groups, each time the {@link AutoSaver} saves them, and snapshots
+     * are forced to disk before they replace the data file. A power loss loses at most the last group.
+     */
+    BATCH,
+    /**
+     * As {@link #BATCH}, and the records of every command are also forced to disk before the next command is
+     * read, so that no completed command is lost.
+     */
+    STRICT;
+
+    /**
+     * Returns the level with the given name, ignoring case.
+     *
+     * @param name The name of the level, such as {@code batch}.
+     * @return The level.
+     * @throws IllegalArgumentException If no level has that name.
+     */
+    public static Durability parse(String name) {
+        for (Durability level : values()) {
+            if (level.name().equalsIgnoreCase(name.trim())) {
+                return level;
+            }
+        }
+        throw new IllegalArgumentException("Unknown durability level '" + name + "'. Use none, batch or strict.");
+    }
+}
@@ -0,0 +1,242 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.ExpenseVisitor;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.StringDictionary;
+import budgetbuddy.parser.TimestampCodec;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Streams expenses out of a {@link BudgetManager} as CSV or NDJSON, for use by other programs.
+ * <p>
+ * Every expense becomes one row with the fields {@code id}, {@code date}, {@code amount}, {@code description}
+ * and {@code category}. Dates are in the ISO 8601 form {@code 2025-03-01T12:00}, amounts are plain decimals
+ * such as {@code 12.50}, and the category is empty in CSV, or {@code null} in NDJSON, for expenses in no
+ * category. Each occurrence of a recurring expense is a row too, in time order among the others, with the
+ * {@code id} left empty in CSV, or {@code null} in NDJSON, as occurrences have no ID of their own.
+ * </p>
+ * <p>
+ * Expenses are read from the store through {@link BudgetManager#forEachExpense}, so neither {@code Expense}
+ * objects nor lists of them are created. Rows are formatted by hand into one reused buffer, which is handed
+ * to the writer whenever it holds {@link #CHUNK_CHARS} characters, so memory use is the same however many
+ * rows are exported. Each distinct description and category is escaped once and then reused.
+ * </p>
+ */
+public final class ExpenseExporter {
+    static final int CHUNK_CHARS = 1 << 16;
+    private static final String CSV_HEADER = "id,date,amount,description,category";
+    private static final int ISO_LENGTH = "2025-03-01T12:00".length();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final ExportFormat format;
+    private final StringBuilder buffer = new StringBuilder(CHUNK_CHARS + 1024);
+    private final char[] chunk = new char[CHUNK_CHARS + 1024];
+    // Escaped descriptions, by dictionary ID, and escaped category names, filled in as they are first met.
+    private String[] descriptions = new String[StringDictionary.size()];
+    private final HashMap<String, String> categories = new HashMap<>();
+    // The date of the previous row, as rows come in time order and many share a day.
+    private final char[] date = new char[ISO_LENGTH];
+    private long dateEpochDay = Long.MIN_VALUE;
+    private boolean isDateNumeric;
+    private long rowCount;
+
+    private ExpenseExporter(Writer out, ExportFormat format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Exports the matching expenses to a file, replacing it if it exists. The rows are written to a temporary
+     * file first, so the file is left as it was if the export fails.
+     *
+     * @param manager  The manager to export from.
+     * @param file     The file to write.
+     * @param format   The format to write in.
+     * @param category The category budget to export, or "Overall" or an empty string for every expense.
+     * @param start    The earliest time to include, or {@code null} for no lower bound.
+     * @param end      The latest time to include, or {@code null} for no upper bound.
+     * @return The number of rows exported, occurrences of recurring expenses included.
+     * @throws IOException           If the file cannot be written.
+     * @throws InvalidInputException If the category budget does not exist.
+     */
+    public static long export(BudgetManager manager, File file, ExportFormat format, String category,
+            LocalDateTime start, LocalDateTime end) throws IOException, InvalidInputException {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        boolean isExported = false;
+        try {
+            long count;
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
+                count = export(manager, writer, format, category, start, end);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            isExported = true;
+            return count;
+        } finally {
+            if (!isExported) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Exports the matching expenses to a writer, oldest first. The writer is not closed.
+     *
+     * @param manager  The manager to export from.
+     * @param out      The writer to write to.
+     * @param format   The format to write in.
+     * @param category The category budget to export, or "Overall" or an empty string for every expense.
+     * @param start    The earliest time to include, or {@code null} for no lower bound.
+     * @param end      The latest time to include, or {@code null} for no upper bound.
+     * @return The number of rows exported, occurrences of recurring expenses included.
+     * @throws IOException           If the writer fails.
+     * @throws InvalidInputException If the category budget does not exist.
+     */
+    public static long export(BudgetManager manager, Writer out, ExportFormat format, String category,
+            LocalDateTime start, LocalDateTime end) throws IOException, InvalidInputException {
+        ExpenseExporter exporter = new ExpenseExporter(out, format);
+        if (format == ExportFormat.CSV) {
+            exporter.buffer.append(CSV_HEADER).append('\n');
+        }
+        try {
+            manager.forEachExpense(category, start, end, exporter::appendRow);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        exporter.flushChunk();
+        out.flush();
+        return exporter.rowCount;
+    }
+
+    private void appendRow(long id, long amountCents, int descriptionId, long epochSecond, String category) {
+        if (descriptionId >= descriptions.length) {
+            // Loading older expenses for the export may have added descriptions.
+            descriptions = Arrays.copyOf(descriptions, StringDictionary.size());
+        }
+        if (descriptions[descriptionId] == null) {
+            descriptions[descriptionId] = escape(StringDictionary.text(descriptionId));
+        }
+        String escapedCategory = category == null ? null : categories.computeIfAbsent(category, this::escape);
+        if (format == ExportFormat.CSV) {
+            if (id != ExpenseVisitor.NO_ID) {
+                buffer.append(id);
+            }
+            buffer.append(',');
+            appendDate(Math.floorDiv(epochSecond, 60));
+            buffer.append(',');
+            Money.append(buffer, amountCents);
+            buffer.append(',').append(descriptions[descriptionId]).append(',');
+            if (escapedCategory != null) {
+                buffer.append(escapedCategory);
+            }
+        } else {
+            buffer.append("{\"id\":");
+            if (id != ExpenseVisitor.NO_ID) {
+                buffer.append(id);
+            } else {
+                buffer.append("null");
+            }
+            buffer.append(",\"date\":\"");
+            appendDate(Math.floorDiv(epochSecond, 60));
+            buffer.append("\",\"amount\":");
+            Money.append(buffer, amountCents);
+            buffer.append(",\"description\":").append(descriptions[descriptionId]).append(",\"category\":")
+                    .append(escapedCategory).append('}');
+        }
+        buffer.append('\n');
+        rowCount++;
+        if (buffer.length() >= CHUNK_CHARS) {
+            try {
+                flushChunk();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Appends a time as {@link TimestampCodec#appendIso} does, working out the date only once per day.
+     */
+    private void appendDate(long epochMinute) {
+        long epochDay = Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+        if (epochDay != dateEpochDay) {
+            StringBuilder text = new StringBuilder(ISO_LENGTH);
+            TimestampCodec.appendIso(text, epochDay * MINUTES_PER_DAY);
+            isDateNumeric = text.length() != ISO_LENGTH;
+            if (!isDateNumeric) {
+                text.getChars(0, ISO_LENGTH, date, 0);
+            }
+            dateEpochDay = epochDay;
+        }
+        if (isDateNumeric) {
+            TimestampCodec.appendIso(buffer, epochMinute);
+            return;
+        }
+        int minuteOfDay = (int) (epochMinute - epochDay * MINUTES_PER_DAY);
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        date[11] = (char) ('0' + hour / 10);
+        date[12] = (char) ('0' + hour % 10);
+        date[14] = (char) ('0' + minute / 10);
+        date[15] = (char) ('0' + minute % 10);
+        buffer.append(date);
+    }
+
+    private void flushChunk() throws IOException {
+        int length = buffer.length();
+        char[] chars = length <= chunk.length ? chunk : new char[length];
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Returns a text as a CSV field, quoted only if it holds a comma, quote or line break, or as a JSON string.
+     */
+    private String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 2);
+        if (format == ExportFormat.CSV) {
+            boolean isQuoted = text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0;
+            if (!isQuoted) {
+                return text;
+            }
+            escaped.append('"').append(text.replace("\"", "\"\"")).append('"');
+            return escaped.toString();
+        }
+        escaped.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '"' -> escaped.append("\\\"");
+            case '\\' -> escaped.append("\\\\");
+            case '\n' -> escaped.append("\\n");
+            case '\r' -> escaped.append("\\r");
+            case '\t' -> escaped.append("\\t");
+            default -> {
+                if (c < 0x20) {
+                    escaped.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                } else {
+                    escaped.append(c);
+                }
+            }
+            }
+        }
+        return escaped.append('"').toString();
+    }
+}
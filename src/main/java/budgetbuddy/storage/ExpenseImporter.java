@@ -0,0 +1,518 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.StringDictionary;
+import budgetbuddy.parser.TimestampCodec;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads expenses from a CSV file with a header row, such as a bank statement or a file written by the
+ * {@link ExpenseExporter}, and adds them to a {@link BudgetManager}.
+ * <p>
+ * Four columns are used: amount, date, description and, optionally, category. Each is found by its header
+ * name, ignoring case, or by its number, counting from 1; by default the column names are the ones the
+ * exporter writes. Other columns are ignored. Amounts may carry a leading {@code $} and thousands separators.
+ * Dates are read in ISO 8601 form, such as {@code 2025-03-01T12:00}, {@code 2025-03-01 12:00:00} or
+ * {@code 2025-03-01}, or in the form the add command takes.
+ * </p>
+ * <p>
+ * Records are read in batches of {@link #BATCH_RECORDS}, which are parsed in parallel on the common
+ * {@link ForkJoinPool}, as the {@link TextSnapshotLoader} does with data files. Each parsed batch is added to
+ * the manager on the calling thread, in file order, with one call to
+ * {@link BudgetManager#addExpenses(java.util.Map)}, so the budget alert and limits are evaluated once per
+ * batch. Only a few batches are in flight at a time, so memory stays bounded however large the file.
+ * </p>
+ * <p>
+ * A record that cannot be read is skipped without affecting the others. Skipped records are counted and the
+ * first few are described, with their line numbers, in the {@link Result}.
+ * </p>
+ */
+public final class ExpenseImporter {
+    static final int BATCH_RECORDS = 16384;
+    /** The column names looked for when none are given, as written by the {@link ExpenseExporter}. */
+    public static final String AMOUNT_COLUMN = "amount";
+    public static final String DATE_COLUMN = "date";
+    public static final String DESCRIPTION_COLUMN = "description";
+    public static final String CATEGORY_COLUMN = "category";
+
+    // The same limit as for the add command.
+    private static final long MAX_AMOUNT_CENTS = 10000 * Money.CENTS_PER_UNIT;
+    private static final int MAX_EXAMPLES = 5;
+    private static final int AMOUNT = 0;
+    private static final int DATE = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int CATEGORY = 3;
+
+    private ExpenseImporter() {
+    }
+
+    /**
+     * Imports the expenses in a UTF-8 CSV file.
+     *
+     * @param manager           The manager to add the expenses to.
+     * @param file              The file to read.
+     * @param amountColumn      The name or number of the amount column, or {@code null} for "amount".
+     * @param dateColumn        The name or number of the date column, or {@code null} for "date".
+     * @param descriptionColumn The name or number of the description column, or {@code null} for "description".
+     * @param categoryColumn    The name or number of the category column, or {@code null} for "category" if the
+     *                          file has one, and no category otherwise.
+     * @return What was imported and what was skipped.
+     * @throws IOException           If the file cannot be read.
+     * @throws InvalidInputException If the file is empty or a column cannot be found.
+     */
+    public static Result importCsv(BudgetManager manager, File file, String amountColumn, String dateColumn,
+            String descriptionColumn, String categoryColumn) throws IOException, InvalidInputException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return importCsv(manager, reader, new String[]{amountColumn, dateColumn, descriptionColumn,
+                categoryColumn}, BATCH_RECORDS);
+        }
+    }
+
+    /**
+     * Imports the expenses read from a reader, in batches of the given number of records. The reader is not
+     * closed.
+     *
+     * @param columns The amount, date, description and category columns, each {@code null} for the default.
+     */
+    static Result importCsv(BudgetManager manager, Reader reader, String[] columns, int batchRecords)
+            throws IOException, InvalidInputException {
+        RecordReader records = new RecordReader(new BufferedReader(reader, 1 << 16));
+        String header = records.next();
+        if (header == null) {
+            throw new InvalidInputException("The file is empty; it needs a header row naming its columns.");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        int[] indexes = resolveColumns(header, columns);
+
+        Merge merge = new Merge(manager);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = 2 * pool.getParallelism() + 1;
+        ArrayDeque<ForkJoinTask<Batch>> inFlight = new ArrayDeque<>();
+        boolean isRead = false;
+        while (true) {
+            while (!isRead && inFlight.size() < window) {
+                RawBatch raw = records.nextBatch(batchRecords);
+                if (raw == null) {
+                    isRead = true;
+                } else {
+                    inFlight.add(pool.submit(() -> parse(raw, indexes)));
+                }
+            }
+            if (inFlight.isEmpty()) {
+                break;
+            }
+            merge.add(inFlight.poll().join());
+        }
+        return merge.result;
+    }
+
+    /**
+     * Returns the index of each column, or -1 for a category column that is not given and not in the file.
+     */
+    private static int[] resolveColumns(String header, String[] columns) throws InvalidInputException {
+        ArrayList<String> names = new ArrayList<>();
+        try {
+            FieldBounds fields = new FieldBounds(Integer.MAX_VALUE);
+            fields.split(header);
+            for (int i = 0; i < fields.count; i++) {
+                names.add(fields.text(header, i).toLowerCase());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Cannot read the header row: " + e.getMessage());
+        }
+        String[] defaults = {AMOUNT_COLUMN, DATE_COLUMN, DESCRIPTION_COLUMN, CATEGORY_COLUMN};
+        int[] indexes = new int[defaults.length];
+        for (int column = 0; column < defaults.length; column++) {
+            String given = columns[column] == null || columns[column].isBlank() ? null : columns[column].trim();
+            String wanted = given == null ? defaults[column] : given;
+            int index;
+            if (wanted.length() <= 4 && wanted.chars().allMatch(Character::isDigit)) {
+                index = Integer.parseInt(wanted) - 1;
+                if (index < 0 || index >= names.size()) {
+                    throw new InvalidInputException("Column " + wanted + " does not exist; the file has "
+                            + names.size() + " columns.");
+                }
+            } else {
+                index = names.indexOf(wanted.toLowerCase());
+            }
+            if (index < 0 && (column != CATEGORY || given != null)) {
+                throw new InvalidInputException("No column named '" + wanted + "' in the header row "
+                        + String.join(",", names) + ".");
+            }
+            indexes[column] = index;
+        }
+        return indexes;
+    }
+
+    private static Batch parse(RawBatch raw, int[] indexes) {
+        Batch batch = new Batch(raw.count);
+        int fieldsNeeded = 0;
+        for (int index : indexes) {
+            fieldsNeeded = Math.max(fieldsNeeded, index + 1);
+        }
+        FieldBounds fields = new FieldBounds(fieldsNeeded);
+        for (int i = 0; i < raw.count; i++) {
+            String record = raw.records[i];
+            try {
+                fields.split(record);
+                if (fields.count < fieldsNeeded) {
+                    throw new IllegalArgumentException("has " + fields.count + " columns, " + fieldsNeeded
+                            + " needed");
+                }
+                long amountCents = parseAmount(record, fields, indexes[AMOUNT]);
+                long epochMinute = parseDate(record, fields, indexes[DATE]);
+                int descriptionId = fields.intern(record, indexes[DESCRIPTION]);
+                String category = indexes[CATEGORY] < 0 ? "" : fields.text(record, indexes[CATEGORY]);
+                batch.add(amountCents, epochMinute, descriptionId, category.equals("Overall") ? "" : category);
+            } catch (IllegalArgumentException e) {
+                batch.skipped(raw.lineNumbers[i], e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    private static long parseAmount(String record, FieldBounds fields, int index) {
+        int start = fields.starts[index];
+        int end = fields.ends[index];
+        if (start < end && record.charAt(start) == '$') {
+            start++;
+        }
+        CharSequence text = record;
+        if (record.indexOf(',', start) >= 0 && record.indexOf(',', start) < end) {
+            // Thousands separators, only possible in a quoted field.
+            text = record.substring(start, end).replace(",", "");
+            start = 0;
+            end = text.length();
+        }
+        long amountCents = Money.parseCents(text, start, end);
+        if (amountCents < 0 || amountCents > MAX_AMOUNT_CENTS) {
+            throw new IllegalArgumentException("amount must be between 0 and " + Money.format(MAX_AMOUNT_CENTS));
+        }
+        return amountCents;
+    }
+
+    private static long parseDate(String record, FieldBounds fields, int index) {
+        int start = fields.starts[index];
+        int end = fields.ends[index];
+        long epochMinute = TimestampCodec.parseIso(record, start, end);
+        if (epochMinute == TimestampCodec.INVALID) {
+            epochMinute = TimestampCodec.parseText(record, start, end);
+        }
+        if (epochMinute == TimestampCodec.INVALID) {
+            throw new IllegalArgumentException("unknown date \"" + record.substring(start, end)
+                    + "\"; use 2025-03-01 12:00 or Mar 01 2025 at 12:00");
+        }
+        return epochMinute;
+    }
+
+    /**
+     * What an import added and skipped.
+     */
+    public static final class Result {
+        private final ArrayList<String> examples = new ArrayList<>();
+        private final LinkedHashSet<String> unknownCategories = new LinkedHashSet<>();
+        private long importedCount;
+        private long totalCents;
+        private long skippedCount;
+
+        /** Returns the number of expenses added. */
+        public long getImportedCount() {
+            return importedCount;
+        }
+
+        /** Returns the total amount of the expenses added, in cents. */
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        /** Returns the number of records skipped because they could not be read. */
+        public long getSkippedCount() {
+            return skippedCount;
+        }
+
+        /** Returns the first few skipped records, each as its line number and the reason. */
+        public List<String> getSkippedExamples() {
+            return Collections.unmodifiableList(examples);
+        }
+
+        /**
+         * Returns the first few categories named in the file that have no budget. Their expenses were added
+         * to the Overall budget only.
+         */
+        public Set<String> getUnknownCategories() {
+            return Collections.unmodifiableSet(unknownCategories);
+        }
+    }
+
+    /**
+     * Splits CSV records into fields, as in RFC 4180, recording where each field starts and ends. Fields are
+     * only copied out of the record when asked for.
+     */
+    private static final class FieldBounds {
+        private final int maxFields;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private boolean[] isQuoted = new boolean[8];
+        private int count;
+
+        private FieldBounds(int maxFields) {
+            this.maxFields = maxFields;
+        }
+
+        /**
+         * Splits a record, up to the maximum number of fields. Unquoted fields are trimmed.
+         *
+         * @throws IllegalArgumentException If a quoted field is not closed or is followed by other text.
+         */
+        private void split(String record) {
+            count = 0;
+            int length = record.length();
+            int i = 0;
+            while (count < maxFields) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                    isQuoted = Arrays.copyOf(isQuoted, count * 2);
+                }
+                while (i < length && record.charAt(i) == ' ') {
+                    i++;
+                }
+                if (i < length && record.charAt(i) == '"') {
+                    int quote = record.indexOf('"', i + 1);
+                    while (quote >= 0 && quote + 1 < length && record.charAt(quote + 1) == '"') {
+                        quote = record.indexOf('"', quote + 2);
+                    }
+                    if (quote < 0) {
+                        throw new IllegalArgumentException("quoted field is not closed");
+                    }
+                    starts[count] = i + 1;
+                    ends[count] = quote;
+                    isQuoted[count] = true;
+                    i = quote + 1;
+                    while (i < length && record.charAt(i) == ' ') {
+                        i++;
+                    }
+                    if (i < length && record.charAt(i) != ',') {
+                        throw new IllegalArgumentException("text after a quoted field");
+                    }
+                } else {
+                    int comma = record.indexOf(',', i);
+                    int end = comma < 0 ? length : comma;
+                    starts[count] = i;
+                    while (end > i && record.charAt(end - 1) == ' ') {
+                        end--;
+                    }
+                    ends[count] = end;
+                    isQuoted[count] = false;
+                    i = comma < 0 ? length : comma;
+                }
+                count++;
+                if (i >= length) {
+                    return;
+                }
+                i++;
+            }
+        }
+
+        private String text(String record, int field) {
+            String text = record.substring(starts[field], ends[field]);
+            return isQuoted[field] ? text.replace("\"\"", "\"") : text;
+        }
+
+        /**
+         * Interns a description field in the {@link StringDictionary}, reading it in place unless it holds
+         * escaped quotes.
+         *
+         * @throws IllegalArgumentException If the field is blank.
+         */
+        private int intern(String record, int field) {
+            int start = starts[field];
+            int end = ends[field];
+            while (start < end && Character.isWhitespace(record.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(record.charAt(end - 1))) {
+                end--;
+            }
+            if (start == end) {
+                throw new IllegalArgumentException("description is empty");
+            }
+            int quote = isQuoted[field] ? record.indexOf('"', start) : -1;
+            if (quote >= 0 && quote < end) {
+                return StringDictionary.intern(record.substring(start, end).replace("\"\"", "\""));
+            }
+            return StringDictionary.intern(record, start, end);
+        }
+    }
+
+    /**
+     * Reads CSV records, which span several lines where a quoted field holds a line break.
+     */
+    private static final class RecordReader {
+        private final BufferedReader in;
+        private long lineNumber;
+        private long recordLineNumber;
+
+        private RecordReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        /**
+         * Returns the next record, or {@code null} at the end of the input.
+         */
+        private String next() throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            recordLineNumber = lineNumber;
+            int quotes = countQuotes(line);
+            if (quotes % 2 == 0) {
+                return line;
+            }
+            StringBuilder record = new StringBuilder(line);
+            while (quotes % 2 != 0) {
+                String more = in.readLine();
+                if (more == null) {
+                    break;
+                }
+                lineNumber++;
+                record.append('\n').append(more);
+                quotes += countQuotes(more);
+            }
+            return record.toString();
+        }
+
+        /**
+         * Returns up to the given number of non-blank records, or {@code null} if none are left.
+         */
+        private RawBatch nextBatch(int maxRecords) throws IOException {
+            RawBatch batch = new RawBatch(maxRecords);
+            String record;
+            while (batch.count < maxRecords && (record = next()) != null) {
+                if (!record.isBlank()) {
+                    batch.records[batch.count] = record;
+                    batch.lineNumbers[batch.count] = recordLineNumber;
+                    batch.count++;
+                }
+            }
+            return batch.count == 0 ? null : batch;
+        }
+
+        private static int countQuotes(String line) {
+            int quotes = 0;
+            for (int i = line.indexOf('"'); i >= 0; i = line.indexOf('"', i + 1)) {
+                quotes++;
+            }
+            return quotes;
+        }
+    }
+
+    /**
+     * Records read from the file but not yet parsed, with the line each starts on.
+     */
+    private static final class RawBatch {
+        private final String[] records;
+        private final long[] lineNumbers;
+        private int count;
+
+        private RawBatch(int capacity) {
+            records = new String[capacity];
+            lineNumbers = new long[capacity];
+        }
+    }
+
+    /**
+     * The expenses parsed from one batch, as plain fields, and the records that were skipped.
+     */
+    private static final class Batch {
+        private final long[] amounts;
+        private final long[] epochMinutes;
+        private final int[] descriptionIds;
+        private final String[] categories;
+        private final ArrayList<String> examples = new ArrayList<>();
+        private int count;
+        private long skippedCount;
+
+        private Batch(int capacity) {
+            amounts = new long[capacity];
+            epochMinutes = new long[capacity];
+            descriptionIds = new int[capacity];
+            categories = new String[capacity];
+        }
+
+        private void add(long amountCents, long epochMinute, int descriptionId, String category) {
+            amounts[count] = amountCents;
+            epochMinutes[count] = epochMinute;
+            descriptionIds[count] = descriptionId;
+            categories[count] = category;
+            count++;
+        }
+
+        private void skipped(long lineNumber, String reason) {
+            skippedCount++;
+            if (examples.size() < MAX_EXAMPLES) {
+                examples.add("line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+
+    /**
+     * Adds parsed batches to the manager in file order.
+     */
+    private static final class Merge {
+        private final BudgetManager manager;
+        private final Result result = new Result();
+
+        private Merge(BudgetManager manager) {
+            this.manager = manager;
+        }
+
+        private void add(Batch batch) {
+            result.skippedCount += batch.skippedCount;
+            for (String example : batch.examples) {
+                if (result.examples.size() < MAX_EXAMPLES) {
+                    result.examples.add(example);
+                }
+            }
+            // Expense IDs are handed out here, so they follow the order of the file.
+            LinkedHashMap<String, ArrayList<Expense>> expensesByCategory = new LinkedHashMap<>();
+            for (int i = 0; i < batch.count; i++) {
+                String category = batch.categories[i];
+                if (!category.isEmpty() && !manager.categoryExists(category)
+                        && result.unknownCategories.size() < MAX_EXAMPLES) {
+                    result.unknownCategories.add(category);
+                }
+                expensesByCategory.computeIfAbsent(category, key -> new ArrayList<>())
+                        .add(Expense.ofCents(batch.amounts[i], batch.descriptionIds[i],
+                                TimestampCodec.fromEpochMinute(batch.epochMinutes[i])));
+                result.totalCents += batch.amounts[i];
+            }
+            manager.addExpenses(expensesByCategory);
+            result.importedCount += batch.count;
+        }
+    }
+}
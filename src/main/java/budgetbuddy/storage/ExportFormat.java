@@ -0,0 +1,35 @@
+package budgetbuddy.storage;
+
+/**
+ * The file formats expenses can be exported to by the {@link ExpenseExporter}.
+ */
+public enum ExportFormat {
+    /**
+     * Comma-separated values with a header row, quoted as in RFC 4180 where needed.
+     */
+    CSV,
+    /**
+     * Newline-delimited JSON: one JSON object per expense and line, also known as JSON Lines.
+     */
+    NDJSON;
+
+    /**
+     * Returns the format a file name suggests by its extension: {@code .csv} for {@link #CSV}, and
+     * {@code .ndjson}, {@code .jsonl} or {@code .json} for {@link #NDJSON}.
+     *
+     * @param fileName The name of the file to export to.
+     * @return The format.
+     * @throws IllegalArgumentException If the extension is not one of these.
+     */
+    public static ExportFormat ofFileName(String fileName) {
+        String name = fileName.trim().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown export format for '" + fileName
+                + "'. Use a .csv, .ndjson or .jsonl file.");
+    }
+}
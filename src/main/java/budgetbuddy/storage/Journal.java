@@ -0,0 +1,602 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.BudgetChangeListener;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.parser.DateTimeParser;
+import budgetbuddy.parser.TimestampCodec;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the changes made to a {@link BudgetManager} since its last snapshot.
+ * <p>
+ * Each change is written as one short line the moment it is made, so a command costs a single append
+ * however much data there is, and nothing is lost if the program stops without saving. Records carry
+ * increasing sequence numbers, and a snapshot remembers the last one it includes, so replaying the
+ * journal over a snapshot applies exactly the changes the snapshot lacks. Once the journal holds
+ * {@link #COMPACTION_THRESHOLD} records, or as many records as the last snapshot has expenses if that is more,
+ * a fresh snapshot is written and the journal starts over. Since every snapshot rewrites the loaded expenses,
+ * letting the journal grow with them keeps bulk changes such as imports from rewriting a large snapshot every
+ * few thousand records, while replaying the journal never takes longer than loading the snapshot.
+ * </p>
+ * <p>
+ * Each line starts with the CRC32C of the rest of the line, as 8 hex digits and a space. A record that fails
+ * its checksum is skipped when the journal is replayed; if no valid record follows it, it is the remains of an
+ * interrupted write, and the journal is cut off before it. Lines without a checksum, written by earlier
+ * versions, are still replayed.
+ * </p>
+ * <p>
+ * Records are collected in memory and reach the file on {@link #flush()}, which may be called from another
+ * thread, such as an {@link AutoSaver}, so that a burst of commands costs one disk write. Everything else,
+ * compaction included, runs on the thread that changes the manager. Under {@link Durability#BATCH} and
+ * {@link Durability#STRICT}, every flush also forces the file to disk, and under {@link Durability#STRICT}
+ * {@link #commit()} flushes at the end of every command.
+ * </p>
+ * <p>
+ * Several processes may journal the changes of the same data file at once, ordered by its {@link DataLock}.
+ * Each appends its records under the exclusive lock and picks up the records of the others with
+ * {@link #applyExternalChanges()}. Their sequence numbers may then interleave, so replaying applies every
+ * record past the snapshot in file order. Only a process that has the data file to itself compacts; the
+ * others leave the journal to grow until then.
+ * </p>
+ */
+public class Journal implements BudgetChangeListener, Closeable {
+    /** The least number of records after which the journal is folded into a new snapshot. */
+    public static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final int CHECKSUM_LENGTH = 8;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Partitions partitions;
+    private final Durability durability;
+    private final File journalFile;
+    private final DataLock dataLock;
+    // Guards the file and the fields below that track it. Taken before pendingLock and the data lock.
+    private final Object fileLock = new Object();
+    // Length of the journal file up to which every record has been written or applied by this journal.
+    private long knownLength;
+    // Start and end of the runs of records this journal wrote past knownLength, after records of others.
+    private final ArrayDeque<long[]> ownRuns = new ArrayDeque<>();
+    // Guards pending records and the generation counters.
+    private final Object pendingLock = new Object();
+    private final StringBuilder pending = new StringBuilder();
+    // Reused by the changing thread to build the fields of a record, and the record itself.
+    private final StringBuilder record = new StringBuilder();
+    private final StringBuilder line = new StringBuilder();
+    private final CRC32C checksum = new CRC32C();
+    private FileOutputStream fileStream;
+    private long lastSequence;
+    private int recordCount;
+    private int compactionThreshold = COMPACTION_THRESHOLD;
+    // Number of records appended, and how many of them have reached the file.
+    private long generation;
+    private long savedGeneration;
+
+    /**
+     * Starts journaling the changes of a manager that already holds the snapshot and the replayed journal.
+     * A journal that still has records is compacted straight away, so appending always starts on a clean file,
+     * unless another process has the data open. The caller holds the data lock exclusively and has started a
+     * session on it, which {@link #close()} ends.
+     *
+     * @param partitions   The partitions of the snapshot file, which know the manager whose changes are
+     *                     recorded.
+     * @param lastSequence The sequence number of the last change the manager holds.
+     * @param durability   How far flushed records are pushed towards the disk.
+     */
+    Journal(Partitions partitions, long lastSequence, Durability durability) {
+        this.partitions = partitions;
+        this.durability = durability;
+        this.journalFile = new File(pathOf(partitions.getDataPath()));
+        this.dataLock = DataLock.of(partitions.getDataPath());
+        this.lastSequence = lastSequence;
+        knownLength = journalFile.length();
+        if (knownLength > 0) {
+            compact();
+        }
+        if (fileStream == null) {
+            openWriter(true);
+        }
+    }
+
+    /**
+     * Returns the path of the journal kept next to a snapshot file.
+     */
+    static String pathOf(String dataPath) {
+        return dataPath + ".journal";
+    }
+
+    /**
+     * Applies the journaled changes newer than a snapshot to a manager, without any user-facing output.
+     * Records that fail their checksum or cannot be read are skipped and reported; if they end the journal,
+     * they are cut off, as a crash in the middle of a write leaves them.
+     *
+     * @param manager          The manager holding the snapshot.
+     * @param dataPath         The path of the snapshot file.
+     * @param snapshotSequence The sequence number of the last change the snapshot includes.
+     * @param report           Where to report records that were skipped or cut off.
+     * @return The sequence number of the last change the manager now holds.
+     */
+    static long replay(BudgetManager manager, String dataPath, long snapshotSequence, RecoveryReport report) {
+        File file = new File(pathOf(dataPath));
+        long sequence = snapshotSequence;
+        if (!file.exists()) {
+            return sequence;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Read onto the heap rather than mapped, since a mapped file cannot be truncated on every platform.
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Keep reading until the buffer is full.
+            }
+            bytes.flip();
+            CRC32C checksum = new CRC32C();
+            byte[] lineBytes = new byte[256];
+            int size = bytes.limit();
+            int lineStart = 0;
+            int lineNumber = 0;
+            // Where the run of bad records since the last good one starts, and what is wrong with each.
+            int badRunStart = -1;
+            ArrayList<String> badRunLocations = new ArrayList<>();
+            ArrayList<String> badRunReasons = new ArrayList<>();
+            while (lineStart < size) {
+                int lineEnd = lineStart;
+                while (lineEnd < size && bytes.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && bytes.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                int length = contentEnd - lineStart;
+                if (lineBytes.length < length) {
+                    lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+                }
+                bytes.get(lineStart, lineBytes, 0, length);
+                lineNumber++;
+
+                String problem = null;
+                try {
+                    sequence = Math.max(sequence, applyRecord(manager, lineBytes, length, checksum,
+                            snapshotSequence));
+                } catch (Exception e) {
+                    problem = String.valueOf(e.getMessage());
+                }
+
+                if (problem == null) {
+                    // Bad records followed by a good one are damage, not an interrupted write.
+                    for (int i = 0; i < badRunLocations.size(); i++) {
+                        report.skipped(badRunLocations.get(i), badRunReasons.get(i));
+                    }
+                    badRunLocations.clear();
+                    badRunReasons.clear();
+                } else {
+                    if (badRunLocations.isEmpty()) {
+                        badRunStart = lineStart;
+                    }
+                    badRunLocations.add(file.getName() + " line " + lineNumber);
+                    badRunReasons.add(problem);
+                }
+                lineStart = lineEnd + 1;
+            }
+            if (!badRunLocations.isEmpty()) {
+                channel.truncate(badRunStart);
+                report.truncated(file.getName(), size - badRunStart);
+            }
+        } catch (IOException e) {
+            report.failed("Error reading budget journal: " + e.getMessage());
+        }
+        return sequence;
+    }
+
+    /**
+     * Applies one journal line to a manager if its sequence number is past the given one.
+     *
+     * @return The sequence number of the record.
+     * @throws IllegalArgumentException If the line fails its checksum; other exceptions if it cannot be read.
+     */
+    private static long applyRecord(BudgetManager manager, byte[] line, int length, CRC32C checksum,
+            long afterSequence) {
+        int recordStart = checkedRecordStart(line, length, checksum);
+        if (recordStart < 0) {
+            throw new IllegalArgumentException("checksum mismatch");
+        }
+        String text = new String(line, recordStart, length - recordStart, StandardCharsets.UTF_8);
+        int typeEnd = text.indexOf(':');
+        String[] fields = text.substring(typeEnd + 1).split("\\|", -1);
+        long recordSequence = Long.parseLong(fields[0]);
+        if (recordSequence > afterSequence) {
+            apply(manager, text.substring(0, typeEnd), fields);
+        }
+        return recordSequence;
+    }
+
+    // Applies the records in a range of the journal file that other processes wrote. A record that cannot be
+    // read is reported and skipped, as another process is never in the middle of writing one.
+    private int applyRecords(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+        while (bytes.hasRemaining() && channel.read(bytes, from + bytes.position()) >= 0) {
+            // Keep reading until the buffer is full.
+        }
+        byte[] data = bytes.array();
+        int size = bytes.position();
+        CRC32C lineChecksum = new CRC32C();
+        // The records hold IDs from the ranges other processes claimed, which must not move this one's.
+        long nextExpenseId = Expense.reserveIdsFrom(0);
+        long nextRuleId = RecurringRule.reserveIdsFrom(0);
+        int count = 0;
+        int lineStart = 0;
+        while (lineStart < size) {
+            int lineEnd = lineStart;
+            while (lineEnd < size && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (contentEnd > lineStart) {
+                byte[] line = Arrays.copyOfRange(data, lineStart, contentEnd);
+                try {
+                    long sequence = applyRecord(partitions.getManager(), line, line.length, lineChecksum, 0);
+                    lastSequence = Math.max(lastSequence, sequence);
+                    count++;
+                } catch (Exception e) {
+                    System.out.println("Error reading a change saved by another BudgetBuddy: " + e.getMessage());
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        Expense.resumeIdsAt(nextExpenseId);
+        RecurringRule.resumeIdsAt(nextRuleId);
+        return count;
+    }
+
+    /**
+     * Verifies the checksum at the start of a line.
+     *
+     * @return The index at which the record follows the checksum, 0 for a line written without a checksum,
+     *     or -1 if the checksum does not match.
+     */
+    private static int checkedRecordStart(byte[] line, int length, CRC32C checksum) {
+        if (length <= CHECKSUM_LENGTH || line[CHECKSUM_LENGTH] != ' ') {
+            return 0;
+        }
+        long expected = 0;
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            int digit = Character.digit(line[i], 16);
+            if (digit < 0) {
+                return 0;
+            }
+            expected = expected << 4 | digit;
+        }
+        checksum.reset();
+        checksum.update(line, CHECKSUM_LENGTH + 1, length - CHECKSUM_LENGTH - 1);
+        return checksum.getValue() == expected ? CHECKSUM_LENGTH + 1 : -1;
+    }
+
+    /**
+     * Writes a new snapshot holding every change so far and empties the journal.
+     * If the snapshot cannot be written, the journal is kept and appending continues. While another process
+     * has the data open, the records are only flushed, and compaction waits for another
+     * {@link #COMPACTION_THRESHOLD} records.
+     */
+    public void compact() {
+        synchronized (fileLock) {
+            if (!dataLock.tryLockAlone(true)) {
+                flush();
+                compactionThreshold = recordCount + COMPACTION_THRESHOLD;
+                return;
+            }
+            try {
+                // Records left by processes that have since ended belong in the snapshot too.
+                applyExternalChanges();
+                if (!StorageManager.writeSnapshot(partitions, lastSequence)) {
+                    return;
+                }
+                synchronized (pendingLock) {
+                    // The snapshot holds the pending records too.
+                    pending.setLength(0);
+                    savedGeneration = generation;
+                }
+                closeWriter();
+                openWriter(false);
+                knownLength = 0;
+                ownRuns.clear();
+            } finally {
+                dataLock.unlockAlone();
+            }
+        }
+        recordCount = 0;
+        compactionThreshold = Math.max(COMPACTION_THRESHOLD, partitions.loadedExpenseCount());
+    }
+
+    /**
+     * Applies the records other processes have appended to the journal since this journal last looked, without
+     * any user-facing output. Every expense is loaded first, as the records may touch any of them. Must be
+     * called on the thread that changes the manager.
+     *
+     * @return The number of records applied.
+     */
+    public int applyExternalChanges() {
+        synchronized (fileLock) {
+            dataLock.lockShared();
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size <= knownLength) {
+                    return 0;
+                }
+                partitions.loadExpensesFrom(null);
+                int count = 0;
+                while (knownLength < size) {
+                    long[] ownRun = ownRuns.poll();
+                    count += applyRecords(channel, knownLength, ownRun == null ? size : ownRun[0]);
+                    knownLength = ownRun == null ? size : ownRun[1];
+                }
+                return count;
+            } catch (IOException e) {
+                System.out.println("Error reading budget journal: " + e.getMessage());
+                return 0;
+            } finally {
+                dataLock.unlockShared();
+            }
+        }
+    }
+
+    /**
+     * Writes the records collected since the last flush to the journal file.
+     * Safe to call from any thread; records appended meanwhile are not held up.
+     */
+    public void flush() {
+        synchronized (fileLock) {
+            String records;
+            long flushedGeneration;
+            synchronized (pendingLock) {
+                records = pending.toString();
+                pending.setLength(0);
+                flushedGeneration = generation;
+            }
+            if (fileStream == null || records.isEmpty()) {
+                return;
+            }
+            byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+            dataLock.lockExclusive();
+            try {
+                long start = fileStream.getChannel().size();
+                fileStream.write(bytes);
+                if (durability != Durability.NONE) {
+                    fileStream.getFD().sync();
+                }
+                if (start == knownLength && ownRuns.isEmpty()) {
+                    knownLength = start + bytes.length;
+                } else {
+                    ownRuns.add(new long[] {start, start + bytes.length});
+                }
+            } catch (IOException e) {
+                System.out.println("Error writing budget journal: " + e.getMessage());
+                return;
+            } finally {
+                dataLock.unlockExclusive();
+            }
+            synchronized (pendingLock) {
+                savedGeneration = flushedGeneration;
+            }
+        }
+    }
+
+    /**
+     * Ends a user command. Under {@link Durability#STRICT}, the records of the command are flushed and forced
+     * to disk before this returns; otherwise they are left to the {@link AutoSaver}.
+     */
+    public void commit() {
+        if (durability == Durability.STRICT && getGeneration() != getSavedGeneration()) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the number of records appended so far. It grows by one with every change to the manager.
+     */
+    public long getGeneration() {
+        synchronized (pendingLock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Returns the number of appended records that have reached the file or a snapshot.
+     */
+    public long getSavedGeneration() {
+        synchronized (pendingLock) {
+            return savedGeneration;
+        }
+    }
+
+    /**
+     * Returns the partitions of the data file the journal belongs to.
+     */
+    Partitions getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Waits until a record is appended after the given generation, or until the timeout passes.
+     *
+     * @param seenGeneration The generation the caller has already seen.
+     * @param timeoutMillis  The longest time to wait, or 0 to wait without limit.
+     * @return {@code true} if the generation has moved past {@code seenGeneration}.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean awaitChange(long seenGeneration, long timeoutMillis) throws InterruptedException {
+        synchronized (pendingLock) {
+            if (generation == seenGeneration) {
+                pendingLock.wait(timeoutMillis);
+            }
+            return generation != seenGeneration;
+        }
+    }
+
+    @Override
+    public void close() {
+        partitions.stopPreload();
+        flush();
+        synchronized (fileLock) {
+            closeWriter();
+        }
+        dataLock.endSession();
+    }
+
+    @Override
+    public void budgetSet(String category, long limitCents) {
+        append("BUDGET", clean(category) + "|" + Money.format(limitCents));
+    }
+
+    @Override
+    public void budgetRenamed(String oldName, String newName) {
+        append("RENAME", clean(oldName) + "|" + clean(newName));
+    }
+
+    @Override
+    public void expenseAdded(String category, Expense expense) {
+        record.setLength(0);
+        record.append(clean(category)).append('|').append(expense.getId()).append('|');
+        appendExpenseFields(expense);
+        append("EXPENSE", record);
+    }
+
+    @Override
+    public void expenseEdited(Expense expense) {
+        record.setLength(0);
+        record.append(expense.getId()).append('|');
+        appendExpenseFields(expense);
+        append("EDIT", record);
+    }
+
+    @Override
+    public void expenseDeleted(long id) {
+        append("DELETE", Long.toString(id));
+    }
+
+    @Override
+    public void recurringRuleAdded(String category, RecurringRule rule) {
+        record.setLength(0);
+        record.append(clean(category)).append('|').append(rule.getId()).append('|')
+                .append(Money.format(rule.getAmountCents())).append('|')
+                .append(clean(rule.getDescription())).append('|');
+        TimestampCodec.appendNumeric(record, TimestampCodec.toEpochMinute(rule.getStart()));
+        record.append('|').append(rule.getIntervalDays()).append('|').append(rule.getOccurrenceCount());
+        append("RECURRING", record);
+    }
+
+    @Override
+    public void recurringRuleDeleted(long id) {
+        append("DELETE-RECURRING", Long.toString(id));
+    }
+
+    @Override
+    public void alertSet(long alertCents) {
+        append("ALERT", Money.format(alertCents));
+    }
+
+    private void append(String type, CharSequence fields) {
+        lastSequence++;
+        line.setLength(0);
+        line.append(type).append(':').append(lastSequence).append('|').append(fields);
+        checksum.reset();
+        checksum.update(line.toString().getBytes(StandardCharsets.UTF_8));
+        long value = checksum.getValue();
+        synchronized (pendingLock) {
+            for (int shift = (CHECKSUM_LENGTH - 1) * 4; shift >= 0; shift -= 4) {
+                pending.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+            }
+            pending.append(' ').append(line).append(System.lineSeparator());
+            generation++;
+            pendingLock.notifyAll();
+        }
+        recordCount++;
+        if (recordCount >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    private static void apply(BudgetManager manager, String type, String[] fields) {
+        switch (type) {
+        case "BUDGET" -> manager.restoreBudget(fields[1], Money.parseCents(fields[2]));
+        case "RENAME" -> manager.restoreBudgetRename(fields[1], fields[2]);
+        case "EXPENSE" -> {
+            // The expense is stored once under Overall; restoring it under its category only tags it.
+            Expense expense = readExpense(fields, 2);
+            manager.restoreExpense("Overall", expense);
+            if (!fields[1].equals("Overall")) {
+                manager.restoreExpense(fields[1], expense);
+            }
+        }
+        case "EDIT" -> manager.restoreExpenseEdit(readExpense(fields, 1));
+        case "DELETE" -> manager.restoreExpenseDeletion(Long.parseLong(fields[1]));
+        case "RECURRING" -> {
+            RecurringRule rule = new RecurringRule(Long.parseLong(fields[2]), Money.parseCents(fields[3]),
+                    fields[4], readTime(fields[5]),
+                    Integer.parseInt(fields[6]), Integer.parseInt(fields[7]));
+            manager.restoreRecurringRule("Overall", rule);
+            if (!fields[1].equals("Overall")) {
+                manager.restoreRecurringRule(fields[1], rule);
+            }
+        }
+        case "DELETE-RECURRING" -> manager.restoreRecurringRuleDeletion(Long.parseLong(fields[1]));
+        case "ALERT" -> manager.restoreBudgetAlert(Money.parseCents(fields[1]));
+        default -> throw new IllegalArgumentException("Unknown record type");
+        }
+    }
+
+    // Reads id|amount|description|time starting at the given field.
+    private static Expense readExpense(String[] fields, int start) {
+        return new Expense(Long.parseLong(fields[start]), Money.parseCents(fields[start + 1]), fields[start + 2],
+                readTime(fields[start + 3]));
+    }
+
+    private void appendExpenseFields(Expense expense) {
+        record.append(Money.format(expense.getAmountCents())).append('|')
+                .append(clean(expense.getDescription())).append('|');
+        TimestampCodec.appendNumeric(record, TimestampCodec.toEpochMinute(expense.getDateTime()));
+    }
+
+    // Times are written as epoch minutes; journals of earlier versions hold them in text form.
+    private static LocalDateTime readTime(String field) {
+        LocalDateTime dateTime = TimestampCodec.parseDateTime(field, 0, field.length());
+        return dateTime != null ? dateTime : DateTimeParser.parseOrDefault(field, true);
+    }
+
+    private static String clean(String text) {
+        return text.replace("|", " ");
+    }
+
+    private void openWriter(boolean isAppending) {
+        try {
+            fileStream = new FileOutputStream(journalFile, isAppending);
+        } catch (IOException e) {
+            System.out.println("Error opening budget journal: " + e.getMessage());
+            fileStream = null;
+        }
+    }
+
+    private void closeWriter() {
+        if (fileStream == null) {
+            return;
+        }
+        try {
+            fileStream.close();
+        } catch (IOException e) {
+            System.out.println("Error closing budget journal: " + e.getMessage());
+        }
+        fileStream = null;
+    }
+}
@@ -0,0 +1,95 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.BudgetManager;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the data in a {@link BinarySnapshot} data file with its {@link Partitions}, and appends changes to a
+ * {@link Journal} that an {@link AutoSaver} saves in the background.
+ * <p>
+ * Commands never wait for a snapshot to be written: the journal is folded into a new snapshot once it is as
+ * long as the last one, and at least every {@link Journal#COMPACTION_THRESHOLD} changes, on {@link #save()}
+ * and on {@link #close()}.
+ * </p>
+ * <p>
+ * Under {@link StartupMode#PROGRESSIVE}, the expenses of older months are read in the background after
+ * {@link #load(BudgetManager)} and moved into the manager at each {@link #commit()}.
+ * </p>
+ * <p>
+ * Other processes may use the same data file meanwhile, such as a scheduled import. {@link #refresh()} applies
+ * the changes they journal before each command, once a {@link JournalWatcher} has seen the journal change.
+ * </p>
+ */
+public class JournalBackend implements StorageBackend {
+    private final String dataPath;
+    private Journal journal;
+    private AutoSaver autoSaver;
+    private JournalWatcher watcher;
+
+    /**
+     * Creates a backend for the default data file, which is first converted from the text file of an earlier
+     * version if there is one.
+     */
+    public JournalBackend() {
+        this(null);
+    }
+
+    /**
+     * Creates a backend for the data file at the given path.
+     *
+     * @param dataPath The path of the data file, or {@code null} for the default data file.
+     */
+    public JournalBackend(String dataPath) {
+        this.dataPath = dataPath;
+    }
+
+    @Override
+    public void load(BudgetManager manager) {
+        assert journal == null : "A backend should only be loaded once.";
+        journal = dataPath == null
+                ? StorageManager.openJournal(manager)
+                : StorageManager.openJournal(manager, dataPath);
+        autoSaver = new AutoSaver(journal);
+        watcher = new JournalWatcher(Journal.pathOf(journal.getPartitions().getDataPath()));
+    }
+
+    @Override
+    public void refresh() {
+        if (!watcher.takeChange()) {
+            return;
+        }
+        int count = journal.applyExternalChanges();
+        if (count > 0) {
+            System.out.println("Loaded " + count + " change(s) saved by another BudgetBuddy.");
+        }
+    }
+
+    @Override
+    public void commit() {
+        journal.commit();
+        journal.getPartitions().restorePreloaded();
+    }
+
+    @Override
+    public CompletableFuture<Void> whenLoaded() {
+        return journal.getPartitions().whenPreloaded();
+    }
+
+    @Override
+    public void save() {
+        journal.compact();
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        watcher.close();
+        autoSaver.close();
+        journal.compact();
+        journal.close();
+        journal = null;
+    }
+}
@@ -0,0 +1,98 @@
+package budgetbuddy.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches a journal file through a {@link WatchService}, so that a {@link JournalBackend} only looks for records
+ * of other processes once the file has changed, rather than before every command.
+ * <p>
+ * The watch runs on a background thread that only raises a flag; the records themselves are applied on the
+ * thread that runs the commands. Changes made by this process raise the flag too, and are then found to hold
+ * no record of another. Where the file system offers no watch service, every check reports a change.
+ * </p>
+ */
+final class JournalWatcher implements Closeable {
+    private final Path fileName;
+    private final WatchService service;
+    private final Thread thread;
+    // Starts raised, since the file may have changed before the watch began.
+    private volatile boolean isChanged = true;
+
+    /**
+     * Starts watching the journal file at the given path.
+     *
+     * @param journalPath The path of the journal file, which need not exist yet.
+     */
+    JournalWatcher(String journalPath) {
+        Path path = new File(journalPath).getAbsoluteFile().toPath();
+        fileName = path.getFileName();
+        WatchService watchService;
+        try {
+            watchService = path.getFileSystem().newWatchService();
+            path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            watchService = null;
+        }
+        service = watchService;
+        if (service == null) {
+            thread = null;
+            return;
+        }
+        thread = new Thread(this::run, "budgetbuddy-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the journal file may have changed since the last call, and lowers the flag. The caller
+     * reads the file after this returns, so a change made meanwhile is either read or raises the flag again.
+     */
+    boolean takeChange() {
+        if (service == null) {
+            return true;
+        }
+        boolean wasChanged = isChanged;
+        isChanged = false;
+        return wasChanged;
+    }
+
+    @Override
+    public void close() {
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+            thread.join();
+        } catch (IOException e) {
+            System.out.println("Error closing budget journal watch: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        isChanged = true;
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed with the backend.
+        }
+    }
+}
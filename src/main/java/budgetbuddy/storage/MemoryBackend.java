@@ -0,0 +1,126 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.BudgetChangeListener;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the changes of a manager in memory only, for tests and benchmarks that should not touch the disk.
+ * <p>
+ * Every change is kept as a step that restores it, and loading another manager from the same backend replays
+ * every step kept so far, so data survives closing one manager and loading the next within one run. Nothing
+ * survives the end of the program.
+ * </p>
+ */
+public class MemoryBackend implements StorageBackend {
+    private final ArrayList<Consumer<BudgetManager>> changes = new ArrayList<>();
+    private BudgetManager manager;
+
+    @Override
+    public void load(BudgetManager manager) {
+        assert this.manager == null : "A memory backend should be closed before it is loaded again.";
+        for (Consumer<BudgetManager> change : changes) {
+            change.accept(manager);
+        }
+        this.manager = manager;
+        manager.setChangeListener(new Recorder());
+    }
+
+    @Override
+    public void commit() {
+        // Changes are kept as they are made.
+    }
+
+    @Override
+    public void save() {
+        // Changes are kept as they are made.
+    }
+
+    @Override
+    public void close() {
+        if (manager == null) {
+            return;
+        }
+        manager.setChangeListener(new BudgetChangeListener() {
+        });
+        manager = null;
+    }
+
+    /**
+     * Returns the number of changes kept.
+     */
+    public int getChangeCount() {
+        return changes.size();
+    }
+
+    /**
+     * Keeps each change as a step restoring it. Expenses are mutable, so their values are copied when the
+     * change is made, and each replay restores a new expense.
+     */
+    private class Recorder implements BudgetChangeListener {
+        @Override
+        public void budgetSet(String category, long limitCents) {
+            changes.add(target -> target.restoreBudget(category, limitCents));
+        }
+
+        @Override
+        public void budgetRenamed(String oldName, String newName) {
+            changes.add(target -> target.restoreBudgetRename(oldName, newName));
+        }
+
+        @Override
+        public void expenseAdded(String category, Expense expense) {
+            long id = expense.getId();
+            long amountCents = expense.getAmountCents();
+            String description = expense.getDescription();
+            LocalDateTime dateTime = expense.getDateTime();
+            changes.add(target -> {
+                // The expense is stored once under Overall; restoring it under its category only tags it.
+                Expense restored = new Expense(id, amountCents, description, dateTime);
+                target.restoreExpense("Overall", restored);
+                if (!category.equals("Overall")) {
+                    target.restoreExpense(category, restored);
+                }
+            });
+        }
+
+        @Override
+        public void expenseEdited(Expense expense) {
+            long id = expense.getId();
+            long amountCents = expense.getAmountCents();
+            String description = expense.getDescription();
+            LocalDateTime dateTime = expense.getDateTime();
+            changes.add(target -> target.restoreExpenseEdit(new Expense(id, amountCents, description, dateTime)));
+        }
+
+        @Override
+        public void expenseDeleted(long id) {
+            changes.add(target -> target.restoreExpenseDeletion(id));
+        }
+
+        @Override
+        public void recurringRuleAdded(String category, RecurringRule rule) {
+            changes.add(target -> {
+                target.restoreRecurringRule("Overall", rule);
+                if (!category.equals("Overall")) {
+                    target.restoreRecurringRule(category, rule);
+                }
+            });
+        }
+
+        @Override
+        public void recurringRuleDeleted(long id) {
+            changes.add(target -> target.restoreRecurringRuleDeletion(id));
+        }
+
+        @Override
+        public void alertSet(long alertCents) {
+            changes.add(target -> target.restoreBudgetAlert(alertCents));
+        }
+    }
+}
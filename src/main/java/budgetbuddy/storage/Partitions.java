@@ -0,0 +1,445 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.ExpenseLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the older expenses of a data file in one partition file per month, next to the data file.
+ * <p>
+ * Only the expenses of the last {@link #HOT_MONTHS} months are written into the data file itself. The data
+ * file also holds the manifest of the partitions: for each month, the file version, the expense count, a
+ * fingerprint of the expenses and their total per category. Loading the data file only reads the manifest,
+ * whose totals keep budget totals, alerts and limits exact, so startup time and memory do not grow with the
+ * length of the history. A partition is loaded the first time the {@link BudgetManager} asks for its month,
+ * together with every later month, so that the loaded expenses are always the most recent ones.
+ * </p>
+ * <p>
+ * When a snapshot is written, a loaded partition whose expenses have not changed keeps its file. A changed
+ * one is written to a file with the next version number, which the new data file then lists; files no longer
+ * listed are only deleted once the new data file is in place, so a crash leaves the old data file with the
+ * files it lists.
+ * </p>
+ * <p>
+ * Under {@link StartupMode#PROGRESSIVE}, {@link #startPreload()} reads the partitions on a background thread,
+ * newest month first. That thread only decodes files; the expenses it reads are restored into the manager on
+ * the thread that runs the commands, between commands or when a command asks for their month.
+ * </p>
+ */
+final class Partitions implements ExpenseLoader {
+    /** The number of months, the current one included, whose expenses are written into the data file. */
+    static final int HOT_MONTHS = 2;
+
+    // How long restoring preloaded partitions may hold up the prompt after a command, give or take a partition.
+    private static final long RESTORE_MILLIS_PER_COMMAND = 50;
+
+    private static final Pattern FILE_SUFFIX = Pattern.compile("\\.(\\d{4})-(\\d{2})\\.(\\d+)");
+
+    private final BudgetManager manager;
+    private final String dataPath;
+    // Partitions of months that are not loaded, by month.
+    private final TreeMap<Integer, Partition> unloaded = new TreeMap<>();
+    // Partitions of loaded months, as last read or written, by month.
+    private final TreeMap<Integer, Partition> loaded = new TreeMap<>();
+    // Reads of unloaded partitions by the preload thread, by month; empty unless preloading.
+    private final Map<Integer, CompletableFuture<BinarySnapshot.DecodedPartition>> preloads = new HashMap<>();
+    private CompletableFuture<Void> preloaded = CompletableFuture.completedFuture(null);
+    private Thread preloadThread;
+    private volatile boolean isPreloading;
+    // Cleared when a damaged data file could not be set aside, so that no snapshot replaces it.
+    private boolean isWritable = true;
+
+    /**
+     * Creates the partitions of a data file, with none known until the data file is read.
+     *
+     * @param manager  The manager the data file is loaded into.
+     * @param dataPath The path of the data file.
+     */
+    Partitions(BudgetManager manager, String dataPath) {
+        this.manager = manager;
+        this.dataPath = dataPath;
+    }
+
+    BudgetManager getManager() {
+        return manager;
+    }
+
+    String getDataPath() {
+        return dataPath;
+    }
+
+    /**
+     * Returns whether a new data file may be written over the files of this one.
+     */
+    boolean isWritable() {
+        return isWritable;
+    }
+
+    /**
+     * Renames the data file and its partition files to follow another data path, so that a new data file written
+     * in its place neither replaces nor deletes them. Should any file stay behind, nothing is written over it.
+     *
+     * @param newDataPath The path to move the data file to.
+     * @return {@code false} if a file could not be renamed.
+     */
+    boolean moveFilesTo(String newDataPath) {
+        File dataFile = new File(dataPath);
+        isWritable = dataFile.renameTo(new File(newDataPath));
+        String prefix = dataFile.getName();
+        File[] files = dataFile.getAbsoluteFile().getParentFile().listFiles();
+        if (files == null) {
+            isWritable = false;
+            return false;
+        }
+        for (File file : files) {
+            if (isWritable && matchFile(prefix, file) != null) {
+                isWritable = file.renameTo(new File(newDataPath + file.getName().substring(prefix.length())));
+            }
+        }
+        return isWritable;
+    }
+
+    /**
+     * Returns whether some partitions have not been loaded.
+     */
+    boolean hasUnloaded() {
+        return !unloaded.isEmpty();
+    }
+
+    /**
+     * Records a partition listed in the data file, counting its totals towards the manager's budgets.
+     */
+    void addUnloaded(Partition partition) {
+        unloaded.put(partition.month, partition);
+        for (int i = 0; i < partition.categories.length; i++) {
+            manager.restoreUnloadedTotal(partition.categories[i], partition.totals[i]);
+        }
+    }
+
+    @Override
+    public void loadExpensesFrom(LocalDateTime from) {
+        int firstMonth = from == null ? Integer.MIN_VALUE : monthOf(from);
+        Iterator<Partition> iterator = unloaded.tailMap(firstMonth, true).values().iterator();
+        boolean isWaitingNoted = false;
+        while (iterator.hasNext()) {
+            Partition partition = iterator.next();
+            CompletableFuture<BinarySnapshot.DecodedPartition> preload = preloads.remove(partition.month);
+            if (preload != null && !preload.isDone() && !isWaitingNoted) {
+                System.out.println("Still reading older expenses, one moment...");
+                isWaitingNoted = true;
+            }
+            try {
+                readPreloaded(partition, preload).restoreInto(manager);
+            } catch (IOException e) {
+                // Its expenses keep counting through the manifest totals, and its file is kept.
+                System.out.println("Error reading budget data: " + e.getMessage());
+                continue;
+            }
+            iterator.remove();
+            markLoaded(partition);
+        }
+    }
+
+    /**
+     * Starts reading every unloaded partition on a background thread, newest month first, so that commands
+     * are accepted while the history is read. Each partition read is restored by
+     * {@link #restorePreloaded()} or by the first command that asks for its month.
+     */
+    void startPreload() {
+        assert preloadThread == null : "Partitions should only be preloaded once.";
+        List<File> files = new ArrayList<>();
+        List<CompletableFuture<BinarySnapshot.DecodedPartition>> reads = new ArrayList<>();
+        for (Partition partition : unloaded.descendingMap().values()) {
+            CompletableFuture<BinarySnapshot.DecodedPartition> read = new CompletableFuture<>();
+            preloads.put(partition.month, read);
+            files.add(fileOf(partition));
+            reads.add(read);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        preloaded = done;
+        isPreloading = true;
+        preloadThread = new Thread(() -> {
+            for (int i = 0; i < files.size() && isPreloading; i++) {
+                try {
+                    reads.get(i).complete(BinarySnapshot.decodePartition(files.get(i)));
+                } catch (IOException e) {
+                    reads.get(i).completeExceptionally(e);
+                }
+            }
+            done.complete(null);
+        }, "budgetbuddy-preload");
+        preloadThread.setDaemon(true);
+        preloadThread.start();
+    }
+
+    /**
+     * Returns a future that completes once the preload thread has read every partition, or straight away if
+     * there is no preload. The expenses read are in the manager after the next {@link #restorePreloaded()}.
+     */
+    CompletableFuture<Void> whenPreloaded() {
+        return preloaded;
+    }
+
+    /**
+     * Restores partitions the preload thread has read, newest month first, stopping at the first one not read
+     * yet so that the loaded months stay the most recent ones. Called between commands, each call restores
+     * partitions for a short while only, so that no single command pays for the whole history.
+     */
+    void restorePreloaded() {
+        long deadline = System.nanoTime() + RESTORE_MILLIS_PER_COMMAND * 1000000;
+        while (!preloads.isEmpty() && !unloaded.isEmpty() && System.nanoTime() - deadline < 0) {
+            Partition partition = unloaded.lastEntry().getValue();
+            CompletableFuture<BinarySnapshot.DecodedPartition> preload = preloads.get(partition.month);
+            if (preload == null || !preload.isDone() || preload.isCompletedExceptionally()) {
+                // A partition that failed to read is read again, with its error shown, when it is asked for.
+                return;
+            }
+            preloads.remove(partition.month);
+            preload.join().restoreInto(manager);
+            unloaded.remove(partition.month);
+            markLoaded(partition);
+        }
+    }
+
+    /**
+     * Stops the preload thread, leaving partitions it has not read to be read when first needed.
+     */
+    void stopPreload() {
+        if (preloadThread == null) {
+            return;
+        }
+        isPreloading = false;
+        try {
+            preloadThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        preloads.values().removeIf(preload -> !preload.isDone());
+    }
+
+    private BinarySnapshot.DecodedPartition readPreloaded(Partition partition,
+            CompletableFuture<BinarySnapshot.DecodedPartition> preload) throws IOException {
+        if (preload != null) {
+            try {
+                return preload.join();
+            } catch (CompletionException e) {
+                // Read again on this thread, which reports the error if it persists.
+            }
+        }
+        return BinarySnapshot.decodePartition(fileOf(partition));
+    }
+
+    // Moves the totals of a partition just removed from the unloaded ones from its manifest into its expenses.
+    private void markLoaded(Partition partition) {
+        for (int i = 0; i < partition.categories.length; i++) {
+            manager.restoreUnloadedTotal(partition.categories[i], -partition.totals[i]);
+        }
+        loaded.put(partition.month, partition);
+    }
+
+    /**
+     * Returns the number of expenses in the manager, leaving out those of partitions not loaded.
+     */
+    int loadedExpenseCount() {
+        return manager.getBudgets().get("Overall").getExpenseCount();
+    }
+
+    /**
+     * Writes a snapshot of the manager: the changed partitions of older months first, then the data file with
+     * the recent expenses and the manifest.
+     *
+     * @param file            The file to write the data file to.
+     * @param journalSequence The sequence number of the last journaled change the snapshot includes.
+     * @param isForced        Whether to force each partition file written to disk.
+     * @throws IOException If a file cannot be written.
+     */
+    void write(File file, long journalSequence, boolean isForced) throws IOException {
+        int firstHotMonth = monthOf(YearMonth.now().minusMonths(HOT_MONTHS - 1).atDay(1).atStartOfDay());
+        List<Expense> expenses = manager.getBudgets().get("Overall").getExpenses();
+        ArrayList<Expense> inDataFile = new ArrayList<>();
+        TreeMap<Integer, Partition> written = new TreeMap<>();
+        Map<Integer, Integer> latestVersions = null;
+
+        int start = 0;
+        while (start < expenses.size() && monthOf(expenses.get(start).getDateTime()) < firstHotMonth) {
+            int month = monthOf(expenses.get(start).getDateTime());
+            int end = start;
+            while (end < expenses.size() && monthOf(expenses.get(end).getDateTime()) == month) {
+                end++;
+            }
+            List<Expense> monthExpenses = expenses.subList(start, end);
+            start = end;
+            if (unloaded.containsKey(month)) {
+                // The month's partition could not be read; keep these apart from it.
+                inDataFile.addAll(monthExpenses);
+                continue;
+            }
+            Partition partition = describe(month, monthExpenses);
+            Partition previous = loaded.get(month);
+            if (previous != null && previous.fingerprint == partition.fingerprint
+                    && previous.expenseCount == partition.expenseCount) {
+                written.put(month, previous);
+                continue;
+            }
+            if (latestVersions == null) {
+                latestVersions = listFiles();
+            }
+            partition.version = latestVersions.getOrDefault(month, 0) + 1;
+            BinarySnapshot.writePartition(manager, fileOf(partition), monthExpenses);
+            if (isForced) {
+                StorageManager.forceToDisk(fileOf(partition));
+            }
+            written.put(month, partition);
+        }
+        inDataFile.addAll(expenses.subList(start, expenses.size()));
+
+        ArrayList<Partition> manifest = new ArrayList<>(unloaded.values());
+        manifest.addAll(written.values());
+        BinarySnapshot.write(manager, file, journalSequence, inDataFile, manifest);
+        loaded.clear();
+        loaded.putAll(written);
+    }
+
+    /**
+     * Deletes the partition files of the data file that the manifest does not list.
+     * Called once a new data file is in place.
+     */
+    void deleteUnlisted() {
+        File directory = new File(dataPath).getAbsoluteFile().getParentFile();
+        String prefix = new File(dataPath).getName();
+        File[] files = directory == null ? null : directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = matchFile(prefix, file);
+            if (matcher == null) {
+                continue;
+            }
+            int month = toMonth(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            Partition partition = unloaded.containsKey(month) ? unloaded.get(month) : loaded.get(month);
+            if (partition == null || !matcher.group(3).equals(Integer.toString(partition.version))) {
+                file.delete();
+            }
+        }
+    }
+
+    // Returns the highest version of any partition file of each month.
+    private Map<Integer, Integer> listFiles() {
+        HashMap<Integer, Integer> versions = new HashMap<>();
+        File directory = new File(dataPath).getAbsoluteFile().getParentFile();
+        String prefix = new File(dataPath).getName();
+        File[] files = directory == null ? null : directory.listFiles();
+        if (files == null) {
+            return versions;
+        }
+        for (File file : files) {
+            Matcher matcher = matchFile(prefix, file);
+            if (matcher != null) {
+                int month = toMonth(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                versions.merge(month, Integer.parseInt(matcher.group(3)), Math::max);
+            }
+        }
+        return versions;
+    }
+
+    private static Matcher matchFile(String prefix, File file) {
+        String name = file.getName();
+        if (!name.startsWith(prefix)) {
+            return null;
+        }
+        Matcher matcher = FILE_SUFFIX.matcher(name.substring(prefix.length()));
+        return matcher.matches() ? matcher : null;
+    }
+
+    private File fileOf(Partition partition) {
+        YearMonth month = YearMonth.of(Math.floorDiv(partition.month, 12), Math.floorMod(partition.month, 12) + 1);
+        return new File(dataPath + "." + month + "." + partition.version);
+    }
+
+    /**
+     * Describes the expenses of a month: their count, fingerprint and total per category.
+     */
+    private Partition describe(int month, List<Expense> expenses) {
+        Partition partition = new Partition(month);
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        for (Expense expense : expenses) {
+            Budget categoryBudget = manager.getCategoryBudgetOf(expense.getId());
+            String category = categoryBudget == null ? "Overall" : categoryBudget.getCategory();
+            totals.merge(category, expense.getAmountCents(), Long::sum);
+
+            long hash = mix(expense.getId());
+            hash = mix(hash ^ expense.getAmountCents());
+            hash = mix(hash ^ expense.getDateTime().toEpochSecond(ZoneOffset.UTC));
+            hash = mix(hash ^ hash(expense.getDescription()));
+            partition.fingerprint += mix(hash ^ hash(category));
+        }
+        partition.expenseCount = expenses.size();
+        partition.categories = totals.keySet().toArray(new String[0]);
+        partition.totals = new long[partition.categories.length];
+        for (int i = 0; i < partition.categories.length; i++) {
+            partition.totals[i] = totals.get(partition.categories[i]);
+        }
+        return partition;
+    }
+
+    private static int monthOf(LocalDateTime dateTime) {
+        return toMonth(dateTime.getYear(), dateTime.getMonthValue());
+    }
+
+    private static int toMonth(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    // 64-bit FNV-1a hash of a string.
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Finalizer of the SplitMix64 generator, so that every input bit affects every output bit.
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * A manifest entry: the expenses of one month, kept in one partition file.
+     */
+    static final class Partition {
+        final int month;
+        int version;
+        int expenseCount;
+        // Sum of a hash of every expense, to tell whether the expenses changed since the file was written.
+        long fingerprint;
+        // Categories with expenses in the month, "Overall" for no category, and the total of each.
+        String[] categories;
+        long[] totals;
+
+        Partition(int month) {
+            this.month = month;
+        }
+    }
+}
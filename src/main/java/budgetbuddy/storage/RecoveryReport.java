@@ -0,0 +1,81 @@
+package budgetbuddy.storage;
+
+import java.util.ArrayList;
+
+/**
+ * Collects what went wrong while loading saved data, to be reported once as a summary rather than line by line.
+ * <p>
+ * Only the first few skipped records are described; the rest are counted.
+ * </p>
+ */
+final class RecoveryReport {
+    private static final int MAX_EXAMPLES = 3;
+
+    private final ArrayList<String> failures = new ArrayList<>();
+    private final ArrayList<String> examples = new ArrayList<>();
+    private final ArrayList<String> truncations = new ArrayList<>();
+    private long skippedCount;
+
+    /**
+     * Records that a whole file could not be read.
+     *
+     * @param message What went wrong.
+     */
+    void failed(String message) {
+        failures.add(message);
+    }
+
+    /**
+     * Records that a record was skipped.
+     *
+     * @param location Where the record is, such as the file name and line number.
+     * @param reason   Why it could not be used.
+     */
+    void skipped(String location, String reason) {
+        skippedCount++;
+        if (examples.size() < MAX_EXAMPLES) {
+            examples.add(location + " (" + reason + ")");
+        }
+    }
+
+    /**
+     * Records that the incomplete end of a file, left by an interrupted write, was cut off.
+     *
+     * @param fileName The name of the file.
+     * @param bytes    The number of bytes removed.
+     */
+    void truncated(String fileName, long bytes) {
+        truncations.add(fileName + " ended in an incomplete record; " + bytes + " bytes were discarded.");
+    }
+
+    long getSkippedCount() {
+        return skippedCount;
+    }
+
+    boolean hasProblems() {
+        return !failures.isEmpty() || skippedCount > 0 || !truncations.isEmpty();
+    }
+
+    /**
+     * Prints the summary, if anything went wrong.
+     */
+    void print() {
+        if (!hasProblems()) {
+            return;
+        }
+        System.out.println("Some saved data could not be fully recovered:");
+        for (String failure : failures) {
+            System.out.println("  " + failure);
+        }
+        if (skippedCount > 0) {
+            System.out.println("  Skipped " + skippedCount + " corrupted record" + (skippedCount == 1 ? "" : "s")
+                    + ", such as:");
+            for (String example : examples) {
+                System.out.println("    " + example);
+            }
+        }
+        for (String truncation : truncations) {
+            System.out.println("  " + truncation);
+        }
+    }
+}
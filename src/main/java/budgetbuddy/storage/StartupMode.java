@@ -0,0 +1,35 @@
+package budgetbuddy.storage;
+
+/**
+ * When the expenses of older months, kept in partitions next to the data file, are read from the disk.
+ * Either way the prompt appears once the data file is loaded, with the budgets, their limits and the expenses
+ * of the last months, and budget totals are exact from the start.
+ */
+public enum StartupMode {
+    /**
+     * Older expenses are read only when a command first needs them, which that command waits for.
+     * Sessions that never look at the history never read it.
+     */
+    LAZY,
+    /**
+     * Older expenses are read on a background thread while commands are accepted, newest month first, and
+     * moved into the budgets between commands. A command that needs a month not yet read waits for it.
+     */
+    PROGRESSIVE;
+
+    /**
+     * Returns the mode with the given name, ignoring case.
+     *
+     * @param name The name of the mode, such as {@code progressive}.
+     * @return The mode.
+     * @throws IllegalArgumentException If no mode has that name.
+     */
+    public static StartupMode parse(String name) {
+        for (StartupMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown startup mode '" + name + "'. Use lazy or progressive.");
+    }
+}
@@ -0,0 +1,60 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.BudgetChangeListener;
+import budgetbuddy.model.BudgetManager;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the data of a {@link BudgetManager} between runs.
+ * <p>
+ * A backend is used for one manager: {@link #load(BudgetManager)} restores the saved data into it and registers
+ * a {@link BudgetChangeListener}, through which every later change of the manager is appended to the backend
+ * as it happens. When those changes reach their final storage is up to the backend, but every change appended
+ * before {@link #close()} is kept. {@link StorageManager#createBackend(String)} creates the backends the
+ * program can be started with.
+ * </p>
+ */
+public interface StorageBackend extends AutoCloseable {
+    /**
+     * Restores the saved data into a manager and starts appending its changes.
+     *
+     * @param manager The manager to load into, freshly created.
+     */
+    void load(BudgetManager manager);
+
+    /**
+     * Called before each user command, so that a backend whose data other processes may change meanwhile can
+     * apply their changes to the manager first.
+     */
+    default void refresh() {
+    }
+
+    /**
+     * Called once the changes of a user command have all been appended, so that a backend that keeps them
+     * command by command can do so.
+     */
+    void commit();
+
+    /**
+     * Returns a future that completes once all saved data has been read, for backends that keep reading
+     * older data in the background after {@link #load(BudgetManager)}. Data read is in the manager after the
+     * next {@link #commit()}, and commands that need data not yet read wait for it.
+     *
+     * @return The future, already complete for backends that read everything on loading.
+     */
+    default CompletableFuture<Void> whenLoaded() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Writes everything appended so far to the backend's final storage.
+     */
+    void save();
+
+    /**
+     * Saves what is still pending and stops appending changes.
+     */
+    @Override
+    void close();
+}
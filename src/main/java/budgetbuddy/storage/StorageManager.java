@@ -1,104 +1,344 @@
 package budgetbuddy.storage;
 
-import budgetbuddy.model.Budget;
 import budgetbuddy.model.BudgetManager;
-import budgetbuddy.model.Expense;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Map;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
- * Handles saving and loading of budget and alert data to/from a local txt file.
+ * Handles saving and loading of budget and alert data to/from a local file.
+ * <p>
+ * The file is a snapshot. Changes made after it are kept in a {@link Journal} next to it, which
+ * {@link #load(BudgetManager)} replays and {@link #openJournal(BudgetManager)} keeps appending to.
+ * Snapshots are written in the {@link BinarySnapshot} format. Text files written by earlier versions are
+ * still read, and the default text file is migrated to the binary file the first time it is loaded.
+ * </p>
+ * <p>
+ * Expenses of earlier months are kept in {@link Partitions} next to the data file. {@link #load(BudgetManager)}
+ * reads them all, while {@link #openJournal(BudgetManager)} leaves them to be loaded when first needed, or
+ * reads them in the background, as set by {@link #setStartupMode(StartupMode)}.
+ * </p>
+ * <p>
+ * How far written data is pushed towards the disk is set by {@link #setDurability(Durability)}. Replacing the
+ * data file is atomic at every level; above {@link Durability#NONE}, the new file is also forced to disk
+ * before it replaces the old one, and the replacement itself right after.
+ * </p>
+ * <p>
+ * The program itself keeps its data through a {@link StorageBackend}, chosen by {@link #createBackend(String)}.
+ * </p>
  */
 public class StorageManager {
-    private static final String FILE_PATH = "budget_data.txt";
+    private static final String FILE_PATH = "budget_data.bin";
+    private static final String LEGACY_FILE_PATH = "budget_data.txt";
+    // Appended to the name of a data file that cannot be read, which is kept rather than overwritten.
+    private static final String DAMAGED_SUFFIX = ".corrupt";
+
+    private static volatile Durability durability = Durability.BATCH;
+    private static volatile StartupMode startupMode = StartupMode.LAZY;
+
+    /**
+     * Sets how far data is pushed towards the disk from now on. Journals already open keep their level.
+     * The default is {@link Durability#BATCH}.
+     *
+     * @param level The durability level.
+     */
+    public static void setDurability(Durability level) {
+        assert level != null : "Durability level should not be null.";
+        durability = level;
+    }
+
+    public static Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Sets when journals opened from now on read the expenses of older months. The default is
+     * {@link StartupMode#LAZY}.
+     *
+     * @param mode The startup mode.
+     */
+    public static void setStartupMode(StartupMode mode) {
+        assert mode != null : "Startup mode should not be null.";
+        startupMode = mode;
+    }
+
+    public static StartupMode getStartupMode() {
+        return startupMode;
+    }
+
+    /**
+     * Creates the backend with the given name, ignoring case, for the default data file of its format.
+     *
+     * @param name {@code binary} for a {@link JournalBackend}, {@code text} for a {@link TextBackend} or
+     *             {@code memory} for a {@link MemoryBackend}.
+     * @return The backend, not yet loaded.
+     * @throws IllegalArgumentException If no backend has that name.
+     */
+    public static StorageBackend createBackend(String name) {
+        return switch (name.trim().toLowerCase()) {
+        case "binary" -> new JournalBackend();
+        case "text" -> new TextBackend(LEGACY_FILE_PATH);
+        case "memory" -> new MemoryBackend();
+        default -> throw new IllegalArgumentException("Unknown storage backend '" + name
+                + "'. Use binary, text or memory.");
+        };
+    }
 
     /**
      * Saves all budgets and alert amount to a file.
      */
     public static void save(BudgetManager manager) {
-        File tempFile = new File("budget_data_temp.txt");
-        File finalFile = new File(FILE_PATH);
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            for (Map.Entry<String, Budget> entry : manager.getBudgets().entrySet()) {
-                String category = entry.getKey();
-                Budget budget = entry.getValue();
-                writer.write("CATEGORY:" + category + "|LIMIT:" + budget.getLimit());
-                writer.newLine();
-                for (Expense e : budget.getExpenses()) {
-                    writer.write("EXPENSE:" + e.getAmount() + "|"
-                            + e.getDescription().replace("|", " ") + "|"
-                            + e.getDateTimeString());
-                    writer.newLine();
-                }
+        save(manager, FILE_PATH);
+    }
+
+    /**
+     * Saves all budgets and alert amount to the given file and discards its journal, which the file now covers.
+     *
+     * @param manager  The manager to save, with every expense loaded.
+     * @param dataPath The path of the data file.
+     */
+    public static void save(BudgetManager manager, String dataPath) {
+        DataLock lock = DataLock.of(dataPath);
+        if (!lock.tryLockAlone(false)) {
+            System.out.println("Budget data is open in another BudgetBuddy, so it was not saved.");
+            return;
+        }
+        try {
+            if (writeSnapshot(manager, dataPath, 0)) {
+                new File(Journal.pathOf(dataPath)).delete();
+            }
+        } finally {
+            lock.unlockAlone();
+        }
+    }
+
+    /**
+     * Loads the saved data into a manager and starts recording its changes in a journal.
+     *
+     * @param manager The manager to load into, freshly created.
+     * @return The journal, which the caller should compact and close on exit.
+     */
+    public static Journal openJournal(BudgetManager manager) {
+        migrateTextFile(LEGACY_FILE_PATH, FILE_PATH);
+        return openJournal(manager, FILE_PATH);
+    }
+
+    /**
+     * Loads the data saved at the given path into a manager and starts recording its changes in a journal.
+     *
+     * @param manager  The manager to load into, freshly created.
+     * @param dataPath The path of the data file.
+     * @return The journal, which the caller should compact and close on exit.
+     */
+    public static Journal openJournal(BudgetManager manager, String dataPath) {
+        DataLock lock = DataLock.of(dataPath);
+        lock.lockExclusive();
+        try {
+            Partitions partitions = new Partitions(manager, dataPath);
+            RecoveryReport report = new RecoveryReport();
+            long snapshotSequence = loadSnapshot(manager, dataPath, partitions, report);
+            if (new File(Journal.pathOf(dataPath)).length() > 0) {
+                // Journaled changes may touch any expense, so recovering from a crash, or joining another process
+                // using the data, loads them all.
+                partitions.loadExpensesFrom(null);
             }
+            long lastSequence = Journal.replay(manager, dataPath, snapshotSequence, report);
+            report.print();
+            manager.setExpenseLoader(partitions);
+            lock.startSession();
+            Journal journal = new Journal(partitions, lastSequence, durability);
+            manager.setChangeListener(journal);
+            if (startupMode == StartupMode.PROGRESSIVE) {
+                partitions.startPreload();
+            }
+            return journal;
+        } finally {
+            lock.unlockExclusive();
+        }
+    }
+
+    /**
+     * Writes a snapshot of a manager with every expense loaded, as a data file and partitions. The caller has the
+     * data to itself, as taken with {@link DataLock#tryLockAlone(boolean)}.
+     *
+     * @return {@code true} if the data file was replaced.
+     */
+    static boolean writeSnapshot(BudgetManager manager, String dataPath, long journalSequence) {
+        return writeSnapshot(new Partitions(manager, dataPath), journalSequence);
+    }
+
+    /**
+     * Writes a snapshot of the manager, replacing the data file only once the snapshot is complete.
+     *
+     * @param partitions      The partitions of the data file, which know the manager and the path.
+     * @param journalSequence The sequence number of the last journaled change the snapshot includes.
+     * @return {@code true} if the data file was replaced.
+     */
+    static boolean writeSnapshot(Partitions partitions, long journalSequence) {
+        if (!partitions.isWritable()) {
+            System.out.println("Budget data was not saved, to keep the damaged data file it would replace.");
+            return false;
+        }
+        File tempFile = new File(partitions.getDataPath() + ".tmp");
+        File finalFile = new File(partitions.getDataPath());
 
-            if (manager.getBudgetAlert().isActive()) {
-                writer.write("ALERT:" + manager.getBudgetAlert().getAlertAmount());
-                writer.newLine();
+        boolean isForced = durability != Durability.NONE;
+        try {
+            partitions.write(tempFile, journalSequence, isForced);
+            if (isForced) {
+                forceToDisk(tempFile);
             }
         } catch (IOException e) {
             System.out.println("Error saving budget data: " + e.getMessage());
-            return;
+            return false;
         }
 
         // Only replace original file if writing succeeded
         if (!tempFile.renameTo(finalFile)) {
             System.out.println("Failed to replace the old data file with new one.");
+            return false;
+        }
+        if (isForced) {
+            forceDirectoryToDisk(finalFile);
         }
+        partitions.deleteUnlisted();
+        return true;
     }
 
-    public static void load(BudgetManager manager) {
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
-            return;
+    /**
+     * Forces the content of a written file to disk.
+     *
+     * @throws IOException If the file cannot be opened or forced.
+     */
+    static void forceToDisk(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            Budget currentBudget = null;
-
-            while ((line = reader.readLine()) != null) {
-                try {
-                    if (line.startsWith("CATEGORY:")) {
-                        String[] parts = line.split("\\|LIMIT:");
-                        String category = parts[0].substring(9);
-                        double limit = Double.parseDouble(parts[1]);
-                        currentBudget = new Budget(category, limit);
-                        manager.getBudgets().put(category, currentBudget);
-
-                    } else if (line.startsWith("EXPENSE:") && currentBudget != null) {
-                        String[] parts = line.substring(8).split("\\|");
-                        if (parts.length < 3) {
-                            throw new IllegalArgumentException("Incomplete expense line");
-                        }
-                        double amount = Double.parseDouble(parts[0]);
-                        String description = parts[1];
-                        String timeStamp = parts[2];
-                        Expense e = new Expense(amount, description, timeStamp, true);
-                        currentBudget.addExpense(e);
-
-                    } else if (line.startsWith("ALERT:")) {
-                        double alertAmount = Double.parseDouble(line.substring(6));
-                        manager.setBudgetAlert(alertAmount);
-                    }
-                } catch (Exception e) {
-                    System.out.println("Skipping corrupted line: \"" + line + "\" (" + e.getMessage() + ")");
-                    // Optionally: log to a file or count skipped lines
-                }
-            }
+    /**
+     * Forces the directory entries of a file to disk, so that a rename into it survives a crash. Platforms
+     * that cannot open a directory for this, such as Windows, are skipped.
+     */
+    private static void forceDirectoryToDisk(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            System.out.println("Error reading budget data: " + e.getMessage());
+            // The rename is still atomic; only its timing relative to a power loss is left to the system.
+        }
+    }
+
+    public static void load(BudgetManager manager) {
+        migrateTextFile(LEGACY_FILE_PATH, FILE_PATH);
+        load(manager, FILE_PATH);
+    }
+
+    /**
+     * Converts a text data file, and any journal next to it, into a binary data file.
+     * Nothing happens if the text file does not exist or the binary file already does. Once converted, the
+     * text file is kept as a backup with a {@code .bak} suffix and its journal is removed.
+     *
+     * @param textPath   The path of the text data file.
+     * @param binaryPath The path of the binary data file to create.
+     * @return {@code true} if the file was converted.
+     */
+    public static boolean migrateTextFile(String textPath, String binaryPath) {
+        if (!new File(textPath).exists() || new File(binaryPath).exists()) {
+            return false;
+        }
+        DataLock lock = DataLock.of(binaryPath);
+        if (!lock.tryLockAlone(false)) {
+            return false;
+        }
+        try {
+            // Another process may have converted it while this one waited for the lock.
+            if (!new File(textPath).exists() || new File(binaryPath).exists()) {
+                return false;
+            }
+            BudgetManager migrated = new BudgetManager();
+            // The lock of the binary file covers the text file too, so it gets no lock file of its own.
+            loadAll(migrated, textPath);
+            if (!writeSnapshot(migrated, binaryPath, 0)) {
+                return false;
+            }
+            if (!new File(textPath).renameTo(new File(textPath + ".bak"))) {
+                System.out.println("Could not rename " + textPath + " after converting it to " + binaryPath + ".");
+            }
+            new File(Journal.pathOf(textPath)).delete();
+            return true;
+        } finally {
+            lock.unlockAlone();
         }
     }
-}
 
+    /**
+     * Loads the data file at the given path and all of its partitions, then replays the changes journaled
+     * after it.
+     *
+     * @param manager  The manager to load into, freshly created.
+     * @param dataPath The path of the data file.
+     */
+    public static void load(BudgetManager manager, String dataPath) {
+        DataLock lock = DataLock.of(dataPath);
+        // Exclusive, as replaying cuts off the remains of an interrupted write.
+        lock.lockExclusive();
+        try {
+            loadAll(manager, dataPath);
+        } finally {
+            lock.unlockExclusive();
+        }
+    }
 
+    // Loads as load does, with the data already locked by the caller.
+    private static void loadAll(BudgetManager manager, String dataPath) {
+        Partitions partitions = new Partitions(manager, dataPath);
+        RecoveryReport report = new RecoveryReport();
+        long snapshotSequence = loadSnapshot(manager, dataPath, partitions, report);
+        partitions.loadExpensesFrom(null);
+        Journal.replay(manager, dataPath, snapshotSequence, report);
+        report.print();
+    }
 
+    /**
+     * Loads the data file into the manager, telling the binary and text formats apart by the file's content.
+     * Only binary files list partitions, which are left unloaded.
+     *
+     * @return The sequence number of the last journaled change the file includes, or 0 if it has none.
+     */
+    private static long loadSnapshot(BudgetManager manager, String dataPath, Partitions partitions,
+            RecoveryReport report) {
+        File file = new File(dataPath);
+        if (!file.exists()) {
+            return 0;
+        }
+        if (!BinarySnapshot.isBinary(file)) {
+            return TextSnapshotLoader.load(manager, file, report);
+        }
+        try {
+            return BinarySnapshot.read(manager, file, partitions);
+        } catch (IOException e) {
+            report.failed("Error reading budget data: " + e.getMessage());
+            setAside(file, partitions, report);
+            return 0;
+        }
+    }
 
+    /**
+     * Moves a data file that cannot be read, with its partitions, out of the way of the data that replaces it,
+     * so that they can still be recovered by hand.
+     */
+    private static void setAside(File file, Partitions partitions, RecoveryReport report) {
+        String damagedPath = file.getPath() + DAMAGED_SUFFIX;
+        for (int i = 2; new File(damagedPath).exists(); i++) {
+            damagedPath = file.getPath() + DAMAGED_SUFFIX + i;
+        }
+        if (partitions.moveFilesTo(damagedPath)) {
+            report.failed("The damaged data was kept as " + new File(damagedPath).getName() + ".");
+        } else {
+            report.failed("The damaged data could not be set aside, so changes will not be saved.");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.BudgetChangeListener;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.parser.DateTimeParser;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the data in one data file in the line-based text format, rewritten whole after every command that
+ * changed something.
+ * <p>
+ * This is how data was kept before the {@link JournalBackend}, and costs time in proportion to all the data
+ * on every change. It keeps the data readable and editable by hand, and serves as the baseline the other
+ * backends are measured against. The file is written to a temporary file first, so a crash leaves the old
+ * file or the new one. Files are read by the {@link TextSnapshotLoader}.
+ * </p>
+ */
+public class TextBackend implements StorageBackend, BudgetChangeListener {
+    private final String dataPath;
+    private BudgetManager manager;
+    private boolean isChanged;
+
+    /**
+     * Creates a backend for the text data file at the given path.
+     *
+     * @param dataPath The path of the data file.
+     */
+    public TextBackend(String dataPath) {
+        this.dataPath = dataPath;
+    }
+
+    @Override
+    public void load(BudgetManager manager) {
+        assert this.manager == null : "A text backend should be closed before it is loaded again.";
+        File file = new File(dataPath);
+        if (file.exists()) {
+            RecoveryReport report = new RecoveryReport();
+            TextSnapshotLoader.load(manager, file, report);
+            report.print();
+        }
+        this.manager = manager;
+        manager.setChangeListener(this);
+    }
+
+    @Override
+    public void commit() {
+        if (isChanged) {
+            save();
+        }
+    }
+
+    @Override
+    public void save() {
+        File tempFile = new File(dataPath + ".tmp");
+        boolean isForced = StorageManager.getDurability() != Durability.NONE;
+        try {
+            write(tempFile);
+            if (isForced) {
+                StorageManager.forceToDisk(tempFile);
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving budget data: " + e.getMessage());
+            return;
+        }
+
+        // Only replace original file if writing succeeded
+        if (!tempFile.renameTo(new File(dataPath))) {
+            System.out.println("Failed to replace the old data file with new one.");
+            return;
+        }
+        isChanged = false;
+    }
+
+    @Override
+    public void close() {
+        if (manager == null) {
+            return;
+        }
+        commit();
+        manager.setChangeListener(new BudgetChangeListener() {
+        });
+        manager = null;
+    }
+
+    /**
+     * Writes every budget, then each expense and rule once with the category it counts towards besides
+     * Overall as its last field, then the alert. The budgets come first so that the categories are known when
+     * the expenses are read.
+     */
+    private void write(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Budget> entry : manager.getBudgets().entrySet()) {
+                writer.write("CATEGORY:" + entry.getKey() + "|LIMIT:"
+                        + Money.format(entry.getValue().getLimitCents()));
+                writer.newLine();
+            }
+            Budget overall = manager.getBudgets().get("Overall");
+            for (Expense e : overall.getExpenses()) {
+                Budget category = manager.getCategoryBudgetOf(e.getId());
+                writer.write("EXPENSE:" + Money.format(e.getAmountCents()) + "|"
+                        + e.getDescription().replace("|", " ") + "|"
+                        + e.getDateTimeString() + "|"
+                        + e.getId() + "|"
+                        + (category == null ? "Overall" : category.getCategory()));
+                writer.newLine();
+            }
+            Map<Long, String> ruleCategories = new HashMap<>();
+            for (Budget budget : manager.getBudgets().values()) {
+                if (budget != overall) {
+                    for (RecurringRule rule : budget.getRecurringRules()) {
+                        ruleCategories.put(rule.getId(), budget.getCategory());
+                    }
+                }
+            }
+            for (RecurringRule rule : overall.getRecurringRules()) {
+                writer.write("RECURRING:" + Money.format(rule.getAmountCents()) + "|"
+                        + rule.getDescription().replace("|", " ") + "|"
+                        + rule.getStart().format(DateTimeParser.DATETIME_FORMAT) + "|"
+                        + rule.getIntervalDays() + "|"
+                        + rule.getOccurrenceCount() + "|"
+                        + rule.getId() + "|"
+                        + ruleCategories.getOrDefault(rule.getId(), "Overall"));
+                writer.newLine();
+            }
+
+            if (manager.getBudgetAlert().isActive()) {
+                writer.write("ALERT:" + Money.format(manager.getBudgetAlert().getAlertCents()));
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public void budgetSet(String category, long limitCents) {
+        isChanged = true;
+    }
+
+    @Override
+    public void budgetRenamed(String oldName, String newName) {
+        isChanged = true;
+    }
+
+    @Override
+    public void expenseAdded(String category, Expense expense) {
+        isChanged = true;
+    }
+
+    @Override
+    public void expenseEdited(Expense expense) {
+        isChanged = true;
+    }
+
+    @Override
+    public void expenseDeleted(long id) {
+        isChanged = true;
+    }
+
+    @Override
+    public void recurringRuleAdded(String category, RecurringRule rule) {
+        isChanged = true;
+    }
+
+    @Override
+    public void recurringRuleDeleted(long id) {
+        isChanged = true;
+    }
+
+    @Override
+    public void alertSet(long alertCents) {
+        isChanged = true;
+    }
+}
@@ -0,0 +1,332 @@
+package budgetbuddy.storage;
+
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.model.StringDictionary;
+import budgetbuddy.parser.DateTimeParser;
+import budgetbuddy.parser.TimestampCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads data files in the line-based text format.
+ * <p>
+ * The file is cut into line-aligned chunks of about {@link #CHUNK_BYTES} bytes, which are parsed in parallel
+ * on the common {@link ForkJoinPool}. Parsing yields plain records only; the records are merged into the
+ * manager on the calling thread, one chunk at a time and in file order, since the model is not thread-safe.
+ * A chunk does not need to start on a {@code CATEGORY:} line: lines before its first one belong to the
+ * category in effect where the previous chunk ended, which the merge knows. Only a few chunks are parsed
+ * ahead of the merge, so memory stays bounded however large the file.
+ * </p>
+ * <p>
+ * Each expense and rule is listed once, with the category it counts towards as its last field. Files written
+ * before that have no such field and list every categorised expense and rule again after its
+ * {@code CATEGORY:} line; those take the category in effect, and the copies are restored as one by ID.
+ * </p>
+ * <p>
+ * As before, a line that cannot be read is skipped without affecting the others. Skipped lines are collected
+ * in a {@link RecoveryReport}, numbered across the whole file.
+ * </p>
+ */
+final class TextSnapshotLoader {
+    static final int CHUNK_BYTES = 4 << 20;
+
+    private TextSnapshotLoader() {
+    }
+
+    /**
+     * Loads a text data file into the manager.
+     *
+     * @param report Where to report lines that cannot be read.
+     * @return The sequence number of the last journaled change the file includes, or 0 if it has none.
+     */
+    static long load(BudgetManager manager, File file, RecoveryReport report) {
+        return load(manager, file, CHUNK_BYTES, report);
+    }
+
+    /**
+     * Loads a text data file into the manager, cutting it into chunks of about the given size.
+     */
+    static long load(BudgetManager manager, File file, int chunkBytes, RecoveryReport report) {
+        Merge merge = new Merge(manager, file.getName(), report);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, chunkBytes);
+            int chunkCount = bounds.length - 1;
+            if (chunkCount == 1) {
+                merge.add(parse(channel, bounds[0], bounds[1]));
+            } else {
+                ForkJoinPool pool = ForkJoinPool.commonPool();
+                int window = 2 * pool.getParallelism() + 1;
+                ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                while (next < chunkCount || !inFlight.isEmpty()) {
+                    while (next < chunkCount && inFlight.size() < window) {
+                        long start = bounds[next];
+                        long end = bounds[next + 1];
+                        inFlight.add(pool.submit(() -> parse(channel, start, end)));
+                        next++;
+                    }
+                    merge.add(inFlight.poll().join());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            report.failed("Error reading budget data: " + e.getMessage());
+        }
+        merge.restoreLegacyExpenses();
+        return merge.journalSequence;
+    }
+
+    /**
+     * Returns the offsets at which chunks start, followed by the file size. Every offset but the first follows
+     * a line break.
+     */
+    private static long[] chunkBounds(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        ArrayList<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkBytes;
+        while (position < size) {
+            long lineEnd = -1;
+            while (lineEnd < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + chunkBytes;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end) {
+        String text;
+        try {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            text = StandardCharsets.UTF_8.decode(bytes).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        Chunk chunk = new Chunk();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            parseLine(chunk, text.substring(lineStart, contentEnd));
+            chunk.lineCount++;
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static void parseLine(Chunk chunk, String line) {
+        try {
+            if (line.startsWith("JOURNAL:")) {
+                chunk.journalSequence = Long.parseLong(line.substring(8));
+
+            } else if (line.startsWith("CATEGORY:")) {
+                String[] parts = line.split("\\|LIMIT:");
+                long limitCents = Money.parseCents(parts[1]);
+                chunk.currentCategory = parts[0].substring(9);
+                chunk.categories.add(chunk.currentCategory);
+                chunk.limits.add(limitCents);
+
+            } else if (line.startsWith("EXPENSE:")) {
+                // Fields are read in place so that known descriptions allocate no new String.
+                int amountEnd = line.indexOf('|', 8);
+                int descriptionEnd = amountEnd < 0 ? -1 : line.indexOf('|', amountEnd + 1);
+                if (descriptionEnd < 0) {
+                    throw new IllegalArgumentException("Incomplete expense line");
+                }
+                int timeEnd = line.indexOf('|', descriptionEnd + 1);
+                long amountCents = Money.parseCents(line, 8, amountEnd);
+                if (timeEnd >= 0) {
+                    int descriptionId = StringDictionary.intern(line, amountEnd + 1, descriptionEnd);
+                    int idEnd = line.indexOf('|', timeEnd + 1);
+                    long id = Long.parseLong(line, timeEnd + 1, idEnd < 0 ? line.length() : idEnd, 10);
+                    chunk.expenses.add(new Expense(id, amountCents, descriptionId,
+                            parseTime(line, descriptionEnd + 1, timeEnd)));
+                    // Older files have no category field and list the expense again under its category.
+                    chunk.expenseCategories.add(idEnd < 0 ? chunk.currentCategory : line.substring(idEnd + 1));
+                } else {
+                    chunk.legacyExpenses.add(new String[]{chunk.currentCategory, line.substring(8, amountEnd),
+                            line.substring(amountEnd + 1, descriptionEnd), line.substring(descriptionEnd + 1)});
+                }
+
+            } else if (line.startsWith("RECURRING:")) {
+                // amount|description|start|interval in days|occurrences|rule ID|category, where older files
+                // have no category
+                String[] fields = line.substring(10).split("\\|", 7);
+                if (fields.length < 6) {
+                    throw new IllegalArgumentException("Incomplete recurring expense line");
+                }
+                chunk.rules.add(new RecurringRule(Long.parseLong(fields[5]), Money.parseCents(fields[0]), fields[1],
+                        parseTime(fields[2], 0, fields[2].length()),
+                        Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+                chunk.ruleCategories.add(fields.length == 7 ? fields[6] : chunk.currentCategory);
+
+            } else if (line.startsWith("ALERT:")) {
+                chunk.alertCents = Money.parseCents(line, 6, line.length());
+            }
+        } catch (Exception e) {
+            chunk.errorLines.add(chunk.lineCount);
+            chunk.errors.add("\"" + line + "\": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a timestamp written by this or an earlier version, falling back to the formatter only for text
+     * the codec does not accept.
+     */
+    private static LocalDateTime parseTime(String line, int start, int end) {
+        LocalDateTime dateTime = TimestampCodec.parseDateTime(line, start, end);
+        return dateTime != null ? dateTime : DateTimeParser.parseOrDefault(line.substring(start, end), true);
+    }
+
+    /**
+     * The records parsed from one chunk. A {@code null} category stands for the category in effect where the
+     * previous chunk ended.
+     */
+    private static final class Chunk {
+        private final ArrayList<String> categories = new ArrayList<>();
+        private final ArrayList<Long> limits = new ArrayList<>();
+        private final ArrayList<Expense> expenses = new ArrayList<>();
+        private final ArrayList<String> expenseCategories = new ArrayList<>();
+        private final ArrayList<RecurringRule> rules = new ArrayList<>();
+        private final ArrayList<String> ruleCategories = new ArrayList<>();
+        // Expense lines of files written before expense IDs existed, as {category, amount, description, time}
+        private final ArrayList<String[]> legacyExpenses = new ArrayList<>();
+        // Lines that could not be read, counted from 0 within the chunk, and why.
+        private final ArrayList<Integer> errorLines = new ArrayList<>();
+        private final ArrayList<String> errors = new ArrayList<>();
+        private int lineCount;
+        private String currentCategory;
+        private long journalSequence = -1;
+        private long alertCents = -1;
+    }
+
+    /**
+     * Applies chunks to the manager in file order.
+     */
+    private static final class Merge {
+        private final BudgetManager manager;
+        private final String fileName;
+        private final RecoveryReport report;
+        private final ArrayList<String[]> legacyExpenses = new ArrayList<>();
+        private String currentCategory;
+        private long journalSequence;
+        private long linesBefore;
+
+        private Merge(BudgetManager manager, String fileName, RecoveryReport report) {
+            this.manager = manager;
+            this.fileName = fileName;
+            this.report = report;
+        }
+
+        private void add(Chunk chunk) {
+            for (int i = 0; i < chunk.errors.size(); i++) {
+                report.skipped(fileName + " line " + (linesBefore + chunk.errorLines.get(i) + 1), chunk.errors.get(i));
+            }
+            linesBefore += chunk.lineCount;
+            for (int i = 0; i < chunk.categories.size(); i++) {
+                manager.restoreBudget(chunk.categories.get(i), chunk.limits.get(i));
+            }
+            for (int i = 0; i < chunk.expenses.size(); i++) {
+                String category = resolve(chunk.expenseCategories.get(i));
+                if (category != null) {
+                    // The same ID under Overall and under a category is one expense, stored once.
+                    manager.restoreExpense(category, chunk.expenses.get(i));
+                }
+            }
+            for (int i = 0; i < chunk.rules.size(); i++) {
+                String category = resolve(chunk.ruleCategories.get(i));
+                if (category != null) {
+                    manager.restoreRecurringRule(category, chunk.rules.get(i));
+                }
+            }
+            for (String[] fields : chunk.legacyExpenses) {
+                fields[0] = resolve(fields[0]);
+                if (fields[0] != null) {
+                    legacyExpenses.add(fields);
+                }
+            }
+            if (chunk.alertCents >= 0) {
+                manager.restoreBudgetAlert(chunk.alertCents);
+            }
+            if (chunk.journalSequence >= 0) {
+                journalSequence = chunk.journalSequence;
+            }
+            if (chunk.currentCategory != null) {
+                currentCategory = chunk.currentCategory;
+            }
+        }
+
+        private String resolve(String category) {
+            return category == null ? currentCategory : category;
+        }
+
+        /**
+         * Restores expenses saved without IDs. Such files list every categorised expense twice, once under
+         * Overall and once under its category, so each category line is matched to an identical Overall line
+         * and the two are restored as a single expense.
+         */
+        private void restoreLegacyExpenses() {
+            HashMap<String, ArrayDeque<Expense>> unmatchedOverall = new HashMap<>();
+            for (String[] fields : legacyExpenses) {
+                if (fields[0].equals("Overall")) {
+                    Expense expense = new Expense(Double.parseDouble(fields[1]), fields[2], fields[3], true);
+                    manager.restoreExpense("Overall", expense);
+                    unmatchedOverall.computeIfAbsent(legacyKey(fields), k -> new ArrayDeque<>()).add(expense);
+                }
+            }
+            for (String[] fields : legacyExpenses) {
+                if (fields[0].equals("Overall")) {
+                    continue;
+                }
+                ArrayDeque<Expense> candidates = unmatchedOverall.get(legacyKey(fields));
+                Expense expense = candidates == null ? null : candidates.poll();
+                if (expense == null) {
+                    expense = new Expense(Double.parseDouble(fields[1]), fields[2], fields[3], true);
+                }
+                manager.restoreExpense(fields[0], expense);
+            }
+        }
+
+        private static String legacyKey(String[] fields) {
+            return fields[1] + "|" + fields[2] + "|" + fields[3];
+        }
+    }
+}
@@ -33,6 +33,8 @@ import budgetbuddy.parser.Parser;
 public class InputManager {
     private final BudgetManager budgetManager;
     private final InputParser inputParser;
+    private final Runnable commandStart;
+    private final Runnable commandEnd;
 
 
     /**
@@ -41,8 +43,34 @@ public class InputManager {
      * @param budgetManager The BudgetManager instance to be used for managing budgets and expenses.
      */
     public InputManager(BudgetManager budgetManager) {
+        this(budgetManager, () -> {
+        });
+    }
+
+    /**
+     * Constructs an InputManager that also runs an action after every command, whether it succeeded or not.
+     *
+     * @param budgetManager The BudgetManager instance to be used for managing budgets and expenses.
+     * @param commandEnd    The action to run after every command, such as committing its changes to disk.
+     */
+    public InputManager(BudgetManager budgetManager, Runnable commandEnd) {
+        this(budgetManager, () -> {
+        }, commandEnd);
+    }
+
+    /**
+     * Constructs an InputManager that also runs an action before and after every command.
+     *
+     * @param budgetManager The BudgetManager instance to be used for managing budgets and expenses.
+     * @param commandStart  The action to run once a command is entered and before it runs, such as loading
+     *                      changes saved by another process.
+     * @param commandEnd    The action to run after every command, such as committing its changes to disk.
+     */
+    public InputManager(BudgetManager budgetManager, Runnable commandStart, Runnable commandEnd) {
         assert budgetManager != null : "BudgetManager cannot be null.";
         this.budgetManager = budgetManager;
+        this.commandStart = commandStart;
+        this.commandEnd = commandEnd;
         inputParser = new InputParser();
     }
 
@@ -66,6 +94,7 @@ public class InputManager {
         while (!isExit) {
             try {
                 line = in.nextLine().trim();
+                commandStart.run();
                 Command c = inputParser.parseInput(line);
                 c.execute(budgetManager);
                 isExit = c.isExit();
@@ -82,6 +111,8 @@ public class InputManager {
                 break;
             } catch (IllegalArgumentException e) {
                 System.out.println(e.getMessage());
+            } finally {
+                commandEnd.run();
             }
         }
         in.close();
@@ -2,10 +2,15 @@ package budgetbuddy.ui;
 
 import budgetbuddy.model.Budget;
 import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import budgetbuddy.model.RecurringRule;
 import budgetbuddy.parser.DateTimeParser;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
@@ -80,6 +85,10 @@ public class Ui {
                 " f/[FREQUENCY] i/[ITERATIONS]");
         System.out.println("Examples: add-recurring 20 c/Food d/Lunch t/Apr 24 2025 at 12:00 f/30 i/5");
 
+        System.out.println("\nDelete Recurring Expense: delete-recurring");
+        System.out.println("Format: delete-recurring [INDEX]");
+        System.out.println("Example: delete-recurring 1");
+
         System.out.println("\nDelete Expense: delete");
         System.out.println("Format: delete [INDEX]");
         System.out.println("Examples: delete 2" +
@@ -127,8 +136,19 @@ public class Ui {
         System.out.println("Example: delete-alert");
 
         System.out.println("\nFind Expenses: find");
-        System.out.println("Format: find [KEYWORD]");
-        System.out.println("Example: find coffee");
+        System.out.println("Format: find [m/all|any|substring] [KEYWORD]...");
+        System.out.println("Examples: find coffee, find chicken rice, find m/any coffee tea, find m/substring cof");
+
+        System.out.println("\nExport Expenses: export");
+        System.out.println("Format: export f/[FILE.csv|FILE.jsonl] c/[CATEGORY] start/[START_TIME] end/[END_TIME]");
+        System.out.println("Examples: export f/expenses.csv" +
+                "\n          export f/food.jsonl c/Food start/Jan 01 2025 at 00:00");
+
+        System.out.println("\nImport Expenses: import");
+        System.out.println("Format: import f/[FILE.csv] a/[AMOUNT_COLUMN] t/[DATE_COLUMN] d/[DESCRIPTION_COLUMN]"
+                + " c/[CATEGORY_COLUMN]");
+        System.out.println("Examples: import f/expenses.csv" +
+                "\n          import f/statement.csv a/Debit t/Posted d/Payee");
 
         System.out.println("\nExit Program: bye");
         System.out.println("Format: bye");
@@ -151,15 +171,15 @@ public class Ui {
     /**
      * Prints a message confirming the setting of a budget alert.
      *
-     * @param alertAmount The alert threshold amount.
-     * @param isEdit      A boolean indicating if this is an edit to an existing alert.
+     * @param alertCents The alert threshold amount, in cents.
+     * @param isEdit     A boolean indicating if this is an edit to an existing alert.
      */
-    public static void printSetBudgetAlert(double alertAmount, boolean isEdit) {
+    public static void printSetBudgetAlert(long alertCents, boolean isEdit) {
         printSeparator();
         if (isEdit) {
-            System.out.println("Alert amount updated to $" + alertAmount);
+            System.out.println("Alert amount updated to $" + Money.format(alertCents));
         } else {
-            System.out.println("Budget alert set at $" + alertAmount +
+            System.out.println("Budget alert set at $" + Money.format(alertCents) +
                     ". You will be notified if expenses exceed this amount.");
         }
         printSeparator();
@@ -179,23 +199,23 @@ public class Ui {
     /**
      * Prints a warning if the total expenses exceed the budget alert threshold.
      *
-     * @param totalExpenses The total expenses incurred by the user.
-     * @param alertAmount   The threshold set for the budget alert.
+     * @param totalCents The total expenses incurred by the user, in cents.
+     * @param alertCents The threshold set for the budget alert, in cents.
      */
-    public static void printCheckAlert(double totalExpenses, double alertAmount) {
-        System.out.println("Warning: Your total expenses ($" + totalExpenses +
-                ") have exceeded the alert limit of $" + alertAmount);
+    public static void printCheckAlert(long totalCents, long alertCents) {
+        System.out.println("Warning: Your total expenses ($" + Money.format(totalCents) +
+                ") have exceeded the alert limit of $" + Money.format(alertCents));
         printSeparator();
     }
 
     /**
      * Prints a message when total expenses hit the alert threshold exactly.
      *
-     * @param totalExpenses The current total expenses, equal to alert amount.
+     * @param totalCents The current total expenses in cents, equal to alert amount.
      */
-    public static void printHitAlert(double totalExpenses) {
+    public static void printHitAlert(long totalCents) {
         printSeparator();
-        System.out.println("Notice: You have hit your budget alert limit of $" + totalExpenses);
+        System.out.println("Notice: You have hit your budget alert limit of $" + Money.format(totalCents));
         printSeparator();
     }
 
@@ -212,14 +232,13 @@ public class Ui {
 
 
     /**
-     * Prints a list of all recorded expenses.
+     * Prints a list of all recorded expenses, most recent first.
      *
-     * @param expenses A list of expenses to be displayed.
+     * @param expenses A list of expenses to be displayed, oldest first.
      */
     public static void printExpensesList(ArrayList<Expense> expenses) {
         printSeparator();
         System.out.println("Expense List:");
-        expenses.sort((e1, e2) -> e1.getDateTime().compareTo(e2.getDateTime()));
         for (int i = expenses.size() - 1; i >= 0; i--) {
             System.out.println((expenses.size() - i) + ". " + expenses.get(i));
         }
@@ -227,23 +246,21 @@ public class Ui {
     }
 
     /**
-     * Prints a list of all recorded expenses in a date and time range.
+     * Prints the recorded expenses of a budget that fall in a date and time range, most recent first.
+     * Each expense is numbered by its position in the full list, so the numbers can be used with
+     * {@code delete} and {@code edit-expense}.
      *
-     * @param expenses A list of expenses to be displayed.
+     * @param budget The budget whose expenses are to be displayed.
+     * @param start  The start of the range, or a blank string for no lower bound.
+     * @param end    The end of the range, or a blank string for no upper bound.
      */
-    public static void printExpensesList(ArrayList expenses, String start, String end) {
+    public static void printExpensesList(Budget budget, String start, String end) {
 
         boolean bypassStart = start.isBlank();
         //if no start date provided
         boolean bypassEnd = end.isBlank();
         //if no end date provided
 
-        //boolean happensAfterStart = false;
-        //if recorded expense happens after user provided start date
-        //boolean happensBeforeEnd = false;
-        //if recorded expense happens before user provided end date
-
-
         LocalDateTime startDate = null;
         LocalDateTime endDate = null;
 
@@ -281,20 +298,74 @@ public class Ui {
 
         printSeparator();
         System.out.println("Expense List:");
-        for (int i = expenses.size() - 1; i >= 0; i--) {
-            Expense expense = (Expense) expenses.get(i);
-            LocalDateTime expenseDateTime = DateTimeParser.parseOrDefault(expense.getDateTimeString(), true);
+        List<Expense> expensesInRange = budget.getExpensesBetween(startDate, endDate);
+        if (!expensesInRange.isEmpty()) {
+            int index = budget.getDisplayIndex(expensesInRange.get(expensesInRange.size() - 1));
+            for (int i = expensesInRange.size() - 1; i >= 0; i--) {
+                System.out.println(index + ". " + expensesInRange.get(i));
+                index++;
+            }
+        }
+        // Occurrences of recurring expenses are generated only for the range, oldest first.
+        List<RecurringRule> rules = budget.getRecurringRules();
+        for (int r = 0; r < rules.size(); r++) {
+            RecurringRule rule = rules.get(r);
+            Iterator<LocalDateTime> occurrences = rule.occurrencesBetween(startDate, endDate);
+            while (occurrences.hasNext()) {
+                System.out.println("R" + (r + 1) + ". " + Money.formatCurrency(rule.getAmountCents()) + " spent on "
+                        + rule.getDescription() + " (" + occurrences.next().format(DateTimeParser.DATETIME_FORMAT)
+                        + ")");
+            }
+        }
 
-            boolean happensAfterStart = bypassStart || (startDate != null &&
-                    (expenseDateTime.isEqual(startDate) || expenseDateTime.isAfter(startDate)));
-            boolean happensBeforeEnd = bypassEnd || (endDate != null &&
-                    (expenseDateTime.isEqual(endDate) || expenseDateTime.isBefore(endDate)));
+        printSeparator();
+    }
+
+    /**
+     * Prints the recurring expenses of a budget, numbered for {@code delete-recurring}.
+     *
+     * @param rules The recurring expense rules, in the order they were added.
+     */
+    public static void printRecurringRules(List<RecurringRule> rules) {
+        printSeparator();
+        System.out.println("Recurring Expenses:");
+        for (int i = 0; i < rules.size(); i++) {
+            System.out.println("R" + (i + 1) + ". " + rules.get(i));
+        }
+        printSeparator();
+    }
 
-            if (happensAfterStart && happensBeforeEnd) {
-                System.out.println((expenses.size() - i) + ". " + expenses.get(i));
+    /**
+     * Prints a confirmation for a newly added recurring expense.
+     *
+     * @param rule            The recurring expense rule added.
+     * @param category        The category it was added to, or empty for Overall.
+     * @param addedToCategory Whether it was also added to the category budget.
+     * @param message         A warning about the category, or empty.
+     */
+    public static void printAddRecurringRule(RecurringRule rule, String category, boolean addedToCategory,
+                                             String message) {
+        printSeparator();
+        System.out.println("Recurring Expense Added: " + rule);
+        if (!category.isEmpty()) {
+            if (!message.isEmpty()) {
+                System.out.println(message);
+            } else if (addedToCategory) {
+                System.out.println("Successfully added to category budget");
             }
         }
+        printSeparator();
+    }
 
+    /**
+     * Prints a confirmation for a deleted recurring expense.
+     *
+     * @param rule The recurring expense rule deleted.
+     */
+    public static void printDeleteRecurringRule(RecurringRule rule) {
+        printSeparator();
+        System.out.println("The following recurring expense has been deleted successfully, with all its occurrences.");
+        System.out.println("-> " + rule);
         printSeparator();
     }
 
@@ -302,13 +373,12 @@ public class Ui {
     /**
      * Prints a message confirming the deletion of an expense.
      *
-     * @param expenses A list of all expenses.
-     * @param index    The index of the expense to be deleted.
+     * @param expense The expense to be deleted.
      */
-    public static void printDeleteExpense(ArrayList<Expense> expenses, int index) {
+    public static void printDeleteExpense(Expense expense) {
         printSeparator();
         System.out.println("The following expense has been deleted successfully from Overall Budget.");
-        System.out.println("-> " + expenses.get(expenses.size() - index));
+        System.out.println("-> " + expense);
         printSeparator();
     }
 
@@ -327,9 +397,9 @@ public class Ui {
             for (String category : budgets.keySet()) {
                 Budget budget = budgets.get(category);
                 System.out.println("\nCategory: " + category);
-                System.out.println("Total Expenses: $" + budget.getTotalExpenses());
-                System.out.println("Remaining Budget: $" + budget.getRemainingBudget());
-                System.out.println("Spending Limit: $" + budget.getLimit());
+                System.out.println("Total Expenses: $" + Money.format(budget.getTotalExpensesCents()));
+                System.out.println("Remaining Budget: $" + Money.format(budget.getRemainingBudgetCents()));
+                System.out.println("Spending Limit: $" + Money.format(budget.getLimitCents()));
             }
         }
 
@@ -340,13 +410,13 @@ public class Ui {
     /**
      * Prints a message indicating that an expense has been successfully updated.
      *
-     * @param expenses The list of all expenses, which contains the expense that was updated.
-     * @param index    The index of the expense in the list that was updated.
+     * @param expense The expense that was updated.
+     * @param index   The index the user referred to the expense by.
      */
-    public static void printExpenseEditedMessage(ArrayList<Expense> expenses, int index) {
+    public static void printExpenseEditedMessage(Expense expense, int index) {
         printSeparator();
         System.out.println("Got it, the expense at index " + index + " has been updated!");
-        System.out.println("Updated expense -> " + expenses.get(expenses.size() - index));
+        System.out.println("Updated expense -> " + expense);
         printSeparator();
     }
 
@@ -368,6 +438,57 @@ public class Ui {
         printSeparator();
     }
 
+    /**
+     * Prints one confirmation for a batch of expenses added together.
+     *
+     * @param count           The number of expenses added.
+     * @param totalCents      The sum of their amounts, in cents.
+     * @param category        The category the batch was added to, or empty for Overall.
+     * @param addedToCategory Whether the batch was also added to the category budget.
+     * @param message         A warning about the category, or empty.
+     */
+    public static void printAddExpenses(int count, long totalCents, String category, boolean addedToCategory,
+                                        String message) {
+        printSeparator();
+        System.out.println("Expenses Added: " + count + " expense(s) totalling " + Money.formatCurrency(totalCents));
+        if (!category.isEmpty()) {
+            if (!message.isEmpty()) {
+                System.out.println(message);
+            } else if (addedToCategory) {
+                System.out.println("Successfully added to category budget");
+            }
+        }
+        printSeparator();
+    }
+
+    /**
+     * Prints what an import added, and which lines of the file it skipped.
+     *
+     * @param fileName          The file imported from.
+     * @param importedCount     The number of expenses added.
+     * @param totalCents        The total amount of the expenses added, in cents.
+     * @param skippedCount      The number of lines skipped because they could not be read.
+     * @param skippedExamples   The first few skipped lines, with the reason.
+     * @param unknownCategories Categories in the file with no budget, whose expenses went to Overall only.
+     */
+    public static void printImportResult(String fileName, long importedCount, long totalCents, long skippedCount,
+                                         Collection<String> skippedExamples, Collection<String> unknownCategories) {
+        printSeparator();
+        System.out.println("Imported " + importedCount + " expense(s) totalling " + Money.formatCurrency(totalCents)
+                + " from " + fileName);
+        if (!unknownCategories.isEmpty()) {
+            System.out.println("Budget categories not found, added to Overall Budget: "
+                    + String.join(", ", unknownCategories));
+        }
+        if (skippedCount > 0) {
+            System.out.println("Skipped " + skippedCount + " line(s) that could not be read, such as:");
+            for (String example : skippedExamples) {
+                System.out.println("  " + example);
+            }
+        }
+        printSeparator();
+    }
+
     public static void printSetOverallBudget(double budget) {
         printSeparator();
         System.out.println("Overall Budget set to: $" + budget);
@@ -389,10 +510,12 @@ public class Ui {
     /**
      * Prints the budget summary for a specific category or overall budget.
      *
-     * @param category    The budget category to check (empty string for overall budget)
-     * @param totalBudget The Budget object containing the budget information
+     * @param category       The budget category to check (empty string for overall budget)
+     * @param limitCents     The budget limit, in cents
+     * @param spentCents     The total expenses, in cents
+     * @param remainingCents The amount left to spend, in cents
      */
-    public static void printCheckBudget(String category, double totalBudget, double spent, double remaining) {
+    public static void printCheckBudget(String category, long limitCents, long spentCents, long remainingCents) {
         printSeparator();
         if (category == null || category.trim().isEmpty()) {
             System.out.println("Overall Budget:");
@@ -400,9 +523,9 @@ public class Ui {
             System.out.println("Budget for " + category);
         }
 
-        System.out.println("\nTotal Budget: $" + String.format("%.2f", totalBudget));
-        System.out.println("Spent: $" + String.format("%.2f", spent));
-        System.out.println("Remaining: $" + String.format("%.2f", remaining));
+        System.out.println("\nTotal Budget: $" + Money.format(limitCents));
+        System.out.println("Spent: $" + Money.format(spentCents));
+        System.out.println("Remaining: $" + Money.format(remainingCents));
         printSeparator();
     }
 
@@ -496,13 +619,13 @@ public class Ui {
     /**
      * Prints a warning message when the total expenses have exceeded the budget limit for a given category.
      *
-     * @param totalExpense the total amount of expenses recorded
-     * @param limit        the budget limit set for the category
-     * @param category     the name of the budget category
+     * @param totalCents the total amount of expenses recorded, in cents
+     * @param limitCents the budget limit set for the category, in cents
+     * @param category   the name of the budget category
      */
-    public static void printBudgetExceeded(double totalExpense, double limit, String category) {
-        String formattedTotalExpense = String.format("$%,.2f", totalExpense);
-        String formattedLimit = String.format("$%,.2f", limit);
+    public static void printBudgetExceeded(long totalCents, long limitCents, String category) {
+        String formattedTotalExpense = Money.formatCurrency(totalCents);
+        String formattedLimit = Money.formatCurrency(limitCents);
         System.out.println("Warning: Your total expenses (" + formattedTotalExpense + ") have exceeded the budget " +
                 "limit for the '" + category + "' category (limit: " + formattedLimit + ")");
         printSeparator();
@@ -511,14 +634,14 @@ public class Ui {
     /**
      * Prints a warning message when the total expenses have exactly reached the budget limit for a given category.
      *
-     * @param totalExpense the total amount of expenses recorded
-     * @param limit        the budget limit set for the category
-     * @param category     the name of the budget category
+     * @param totalCents the total amount of expenses recorded, in cents
+     * @param limitCents the budget limit set for the category, in cents
+     * @param category   the name of the budget category
      */
-    public static void printBudgetReached(double totalExpense, double limit, String category) {
+    public static void printBudgetReached(long totalCents, long limitCents, String category) {
         printSeparator();
-        String formattedTotalExpense = String.format("$%,.2f", totalExpense);
-        String formattedLimit = String.format("$%,.2f", limit);
+        String formattedTotalExpense = Money.formatCurrency(totalCents);
+        String formattedLimit = Money.formatCurrency(limitCents);
         System.out.println("Warning: Your total expenses (" + formattedTotalExpense + ") have reached the budget " +
                 "limit for the '" + category + "' category (limit: " + formattedLimit + ")");
         printSeparator();
@@ -0,0 +1,105 @@
+package budgetbuddy;
+
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.storage.AutoSaver;
+import budgetbuddy.storage.Journal;
+import budgetbuddy.storage.StorageManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AutoSaverTest {
+    private Path directory;
+    private Path journalFile;
+    private BudgetManager manager;
+    private Journal journal;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("budgetbuddy-autosave");
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        journalFile = Path.of(dataPath + ".journal");
+        manager = new BudgetManager();
+        journal = StorageManager.openJournal(manager, dataPath);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void burstOfChanges_savedTogetherAfterQuietPeriod() throws Exception {
+        AutoSaver autoSaver = new AutoSaver(journal, 100, 10000);
+        for (int i = 0; i < 50; i++) {
+            manager.addExpenseToBudgetCents("", 100, "Item " + i, "Jan 01 2025 at 10:00");
+        }
+        assertEquals(0, Files.size(journalFile));
+
+        waitUntilSaved(5000);
+        assertEquals(50, Files.readAllLines(journalFile).size());
+        autoSaver.close();
+    }
+
+    @Test
+    public void steadyChanges_savedWithinMaximumDelay() throws Exception {
+        AutoSaver autoSaver = new AutoSaver(journal, 1000, 200);
+        long start = System.currentTimeMillis();
+        // Changes keep arriving faster than the quiet period, so only the maximum delay can trigger a save.
+        while (journal.getSavedGeneration() == 0 && System.currentTimeMillis() - start < 5000) {
+            manager.addExpenseToBudgetCents("", 100, "Tick", "Jan 01 2025 at 10:00");
+            Thread.sleep(20);
+        }
+        assertTrue(journal.getSavedGeneration() > 0);
+        assertTrue(Files.size(journalFile) > 0);
+        autoSaver.close();
+    }
+
+    @Test
+    public void close_pendingChanges_saved() throws Exception {
+        AutoSaver autoSaver = new AutoSaver(journal, 10000, 10000);
+        manager.setBudget("Food", 100);
+        autoSaver.close();
+
+        assertEquals(journal.getGeneration(), journal.getSavedGeneration());
+        assertEquals(1, Files.readAllLines(journalFile).size());
+    }
+
+    @Test
+    public void manyPendingRecords_savedWithoutWaitingForDelays() throws Exception {
+        AutoSaver autoSaver = new AutoSaver(journal, 60000, 60000, 20);
+        for (int i = 0; i < 20; i++) {
+            manager.addExpenseToBudgetCents("", 100, "Item " + i, "Jan 01 2025 at 10:00");
+        }
+
+        waitUntilSaved(5000);
+        assertEquals(20, Files.readAllLines(journalFile).size());
+        autoSaver.close();
+    }
+
+    @Test
+    public void constructor_nonPositiveDelay_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new AutoSaver(journal, 0, 100));
+    }
+
+    private void waitUntilSaved(long timeoutMillis) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (journal.getSavedGeneration() < journal.getGeneration()
+                && System.currentTimeMillis() - start < timeoutMillis) {
+            Thread.sleep(10);
+        }
+    }
+}
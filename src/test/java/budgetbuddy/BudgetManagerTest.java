@@ -2,10 +2,14 @@ package budgetbuddy;
 
 import budgetbuddy.model.Budget;
 import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import budgetbuddy.exception.InvalidInputException;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -129,4 +133,76 @@ public class BudgetManagerTest {
         );
     }
 
+    @Test
+    public void testDeleteExpense_categoryExpense_removedFromCategoryById() throws InvalidInputException {
+        budgetManager.setBudget("Food", 500);
+        budgetManager.setBudget("Transport", 500);
+        budgetManager.addExpenseToBudget("Food", 50, "Lunch", "Oct 05 2025 at 12:30");
+        budgetManager.addExpenseToBudget("Transport", 20, "Bus", "Oct 06 2025 at 08:00");
+        Expense bus = budgetManager.getBudgets().get("Overall").getExpenses().get(1);
+
+        budgetManager.deleteExpense(1);
+
+        assertNull(budgetManager.getExpenseById(bus.getId()), "Deleted expense should leave the ID index");
+        assertEquals(0, budgetManager.getBudgets().get("Transport").getExpenseCount());
+        assertEquals(50, budgetManager.getBudgets().get("Food").getTotalExpenses());
+        assertEquals(50, budgetManager.getTotalExpenses());
+    }
+
+    @Test
+    public void testEditExpense_categoryExpense_bothBudgetsUpdated() throws InvalidInputException {
+        budgetManager.setBudget("Food", 500);
+        budgetManager.addExpenseToBudget("Food", 50, "Lunch", "Oct 05 2025 at 12:30");
+        budgetManager.addExpenseToBudget("", 20, "Bus", "Oct 06 2025 at 08:00");
+
+        budgetManager.editExpense(2, "80", "", "Oct 07 2025 at 12:30");
+
+        assertEquals(80, budgetManager.getBudgets().get("Food").getTotalExpenses());
+        assertEquals(100, budgetManager.getTotalExpenses());
+        assertEquals("Lunch", budgetManager.getBudgets().get("Overall").getExpenses().get(1).getDescription(),
+                "Edited expense should move to its new position in time order");
+    }
+
+    @Test
+    public void testAddExpenses_batchUnderCategory_addedToBothBudgets() {
+        budgetManager.setBudget("Food", 500);
+        budgetManager.addExpenses("Food", List.of(new Expense(12.0, "Lunch"), new Expense(8.0, "Dinner")));
+        budgetManager.addExpenses("Rent", List.of(new Expense(900.0, "March rent")));
+
+        assertEquals(2, budgetManager.getBudgets().get("Food").getExpenseCount());
+        assertEquals(20, budgetManager.getBudgets().get("Food").getTotalExpenses());
+        assertEquals(3, budgetManager.getBudgets().get("Overall").getExpenseCount());
+        assertNull(budgetManager.getBudgets().get("Rent"));
+    }
+
+    @Test
+    public void testDisplayIndex_categoryBudgets_matchCategoryListing() throws InvalidInputException {
+        budgetManager.setBudget("Food", 500);
+        budgetManager.setBudget("Travel", 500);
+        String[] categories = {"Food", "Travel", ""};
+        Random random = new Random(7);
+        for (int i = 0; i < 600; i++) {
+            int expenseCount = budgetManager.getBudgets().get("Overall").getExpenseCount();
+            int operation = random.nextInt(5);
+            String time = String.format("Mar %02d 2025 at %02d:00", random.nextInt(28) + 1, random.nextInt(24));
+            if (operation == 0 && expenseCount > 0) {
+                budgetManager.deleteExpense(random.nextInt(expenseCount) + 1);
+            } else if (operation == 1 && expenseCount > 0) {
+                budgetManager.editExpense(random.nextInt(expenseCount) + 1, "", "", time);
+            } else {
+                budgetManager.addExpenseToBudgetCents(categories[random.nextInt(3)], 100, "Item " + i, time);
+            }
+        }
+
+        for (String category : new String[]{"Food", "Travel"}) {
+            Budget budget = budgetManager.getBudgets().get(category);
+            List<Expense> oldestFirst = budget.getExpenses();
+            assertEquals(oldestFirst.size(), budget.getExpenseCount());
+            for (int index = 1; index <= oldestFirst.size(); index++) {
+                Expense expected = oldestFirst.get(oldestFirst.size() - index);
+                assertEquals(expected.getId(), budget.getExpenseAtDisplayIndex(index).getId());
+                assertEquals(index, budget.getDisplayIndex(expected));
+            }
+        }
+    }
 }
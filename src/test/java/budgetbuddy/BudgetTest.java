@@ -3,11 +3,22 @@ package budgetbuddy;
 import budgetbuddy.exception.InvalidInputException;
 import budgetbuddy.model.Budget;
 import budgetbuddy.model.Expense;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BudgetTest {
 
@@ -20,6 +31,12 @@ class BudgetTest {
         budget = new Budget("Food", 100.0);
         expense1 = new Expense(20.0, "Groceries");
         expense2 = new Expense(30.0, "Dinner");
+        Budget.setConsistencyCheckEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Budget.setConsistencyCheckEnabled(false);
     }
 
     @Test
@@ -101,4 +118,148 @@ class BudgetTest {
         Budget noLimitBudget = new Budget("Entertainment", 0.0);
         assertEquals(0.0, noLimitBudget.getRemainingBudget(), 0.01);
     }
+
+    @Test
+    void testRunningAggregates_addAndRemove_matchRecomputedValues() {
+        Expense expense3 = new Expense(5.0, "Snack");
+        budget.addExpense(expense1);
+        budget.addExpense(expense2);
+        budget.addExpense(expense3);
+        assertEquals(3, budget.getExpenseCount());
+        assertEquals(5.0, budget.getMinExpense(), 0.01);
+        assertEquals(30.0, budget.getMaxExpense(), 0.01);
+
+        budget.removeExpense(expense3);
+        budget.removeExpense(expense2);
+        assertEquals(20.0, budget.getTotalExpenses(), 0.01);
+        assertEquals(20.0, budget.getMinExpense(), 0.01);
+        assertEquals(20.0, budget.getMaxExpense(), 0.01);
+        budget.verifyAggregates();
+    }
+
+    @Test
+    void testVerifyAggregates_innerAndExtremeRemoved_minAndMaxChecked() {
+        Expense expense3 = new Expense(5.0, "Snack");
+        budget.addExpense(expense1);
+        budget.addExpense(expense2);
+        budget.addExpense(expense3);
+
+        budget.removeExpense(expense1);
+        budget.verifyAggregates();
+        budget.removeExpense(expense2);
+        budget.verifyAggregates();
+        assertEquals(5.0, budget.getMaxExpense(), 0.01);
+        budget.verifyAggregates();
+    }
+
+    @Test
+    void testGetExpenses_outOfOrderAdds_chronologicalOrder() {
+        Expense later = new Expense(10.0, "Taxi", "Oct 05 2025 at 12:30");
+        Expense earlier = new Expense(15.0, "Bus", "Oct 04 2025 at 08:00");
+        budget.addExpense(later);
+        budget.addExpense(earlier);
+        assertEquals(earlier, budget.getExpenses().get(0));
+        assertEquals(later, budget.getExpenses().get(1));
+    }
+
+    @Test
+    void testUpdateExpense_amountEdited_aggregatesFollow() {
+        budget.addExpense(expense1);
+        budget.addExpense(expense2);
+        expense1.editExpense("45", "", "");
+        budget.updateExpense(expense1);
+
+        assertEquals(75.0, budget.getTotalExpenses());
+        assertEquals(45.0, budget.getMaxExpense());
+        assertEquals(45.0, budget.getExpenses().get(0).getAmount());
+        budget.verifyAggregates();
+    }
+
+    @Test
+    void testGetExpensesBetween_inclusiveMinuteBounds_onlyRangeReturned() {
+        Expense before = new Expense(1.0, "Before", LocalDateTime.of(2025, 3, 1, 11, 59));
+        Expense atStart = new Expense(2.0, "Start", LocalDateTime.of(2025, 3, 1, 12, 0));
+        Expense atEnd = new Expense(3.0, "End", LocalDateTime.of(2025, 3, 7, 12, 0, 30));
+        Expense after = new Expense(4.0, "After", LocalDateTime.of(2025, 3, 7, 12, 1));
+        budget.addExpense(after);
+        budget.addExpense(atEnd);
+        budget.addExpense(before);
+        budget.addExpense(atStart);
+
+        List<Expense> range = budget.getExpensesBetween(LocalDateTime.of(2025, 3, 1, 12, 0),
+                LocalDateTime.of(2025, 3, 7, 12, 0));
+
+        assertEquals(2, range.size());
+        assertEquals(atStart, range.get(0));
+        assertEquals(atEnd, range.get(1));
+        assertEquals(2, budget.getDisplayIndex(atEnd));
+        assertEquals(4, budget.getExpensesBetween(null, null).size());
+    }
+
+    @Test
+    void testDisplayIndex_randomAddsDeletesAndEdits_matchesSortedList() throws InvalidInputException {
+        Random random = new Random(42);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("MMM dd yyyy 'at' HH:mm");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ArrayList<Expense> newestFirst = new ArrayList<>();
+        Comparator<Expense> byRecency = Comparator.comparing(Expense::getDateTime)
+                .thenComparing(Expense::getId).reversed();
+        for (int i = 0; i < 1500; i++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 && !newestFirst.isEmpty()) {
+                int index = random.nextInt(newestFirst.size()) + 1;
+                assertEquals(newestFirst.remove(index - 1), budget.getExpenseAtDisplayIndex(index));
+                budget.deleteExpense(index);
+            } else if (operation == 1 && !newestFirst.isEmpty()) {
+                Expense expense = budget.getExpenseAtDisplayIndex(random.nextInt(newestFirst.size()) + 1);
+                newestFirst.remove(expense);
+                expense.editExpense("", "", start.plusMinutes(random.nextInt(500)).format(format));
+                budget.updateExpense(expense);
+                newestFirst.add(expense);
+            } else {
+                Expense expense = new Expense(1.0, "Item " + i, start.plusMinutes(random.nextInt(500)));
+                budget.addExpense(expense);
+                newestFirst.add(expense);
+            }
+            newestFirst.sort(byRecency);
+        }
+
+        assertEquals(newestFirst.size(), budget.getExpenseCount());
+        for (int index = 1; index <= newestFirst.size(); index++) {
+            assertEquals(newestFirst.get(index - 1), budget.getExpenseAtDisplayIndex(index));
+            assertEquals(index, budget.getDisplayIndex(newestFirst.get(index - 1)));
+        }
+    }
+
+    @Test
+    void testAddExpense_manyExpenses_tenMillionFitUnderOneGigabyteOfHeap() {
+        Budget.setConsistencyCheckEnabled(false); // a full recount per add would make this quadratic
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        int expenseCount = 500_000;
+        long heapBefore = usedHeapAfterGc();
+        for (int i = 0; i < expenseCount; i++) {
+            budget.addExpense(new Expense(i % 100, "Item " + (i % 50), start.plusMinutes(i)));
+        }
+        long heapAfter = usedHeapAfterGc();
+
+        assertEquals(expenseCount, budget.getExpenseCount());
+        long bytesPerExpense = (heapAfter - heapBefore) / expenseCount;
+        assertTrue(bytesPerExpense * 10_000_000L < 1_000_000_000L, bytesPerExpense + " bytes per expense");
+    }
+
+    // Measures the live heap, collecting until the figure settles so that garbage from earlier tests is not
+    // counted.
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
 }
@@ -1,12 +1,16 @@
 package budgetbuddy;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import budgetbuddy.model.BudgetManager;
 import budgetbuddy.model.Expense;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+
 public class ExpenseTest {
 
     @Test
@@ -54,4 +58,25 @@ public class ExpenseTest {
         assertTrue(result.contains("Dinner"), "The string should contain the description");
     }
 
+    @Test
+    public void testId_newExpenses_uniqueAndAfterRestoredIds() {
+        Expense restored = new Expense(1_000_000L, 500, "Coffee", LocalDateTime.now());
+        new BudgetManager().restoreExpense("Overall", restored);
+        Expense first = new Expense(10.0, "Lunch");
+        Expense second = new Expense(10.0, "Lunch");
+
+        assertEquals(1_000_000L, restored.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertTrue(first.getId() > restored.getId(), "New IDs must not collide with restored ones");
+    }
+
+    @Test
+    public void testId_persistedExpenseViewed_counterNotAdvanced() {
+        long nextId = Expense.reserveIdsFrom(0);
+        Expense view = new Expense(nextId + 1_000_000L, 500, "Coffee", LocalDateTime.now());
+
+        assertEquals(nextId + 1_000_000L, view.getId());
+        assertEquals(nextId, Expense.reserveIdsFrom(0));
+    }
+
 }
@@ -0,0 +1,327 @@
+package budgetbuddy;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.model.StringDictionary;
+import budgetbuddy.storage.Durability;
+import budgetbuddy.storage.Journal;
+import budgetbuddy.storage.StorageManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalTest {
+    private Path directory;
+    private String dataPath;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("budgetbuddy-journal");
+        dataPath = directory.resolve("budget_data.bin").toString();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        StorageManager.setDurability(Durability.BATCH);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void openJournal_changesWithoutSave_replayedOnNextLoad() throws InvalidInputException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        makeChanges(manager);
+        journal.close(); // Stops without a snapshot, as after a crash
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        assertSameData(manager, reloaded);
+        assertEquals(3, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertTrue(reloaded.categoryExists("Meals"));
+        assertFalse(reloaded.categoryExists("Food"));
+        assertEquals("Dinner", reloaded.getBudgets().get("Overall").getExpenseAtDisplayIndex(1).getDescription());
+    }
+
+    @Test
+    public void compact_staleJournalLeftBehind_recordsNotAppliedTwice() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        makeChanges(manager);
+        Path journalFile = Path.of(dataPath + ".journal");
+        byte[] records = Files.readAllBytes(journalFile);
+
+        journal.compact();
+        journal.close();
+        assertEquals(0, Files.size(journalFile));
+
+        // A crash between writing the snapshot and emptying the journal leaves both behind.
+        Files.write(journalFile, records);
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        assertSameData(manager, reloaded);
+    }
+
+    @Test
+    public void append_thresholdReached_journalFoldedIntoSnapshot() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        for (int i = 0; i < Journal.COMPACTION_THRESHOLD; i++) {
+            manager.addExpenseToBudgetCents("", 100, "Snack " + i, "Jan 01 2025 at 10:00");
+        }
+        journal.close();
+
+        assertEquals(0, Files.size(Path.of(dataPath + ".journal")));
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        assertSameData(manager, reloaded);
+    }
+
+    @Test
+    public void append_largeSnapshot_journalGrowsWithIt() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        for (int batch = 0; batch < 7; batch++) {
+            ArrayList<Expense> expenses = new ArrayList<>();
+            for (int i = 0; i < Journal.COMPACTION_THRESHOLD / 2; i++) {
+                expenses.add(Expense.ofCents(100, StringDictionary.intern("Snack " + i),
+                        LocalDateTime.of(2026, 9, 1, 10, 0)));
+            }
+            manager.addExpenses(Map.of("", expenses));
+        }
+        journal.flush();
+
+        // Folded in at 1000 and 2000 records; the next snapshot is due once the journal holds 2000.
+        assertEquals(Journal.COMPACTION_THRESHOLD * 3 / 2, Files.readAllLines(Path.of(dataPath + ".journal")).size());
+        journal.close();
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        assertSameData(manager, reloaded);
+    }
+
+    @Test
+    public void commit_strictDurability_recordsOfCommandOnDiskAtOnce() throws IOException {
+        StorageManager.setDurability(Durability.STRICT);
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        Path journalFile = Path.of(dataPath + ".journal");
+
+        manager.setBudget("Food", 300);
+        assertEquals(0, Files.size(journalFile));
+        journal.commit();
+        assertEquals(1, Files.readAllLines(journalFile).size());
+        assertEquals(journal.getGeneration(), journal.getSavedGeneration());
+        journal.close();
+    }
+
+    @Test
+    public void commit_batchDurability_leftToAutoSaver() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+
+        manager.setBudget("Food", 300);
+        journal.commit();
+        assertEquals(0, Files.size(Path.of(dataPath + ".journal")));
+        journal.close();
+    }
+
+    @Test
+    public void replay_tornLastRecord_cutOffAndEarlierRecordsKept() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        makeChanges(manager);
+        journal.close();
+        Path journalFile = Path.of(dataPath + ".journal");
+        long intactSize = Files.size(journalFile);
+
+        // A crash in the middle of a write leaves part of a record behind.
+        Files.write(journalFile, "1f2e3d4c E:7|12".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        assertSameData(manager, reloaded);
+        assertEquals(intactSize, Files.size(journalFile));
+    }
+
+    @Test
+    public void replay_corruptedRecordInMiddle_skippedAndLaterRecordsApplied() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        Journal journal = StorageManager.openJournal(manager, dataPath);
+        manager.setBudget("Food", 300);
+        manager.setBudget("Travel", 120);
+        manager.setBudget("Rent", 900);
+        journal.close();
+        Path journalFile = Path.of(dataPath + ".journal");
+        List<String> lines = Files.readAllLines(journalFile);
+
+        String damaged = lines.get(1).replace("Travel", "Trovel");
+        lines.set(1, damaged);
+        Files.write(journalFile, lines);
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        assertTrue(reloaded.categoryExists("Food"));
+        assertFalse(reloaded.categoryExists("Travel"));
+        assertFalse(reloaded.categoryExists("Trovel"));
+        assertEquals(90000, reloaded.getBudgets().get("Rent").getLimitCents());
+    }
+
+    @Test
+    public void applyExternalChanges_twoJournalsOnSameData_eachSeesTheOther() throws IOException {
+        BudgetManager first = new BudgetManager();
+        Journal firstJournal = StorageManager.openJournal(first, dataPath);
+        BudgetManager second = new BudgetManager();
+        Journal secondJournal = StorageManager.openJournal(second, dataPath);
+
+        first.addExpenseToBudgetCents("", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        firstJournal.flush();
+        second.addExpenseToBudgetCents("", 400, "Bus", "Mar 02 2025 at 08:00");
+        secondJournal.flush();
+        assertEquals(1, secondJournal.applyExternalChanges());
+        assertEquals(1, firstJournal.applyExternalChanges());
+        assertEquals(0, firstJournal.applyExternalChanges());
+        assertEquals(1650, first.getTotalExpensesCents());
+        assertEquals(1650, second.getTotalExpensesCents());
+
+        // Neither replaces the data file while the other has it open.
+        firstJournal.compact();
+        StorageManager.save(new BudgetManager(), dataPath);
+        assertFalse(Files.exists(Path.of(dataPath)));
+        secondJournal.close();
+        firstJournal.compact();
+        assertTrue(Files.exists(Path.of(dataPath)));
+        assertEquals(0, Files.size(Path.of(dataPath + ".journal")));
+        firstJournal.close();
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        assertEquals(1650, reloaded.getTotalExpensesCents());
+        assertEquals(2, reloaded.getBudgets().get("Overall").getExpenseCount());
+    }
+
+    @Test
+    public void applyExternalChanges_foreignExpenseViewed_eachKeepsItsOwnIds() {
+        BudgetManager first = new BudgetManager();
+        Journal firstJournal = StorageManager.openJournal(first, dataPath);
+        BudgetManager second = new BudgetManager();
+        Journal secondJournal = StorageManager.openJournal(second, dataPath);
+
+        // Both share this JVM's ID counter, so it is moved to whichever manager acts, as if each were a process
+        // with its own range of IDs.
+        long secondNextId = Expense.reserveIdsFrom(0);
+        long firstNextId = secondNextId + 1_000_000L;
+        Expense.resumeIdsAt(firstNextId);
+        first.addExpenseToBudgetCents("", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        firstJournal.flush();
+        Expense.resumeIdsAt(secondNextId);
+        assertEquals(1, secondJournal.applyExternalChanges());
+        second.listAllExpenses();
+        assertEquals(firstNextId, second.getBudgets().get("Overall").getExpenses().get(0).getId());
+        assertEquals(secondNextId, Expense.reserveIdsFrom(0));
+
+        second.addExpenseToBudgetCents("", 400, "Bus", "Mar 02 2025 at 08:00");
+        secondJournal.flush();
+        Expense.resumeIdsAt(firstNextId + 1);
+        first.addExpenseToBudgetCents("", 300, "Tea", "Mar 03 2025 at 15:00");
+        firstJournal.flush();
+        assertEquals(1, secondJournal.applyExternalChanges());
+        assertEquals(1, firstJournal.applyExternalChanges());
+
+        for (BudgetManager manager : List.of(first, second)) {
+            List<Expense> expenses = manager.getBudgets().get("Overall").getExpenses();
+            assertEquals(3, expenses.stream().map(Expense::getId).distinct().count());
+            assertEquals(1950, manager.getTotalExpensesCents());
+        }
+        secondJournal.close();
+        firstJournal.close();
+    }
+
+    @Test
+    public void replay_interleavedRecordsOfTwoJournals_allApplied() {
+        BudgetManager first = new BudgetManager();
+        Journal firstJournal = StorageManager.openJournal(first, dataPath);
+        BudgetManager second = new BudgetManager();
+        Journal secondJournal = StorageManager.openJournal(second, dataPath);
+
+        // Both number their records from 1, as neither has seen the other's.
+        first.addExpenseToBudgetCents("", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        first.addExpenseToBudgetCents("", 300, "Coffee", "Mar 01 2025 at 15:00");
+        firstJournal.flush();
+        second.addExpenseToBudgetCents("", 400, "Bus", "Mar 02 2025 at 08:00");
+        secondJournal.close();
+        firstJournal.close();
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        assertEquals(3, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(1950, reloaded.getTotalExpensesCents());
+    }
+
+    @Test
+    public void load_binaryFileWithFlippedByte_rejected() throws IOException {
+        BudgetManager manager = new BudgetManager();
+        manager.addExpenseToBudgetCents("", 100, "Snack", "");
+        StorageManager.save(manager, dataPath);
+        byte[] bytes = Files.readAllBytes(Path.of(dataPath));
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(Path.of(dataPath), bytes);
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        assertEquals(0, reloaded.getBudgets().get("Overall").getExpenseCount());
+    }
+
+    private static void makeChanges(BudgetManager manager) {
+        try {
+            manager.setBudget("Food", 300);
+            manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Mar 01 2025 at 12:00");
+            manager.addExpenseToBudgetCents("", 4000, "Taxi", "Mar 02 2025 at 08:30");
+            manager.addExpenseToBudgetCents("Food", 999, "Snack", "Mar 03 2025 at 16:00");
+            manager.addExpenseToBudgetCents("", 500, "Gum", "Mar 03 2025 at 17:00");
+            manager.editExpense(1, "30", "Dinner", "");
+            manager.deleteExpense(2);
+            manager.addRecurringRule("Food", new RecurringRule(700, "Coffee",
+                    LocalDateTime.of(2025, 3, 1, 9, 0), 7, 4));
+            manager.editBudget("Food", 250, "Meals");
+            manager.setBudgetAlert(80);
+        } catch (InvalidInputException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertSameData(BudgetManager expected, BudgetManager actual) {
+        assertEquals(expected.getBudgets().keySet(), actual.getBudgets().keySet());
+        for (String category : expected.getBudgets().keySet()) {
+            assertEquals(expected.getBudgets().get(category).getLimitCents(),
+                    actual.getBudgets().get(category).getLimitCents());
+            assertEquals(expected.getBudgets().get(category).getExpenses().toString(),
+                    actual.getBudgets().get(category).getExpenses().toString());
+            assertEquals(expected.getBudgets().get(category).getRecurringRules().toString(),
+                    actual.getBudgets().get(category).getRecurringRules().toString());
+        }
+        assertEquals(expected.getTotalExpensesCents(), actual.getTotalExpensesCents());
+        assertEquals(expected.getBudgetAlert().getAlertCents(), actual.getBudgetAlert().getAlertCents());
+    }
+}
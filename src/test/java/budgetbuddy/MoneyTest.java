@@ -0,0 +1,69 @@
+package budgetbuddy;
+
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    @Test
+    public void parseCents_plainDecimals_exactCents() {
+        assertEquals(1200, Money.parseCents("12"));
+        assertEquals(1250, Money.parseCents("12.5"));
+        assertEquals(1205, Money.parseCents("12.05"));
+        assertEquals(25, Money.parseCents(".25"));
+        assertEquals(1200, Money.parseCents("12."));
+        assertEquals(-25, Money.parseCents("-0.25"));
+    }
+
+    @Test
+    public void parseCents_extraDecimals_roundedHalfUp() {
+        assertEquals(1235, Money.parseCents("12.345"));
+        assertEquals(1234, Money.parseCents("12.3449"));
+        assertEquals(1300, Money.parseCents("12.995"));
+    }
+
+    @Test
+    public void parseCents_notPlainDecimal_exceptionThrown() {
+        assertThrows(NumberFormatException.class, () -> Money.parseCents(""));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("."));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("1e3"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("NaN"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("1,000"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("99999999999999999999"));
+    }
+
+    @Test
+    public void parseCents_largestUnits_exactOrRejected() {
+        assertEquals(9223372036854775700L, Money.parseCents("92233720368547757"));
+        assertEquals(9223372036854775799L, Money.parseCents("92233720368547757.99"));
+        assertEquals(-9223372036854775700L, Money.parseCents("-92233720368547757"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("92233720368547758"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("92233720368547759"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCents("-92233720368547759"));
+    }
+
+    @Test
+    public void format_cents_twoDecimalPlaces() {
+        assertEquals("0.05", Money.format(5));
+        assertEquals("1234567.80", Money.format(123456780));
+        assertEquals("-1.50", Money.format(-150));
+        assertEquals("$1,234,567.80", Money.formatCurrency(123456780));
+        assertEquals("$999.00", Money.formatCurrency(99900));
+        assertEquals("$-1,000.01", Money.formatCurrency(-100001));
+    }
+
+    @Test
+    public void getTotalExpensesCents_decimalAmounts_exactTotal() {
+        Budget budget = new Budget("Overall", 0.30);
+        budget.addExpense(new Expense(0.10, "Sweet"));
+        budget.addExpense(new Expense(0.20, "Gum"));
+
+        assertEquals(30, budget.getTotalExpensesCents());
+        assertEquals(budget.getLimitCents(), budget.getTotalExpensesCents());
+    }
+}
@@ -0,0 +1,76 @@
+package budgetbuddy;
+
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.RecurringRule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecurringRuleTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    public void countOccurrencesBetween_inclusiveBounds_matchesIteration() {
+        RecurringRule rule = new RecurringRule(500, "Rent share", START, 7, 20);
+        LocalDateTime from = START.plusDays(14);
+        LocalDateTime to = START.plusDays(70);
+
+        int iterated = 0;
+        for (Iterator<LocalDateTime> it = rule.occurrencesBetween(from, to); it.hasNext(); it.next()) {
+            iterated++;
+        }
+
+        assertEquals(9, rule.countOccurrencesBetween(from, to));
+        assertEquals(iterated, rule.countOccurrencesBetween(from, to));
+        assertEquals(20, rule.countOccurrencesBetween(null, null));
+        assertEquals(0, rule.countOccurrencesBetween(START.plusYears(1), null));
+        assertEquals(1, rule.countOccurrencesBetween(null, START));
+    }
+
+    @Test
+    public void occurrencesBetween_rangeInMiddle_startsAtFirstOccurrenceInRange() {
+        RecurringRule rule = new RecurringRule(100, "Bus pass", START, 30, 10);
+        Iterator<LocalDateTime> occurrences = rule.occurrencesBetween(START.plusDays(31), START.plusDays(90));
+
+        assertEquals(START.plusDays(60), occurrences.next());
+        assertEquals(START.plusDays(90), occurrences.next());
+        assertFalse(occurrences.hasNext());
+    }
+
+    @Test
+    public void getTotalCents_tenYearsDaily_closedForm() {
+        RecurringRule rule = new RecurringRule(250, "Coffee", START, 1, 3650);
+        assertEquals(912_500, rule.getTotalCents());
+        assertEquals(START.plusDays(3649), rule.getOccurrenceTime(3649));
+    }
+
+    @Test
+    public void constructor_zeroInterval_exceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> new RecurringRule(100, "Gym", START, 0, 3));
+    }
+
+    @Test
+    public void addRecurringRule_overAlert_alertAndTotalsIncludeOccurrences() {
+        BudgetManager manager = new BudgetManager();
+        manager.setBudgetAlert(100);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            manager.addRecurringRule("", new RecurringRule(1000, "Gym", START, 7, 12));
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertEquals(120.0, manager.getTotalExpenses());
+        assertTrue(output.toString().contains("alert limit"), output.toString());
+    }
+}
@@ -0,0 +1,263 @@
+package budgetbuddy;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.storage.JournalBackend;
+import budgetbuddy.storage.MemoryBackend;
+import budgetbuddy.storage.StorageBackend;
+import budgetbuddy.storage.StorageManager;
+import budgetbuddy.storage.TextBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every {@link StorageBackend} keeps the same data. Each test runs against every backend.
+ */
+public class StorageBackendTest {
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("budgetbuddy-backend");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void close_thenLoad_restoresEverything() {
+        for (Map.Entry<String, Supplier<StorageBackend>> store : stores().entrySet()) {
+            BudgetManager manager = new BudgetManager();
+            StorageBackend backend = store.getValue().get();
+            backend.load(manager);
+            makeChanges(manager);
+            backend.close();
+
+            assertSameData(store.getKey(), manager, reload(store.getValue()));
+        }
+    }
+
+    @Test
+    public void save_thenMoreChanges_allKept() throws InvalidInputException {
+        for (Map.Entry<String, Supplier<StorageBackend>> store : stores().entrySet()) {
+            BudgetManager manager = new BudgetManager();
+            StorageBackend backend = store.getValue().get();
+            backend.load(manager);
+            makeChanges(manager);
+            backend.save();
+            manager.deleteExpense(1);
+            manager.setBudget("Rent", 900);
+            backend.commit();
+            backend.close();
+
+            BudgetManager reloaded = reload(store.getValue());
+            assertSameData(store.getKey(), manager, reloaded);
+            assertTrue(reloaded.categoryExists("Rent"), store.getKey());
+        }
+    }
+
+    @Test
+    public void load_emptyStore_onlyOverallBudget() {
+        for (Map.Entry<String, Supplier<StorageBackend>> store : stores().entrySet()) {
+            BudgetManager reloaded = reload(store.getValue());
+
+            assertEquals(1, reloaded.getBudgets().size(), store.getKey());
+            assertEquals(0, reloaded.getTotalExpensesCents(), store.getKey());
+        }
+    }
+
+    @Test
+    public void close_laterChanges_notKept() {
+        for (Map.Entry<String, Supplier<StorageBackend>> store : stores().entrySet()) {
+            BudgetManager manager = new BudgetManager();
+            StorageBackend backend = store.getValue().get();
+            backend.load(manager);
+            manager.setBudget("Food", 300);
+            backend.close();
+            manager.setBudget("Travel", 120);
+
+            BudgetManager reloaded = reload(store.getValue());
+            assertTrue(reloaded.categoryExists("Food"), store.getKey());
+            assertFalse(reloaded.categoryExists("Travel"), store.getKey());
+        }
+    }
+
+    @Test
+    public void refresh_binaryStoreOpenTwice_changesOfTheOtherApplied() {
+        String binaryPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager first = new BudgetManager();
+        JournalBackend firstBackend = new JournalBackend(binaryPath);
+        firstBackend.load(first);
+        BudgetManager second = new BudgetManager();
+        JournalBackend secondBackend = new JournalBackend(binaryPath);
+        secondBackend.load(second);
+
+        first.setBudget("Food", 300);
+        first.addExpenseToBudgetCents("Food", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        firstBackend.save();
+        secondBackend.refresh();
+        assertTrue(second.categoryExists("Food"));
+        assertEquals(1250, second.getBudgets().get("Food").getTotalExpensesCents());
+
+        second.addExpenseToBudgetCents("", 400, "Bus", "Mar 02 2025 at 08:00");
+        secondBackend.close();
+        firstBackend.close();
+        BudgetManager reloaded = reload(() -> new JournalBackend(binaryPath));
+        assertEquals(1650, reloaded.getTotalExpensesCents());
+        assertEquals(2, reloaded.getBudgets().get("Overall").getExpenseCount());
+    }
+
+    @Test
+    public void close_textStore_eachExpenseWrittenOnceWithCategory() throws IOException {
+        Path textPath = directory.resolve("budget_data.txt");
+        BudgetManager manager = new BudgetManager();
+        TextBackend backend = new TextBackend(textPath.toString());
+        backend.load(manager);
+        makeChanges(manager);
+        backend.close();
+
+        List<String> expenseLines = Files.readAllLines(textPath).stream()
+                .filter(line -> line.startsWith("EXPENSE:")).collect(Collectors.toList());
+        assertEquals(manager.getBudgets().get("Overall").getExpenseCount(), expenseLines.size());
+        long categorised = 0;
+        for (Budget budget : manager.getBudgets().values()) {
+            if (!budget.getCategory().equals("Overall")) {
+                assertEquals(budget.getExpenseCount(), countEndingWith(expenseLines, "|" + budget.getCategory()));
+                categorised += budget.getExpenseCount();
+            }
+        }
+        assertEquals(expenseLines.size() - categorised, countEndingWith(expenseLines, "|Overall"));
+    }
+
+    @Test
+    public void load_textFileWithCategoryFields_categoriesKept() throws IOException {
+        Path textPath = directory.resolve("budget_data.txt");
+        Files.write(textPath, List.of(
+                "CATEGORY:Overall|LIMIT:500.00",
+                "CATEGORY:Food|LIMIT:100.00",
+                "EXPENSE:12.50|Lunch|Mar 01 2025 at 12:00|7|Food",
+                "EXPENSE:3.00|Bus|Mar 01 2025 at 08:00|8|Overall",
+                "RECURRING:20.00|Gym|Jan 01 2025 at 07:00|30|12|3|Food"));
+
+        BudgetManager reloaded = reload(() -> new TextBackend(textPath.toString()));
+
+        assertEquals(2, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(1, reloaded.getBudgets().get("Food").getExpenseCount());
+        assertEquals("Lunch", reloaded.getBudgets().get("Food").getExpenses().get(0).getDescription());
+        assertEquals(1, reloaded.getBudgets().get("Food").getRecurringRules().size());
+        assertEquals(10000, reloaded.getBudgets().get("Food").getLimitCents());
+    }
+
+    @Test
+    public void load_textFileListingExpensesUnderEachBudget_categoriesKept() throws IOException {
+        Path textPath = directory.resolve("budget_data.txt");
+        Files.write(textPath, List.of(
+                "CATEGORY:Overall|LIMIT:500.00",
+                "EXPENSE:12.50|Lunch|Mar 01 2025 at 12:00|7",
+                "EXPENSE:3.00|Bus|Mar 01 2025 at 08:00|8",
+                "RECURRING:20.00|Gym|Jan 01 2025 at 07:00|30|12|3",
+                "CATEGORY:Food|LIMIT:100.00",
+                "EXPENSE:12.50|Lunch|Mar 01 2025 at 12:00|7",
+                "RECURRING:20.00|Gym|Jan 01 2025 at 07:00|30|12|3"));
+
+        BudgetManager reloaded = reload(() -> new TextBackend(textPath.toString()));
+
+        assertEquals(2, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(1, reloaded.getBudgets().get("Food").getExpenseCount());
+        assertEquals("Lunch", reloaded.getBudgets().get("Food").getExpenses().get(0).getDescription());
+        assertEquals(1, reloaded.getBudgets().get("Food").getRecurringRules().size());
+        assertEquals(1, reloaded.getBudgets().get("Overall").getRecurringRules().size());
+    }
+
+    @Test
+    public void createBackend_unknownName_rejected() {
+        assertTrue(StorageManager.createBackend("Memory") instanceof MemoryBackend);
+        assertThrows(IllegalArgumentException.class, () -> StorageManager.createBackend("floppy"));
+    }
+
+    /**
+     * Returns a fresh store per backend, by name, as a source of backends for it. Backends of the same store
+     * see the same data.
+     */
+    private Map<String, Supplier<StorageBackend>> stores() {
+        LinkedHashMap<String, Supplier<StorageBackend>> stores = new LinkedHashMap<>();
+        MemoryBackend memory = new MemoryBackend();
+        stores.put("memory", () -> memory);
+        String textPath = directory.resolve("budget_data.txt").toString();
+        stores.put("text", () -> new TextBackend(textPath));
+        String binaryPath = directory.resolve("budget_data.bin").toString();
+        stores.put("binary", () -> new JournalBackend(binaryPath));
+        return stores;
+    }
+
+    private static BudgetManager reload(Supplier<StorageBackend> store) {
+        BudgetManager reloaded = new BudgetManager();
+        StorageBackend backend = store.get();
+        backend.load(reloaded);
+        reloaded.listAllExpenses();
+        backend.close();
+        return reloaded;
+    }
+
+    private static void makeChanges(BudgetManager manager) {
+        try {
+            manager.setBudget("Food", 300);
+            manager.setBudget("Tr\u00e4vel", 120.5);
+            manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Jan 10 2025 at 12:00");
+            manager.addExpenseToBudgetCents("", 4000, "Taxi to airport", "Mar 02 2025 at 08:30");
+            manager.addExpenseToBudgetCents("Tr\u00e4vel", 999, "Train", "");
+            manager.addExpenseToBudgetCents("", 500, "Gum", "");
+            manager.editExpense(1, "30", "Dinner", "");
+            manager.deleteExpense(2);
+            manager.addRecurringRule("Food", new RecurringRule(700, "Coffee",
+                    LocalDateTime.of(2025, 3, 1, 9, 0), 7, 4));
+            manager.addRecurringRule("", new RecurringRule(2000, "Gym", LocalDateTime.of(2025, 1, 1, 7, 0), 30, 12));
+            manager.editBudget("Food", 250, "Meals");
+            manager.setBudgetAlert(80);
+        } catch (InvalidInputException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static long countEndingWith(List<String> lines, String suffix) {
+        return lines.stream().filter(line -> line.endsWith(suffix)).count();
+    }
+
+    private static void assertSameData(String backend, BudgetManager expected, BudgetManager actual) {
+        assertEquals(expected.getBudgets().keySet(), actual.getBudgets().keySet(), backend);
+        for (String category : expected.getBudgets().keySet()) {
+            assertEquals(expected.getBudgets().get(category).getLimitCents(),
+                    actual.getBudgets().get(category).getLimitCents(), backend);
+            assertEquals(expected.getBudgets().get(category).getExpenses().toString(),
+                    actual.getBudgets().get(category).getExpenses().toString(), backend);
+            assertEquals(expected.getBudgets().get(category).getRecurringRules().toString(),
+                    actual.getBudgets().get(category).getRecurringRules().toString(), backend);
+        }
+        assertEquals(expected.getTotalExpensesCents(), actual.getTotalExpensesCents(), backend);
+        assertEquals(expected.getBudgetAlert().getAlertCents(), actual.getBudgetAlert().getAlertCents(), backend);
+    }
+}
@@ -0,0 +1,389 @@
+package budgetbuddy;
+
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
+import budgetbuddy.storage.ExpenseExporter;
+import budgetbuddy.storage.ExportFormat;
+import budgetbuddy.storage.Journal;
+import budgetbuddy.storage.JournalBackend;
+import budgetbuddy.storage.StartupMode;
+import budgetbuddy.storage.StorageManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StorageManagerTest {
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("budgetbuddy-storage");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void save_thenLoad_restoresEverything() throws IOException {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.setBudget("Tr\u00e4vel", 120.5);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        manager.addExpenseToBudgetCents("Tr\u00e4vel", 4000, "Taxi | airport", "Mar 02 2025 at 08:30");
+        manager.addExpenseToBudgetCents("", 1250, "Lunch", "Mar 03 2025 at 12:00");
+        manager.addRecurringRule("Food", new RecurringRule(700, "Coffee", LocalDateTime.of(2025, 3, 1, 9, 0), 7, 4));
+        manager.addRecurringRule("", new RecurringRule(2000, "Gym", LocalDateTime.of(2025, 1, 1, 7, 0), 30, 12));
+        manager.setBudgetAlert(80);
+
+        StorageManager.save(manager, dataPath);
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+
+        byte[] magic = Files.readAllBytes(Path.of(dataPath));
+        assertEquals('B', magic[0]);
+        assertEquals('N', magic[3]);
+        assertEquals(manager.getBudgets().keySet(), reloaded.getBudgets().keySet());
+        for (String category : manager.getBudgets().keySet()) {
+            assertEquals(manager.getBudgets().get(category).getLimitCents(),
+                    reloaded.getBudgets().get(category).getLimitCents());
+            assertEquals(manager.getBudgets().get(category).getExpenses().toString(),
+                    reloaded.getBudgets().get(category).getExpenses().toString());
+            assertEquals(manager.getBudgets().get(category).getRecurringRules().toString(),
+                    reloaded.getBudgets().get(category).getRecurringRules().toString());
+        }
+        assertEquals(manager.getTotalExpensesCents(), reloaded.getTotalExpensesCents());
+        assertEquals(8000, reloaded.getBudgetAlert().getAlertCents());
+    }
+
+    @Test
+    public void save_categorisedExpenses_eachWrittenOnce() throws IOException {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        StorageManager.save(manager, dataPath);
+        long emptySize = Files.size(Path.of(dataPath));
+
+        // Dated now, so that they are written into the data file rather than a partition.
+        for (int i = 0; i < 100; i++) {
+            manager.addExpenseToBudgetCents("Food", 100, "Lunch", "");
+        }
+        StorageManager.save(manager, dataPath);
+
+        // One 32-byte record per expense, plus the description string once.
+        assertEquals(emptySize + 100 * 32 + Integer.BYTES + "Lunch".length(), Files.size(Path.of(dataPath)));
+    }
+
+    @Test
+    public void load_categorisedExpense_sharedBetweenOverallAndCategory() throws Exception {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Mar 01 2025 at 12:00");
+        manager.addExpenseToBudgetCents("Food", 500, "Snack", "Mar 02 2025 at 12:00");
+        StorageManager.save(manager, dataPath);
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        reloaded.editExpense(1, "7", "", "");
+        reloaded.deleteExpense(2);
+
+        assertEquals(1, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(1, reloaded.getBudgets().get("Food").getExpenseCount());
+        assertEquals(700, reloaded.getBudgets().get("Food").getTotalExpensesCents());
+        assertEquals(700, reloaded.getTotalExpensesCents());
+    }
+
+    @Test
+    public void load_textFile_detectedAndRead() throws IOException {
+        Path textFile = directory.resolve("budget_data.txt");
+        Files.write(textFile, List.of(
+                "CATEGORY:Overall|LIMIT:500.00",
+                "EXPENSE:12.50|Lunch|Mar 01 2025 at 12:00|7",
+                "CATEGORY:Food|LIMIT:100.00",
+                "EXPENSE:12.50|Lunch|Mar 01 2025 at 12:00|7",
+                "ALERT:50.00"));
+
+        BudgetManager manager = new BudgetManager();
+        StorageManager.load(manager, textFile.toString());
+
+        assertEquals(1, manager.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(1250, manager.getBudgets().get("Food").getTotalExpensesCents());
+        assertEquals(50000, manager.getBudgets().get("Overall").getLimitCents());
+        assertEquals(5000, manager.getBudgetAlert().getAlertCents());
+    }
+
+    @Test
+    public void load_textFileSpanningManyChunks_sameAsFileOrder() throws IOException {
+        // Large enough to be split into several chunks, with a category section crossing chunk boundaries.
+        List<String> lines = new ArrayList<>();
+        lines.add("JOURNAL:0");
+        lines.add("CATEGORY:Overall|LIMIT:0.00");
+        int id = 1;
+        for (; id <= 120000; id++) {
+            lines.add("EXPENSE:1.25|Overall item " + (id % 97) + "|Mar 01 2025 at 12:00|" + id);
+        }
+        lines.add("EXPENSE:oops|Broken|Mar 01 2025 at 12:00|999999");
+        lines.add("CATEGORY:Food|LIMIT:100.00");
+        for (; id <= 200000; id++) {
+            lines.add("EXPENSE:0.75|Food item " + (id % 89) + "|Mar 02 2025 at 12:00|" + id);
+        }
+        lines.add("ALERT:50.00");
+        Path textFile = directory.resolve("budget_data.txt");
+        Files.write(textFile, lines);
+        assertTrue(Files.size(textFile) > 2L * (4 << 20));
+
+        BudgetManager manager = new BudgetManager();
+        StorageManager.load(manager, textFile.toString());
+
+        assertEquals(200000, manager.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(80000, manager.getBudgets().get("Food").getExpenseCount());
+        assertEquals(120000L * 125 + 80000L * 75, manager.getTotalExpensesCents());
+        assertEquals(10000, manager.getBudgets().get("Food").getLimitCents());
+        assertEquals(5000, manager.getBudgetAlert().getAlertCents());
+        assertNull(manager.getExpenseById(999999));
+    }
+
+    @Test
+    public void migrateTextFile_textFileOnly_convertedAndBackedUp() throws IOException {
+        Path textFile = directory.resolve("budget_data.txt");
+        Path binaryFile = directory.resolve("budget_data.bin");
+        Files.write(textFile, List.of(
+                "CATEGORY:Overall|LIMIT:0.00",
+                "EXPENSE:3.00|Tea|Mar 01 2025 at 09:00|11"));
+
+        assertTrue(StorageManager.migrateTextFile(textFile.toString(), binaryFile.toString()));
+        assertFalse(Files.exists(textFile));
+        assertTrue(Files.exists(directory.resolve("budget_data.txt.bak")));
+        assertFalse(Files.exists(directory.resolve("budget_data.txt.lock")));
+        assertFalse(StorageManager.migrateTextFile(textFile.toString(), binaryFile.toString()));
+
+        BudgetManager manager = new BudgetManager();
+        StorageManager.load(manager, binaryFile.toString());
+        Expense expense = manager.getExpenseById(11);
+        assertEquals("Tea", expense.getDescription());
+        assertEquals(300, expense.getAmountCents());
+    }
+
+    @Test
+    public void openJournal_olderMonthsPartitioned_loadedOnlyWhenListed() throws IOException {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Jan 10 2025 at 12:00");
+        manager.addExpenseToBudgetCents("", 4000, "Taxi", "Feb 02 2025 at 08:30");
+        manager.addExpenseToBudgetCents("Food", 500, "Snack", "");
+        StorageManager.save(manager, dataPath);
+
+        assertTrue(Files.exists(Path.of(dataPath + ".2025-01.1")));
+        assertTrue(Files.exists(Path.of(dataPath + ".2025-02.1")));
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.openJournal(reloaded, dataPath).close();
+        assertEquals(1, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(5750, reloaded.getTotalExpensesCents());
+        assertEquals(1750, reloaded.getBudgets().get("Food").getTotalExpensesCents());
+
+        reloaded.listPartialExpenses("Feb 01 2025 at 00:00", "");
+        assertEquals(2, reloaded.getBudgets().get("Overall").getExpenseCount());
+        reloaded.listAllExpenses();
+        assertEquals(3, reloaded.getBudgets().get("Overall").getExpenseCount());
+        assertEquals(5750, reloaded.getTotalExpensesCents());
+        assertEquals(1750, reloaded.getBudgets().get("Food").getTotalExpensesCents());
+    }
+
+    @Test
+    public void load_progressiveStartup_olderMonthsRestoredBetweenCommands() throws Exception {
+        String dataPath = savePartitionedHistory();
+        StorageManager.setStartupMode(StartupMode.PROGRESSIVE);
+        BudgetManager reloaded = new BudgetManager();
+        JournalBackend backend = new JournalBackend(dataPath);
+        try {
+            backend.load(reloaded);
+            assertEquals(5750, reloaded.getTotalExpensesCents());
+
+            backend.whenLoaded().get(10, TimeUnit.SECONDS);
+            backend.commit();
+            assertEquals(3, reloaded.getBudgets().get("Overall").getExpenseCount());
+            assertEquals(5750, reloaded.getTotalExpensesCents());
+            assertEquals(1750, reloaded.getBudgets().get("Food").getTotalExpensesCents());
+        } finally {
+            StorageManager.setStartupMode(StartupMode.LAZY);
+            backend.close();
+        }
+    }
+
+    @Test
+    public void openJournal_damagedDataFile_setAsideWithPartitionsBeforeCompaction() throws IOException {
+        String dataPath = savePartitionedHistory();
+        Path dataFile = Path.of(dataPath);
+        byte[] damaged = Files.readAllBytes(dataFile);
+        damaged[damaged.length / 2] ^= 1;
+        Files.write(dataFile, damaged);
+        List<Path> partitionFiles = partitionFilesOf(dataFile);
+        assertFalse(partitionFiles.isEmpty());
+        List<byte[]> partitionBytes = new ArrayList<>();
+        for (Path partitionFile : partitionFiles) {
+            partitionBytes.add(Files.readAllBytes(partitionFile));
+        }
+
+        Journal journal = StorageManager.openJournal(new BudgetManager(), dataPath);
+        journal.compact();
+        journal.close();
+
+        Path damagedFile = directory.resolve("budget_data.bin.corrupt");
+        assertTrue(Arrays.equals(damaged, Files.readAllBytes(damagedFile)));
+        for (int i = 0; i < partitionFiles.size(); i++) {
+            String suffix = partitionFiles.get(i).getFileName().toString().substring("budget_data.bin".length());
+            Path keptFile = directory.resolve("budget_data.bin.corrupt" + suffix);
+            assertTrue(Arrays.equals(partitionBytes.get(i), Files.readAllBytes(keptFile)), keptFile.toString());
+        }
+    }
+
+    @Test
+    public void openJournal_progressiveStartup_listSeesWholeHistory() throws Exception {
+        String dataPath = savePartitionedHistory();
+        StorageManager.setStartupMode(StartupMode.PROGRESSIVE);
+        BudgetManager reloaded = new BudgetManager();
+        Journal journal = StorageManager.openJournal(reloaded, dataPath);
+        try {
+            reloaded.listAllExpenses();
+            assertEquals(3, reloaded.getBudgets().get("Overall").getExpenseCount());
+            assertEquals(5750, reloaded.getTotalExpensesCents());
+            assertEquals(1750, reloaded.getBudgets().get("Food").getTotalExpensesCents());
+        } finally {
+            StorageManager.setStartupMode(StartupMode.LAZY);
+            journal.close();
+        }
+    }
+
+    @Test
+    public void export_olderMonthsPartitioned_includedInTimeOrder() throws Exception {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Jan 10 2025 at 12:00");
+        manager.addExpenseToBudgetCents("", 4000, "Taxi", "Feb 02 2025 at 08:30");
+        manager.addExpenseToBudgetCents("Food", 500, "Snack", "Oct 01 2026 at 10:00");
+        StorageManager.save(manager, dataPath);
+
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.openJournal(reloaded, dataPath).close();
+        StringWriter out = new StringWriter();
+        long count = ExpenseExporter.export(reloaded, out, ExportFormat.CSV, "", null, null);
+
+        assertEquals(3, count);
+        assertEquals("date,amount,description,category\n"
+                + "2025-01-10T12:00,12.50,Lunch,Food\n"
+                + "2025-02-02T08:30,40.00,Taxi,\n"
+                + "2026-10-01T10:00,5.00,Snack,Food\n", out.toString().replaceAll("(?m)^(id,|\\d+,)", ""));
+    }
+
+    @Test
+    public void compact_changedPartition_rewrittenAndOldFileDeleted() throws Exception {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Jan 10 2025 at 12:00");
+        manager.addExpenseToBudgetCents("", 4000, "Taxi", "Feb 02 2025 at 08:30");
+        StorageManager.save(manager, dataPath);
+
+        BudgetManager reloaded = new BudgetManager();
+        Journal journal = StorageManager.openJournal(reloaded, dataPath);
+        reloaded.editExpense(2, "30", "", "");
+        reloaded.editBudget("Food", 300, "Meals");
+        journal.compact();
+        journal.close();
+
+        assertTrue(Files.exists(Path.of(dataPath + ".2025-01.2")));
+        assertFalse(Files.exists(Path.of(dataPath + ".2025-01.1")));
+        assertTrue(Files.exists(Path.of(dataPath + ".2025-02.1")));
+        BudgetManager again = new BudgetManager();
+        StorageManager.load(again, dataPath);
+        assertEquals(3000, again.getBudgets().get("Meals").getTotalExpensesCents());
+        assertEquals(7000, again.getTotalExpensesCents());
+        assertFalse(again.categoryExists("Food"));
+    }
+
+    @Test
+    public void save_manyExpensesInOlderMonth_archivedCompactlyAndRestored() throws IOException {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        // Enough for several blocks, with amounts of every size and a time going backwards within a day.
+        for (int i = 0; i < 10000; i++) {
+            String time = "Jan " + String.format("%02d", 1 + i / 400) + " 2025 at " + String.format("%02d", i % 24)
+                    + ":" + String.format("%02d", i % 60);
+            manager.addExpenseToBudgetCents(i % 3 == 0 ? "Food" : "", 1 + (long) i * i, "Item " + (i % 37), time);
+        }
+        StorageManager.save(manager, dataPath);
+
+        assertTrue(Files.size(Path.of(dataPath + ".2025-01.1")) < 10000 * 12);
+        BudgetManager reloaded = new BudgetManager();
+        StorageManager.load(reloaded, dataPath);
+        assertEquals(manager.getBudgets().get("Overall").getExpenses().toString(),
+                reloaded.getBudgets().get("Overall").getExpenses().toString());
+        assertEquals(manager.getBudgets().get("Food").getExpenses().toString(),
+                reloaded.getBudgets().get("Food").getExpenses().toString());
+        assertEquals(manager.getTotalExpensesCents(), reloaded.getTotalExpensesCents());
+    }
+
+    @Test
+    public void load_truncatedBinaryFile_doesNotThrow() throws IOException {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.addExpenseToBudgetCents("", 100, "Snack", "Mar 01 2025 at 10:00");
+        StorageManager.save(manager, dataPath);
+        byte[] bytes = Files.readAllBytes(Path.of(dataPath));
+        Files.write(Path.of(dataPath), Arrays.copyOf(bytes, bytes.length - 5));
+
+        StorageManager.load(new BudgetManager(), dataPath);
+    }
+
+    /**
+     * Saves expenses in January and February 2025, which go to partitions, and one this month.
+     *
+     * @return The path of the data file.
+     */
+    private static List<Path> partitionFilesOf(Path dataFile) throws IOException {
+        String prefix = dataFile.getFileName().toString() + ".";
+        try (Stream<Path> paths = Files.list(dataFile.getParent())) {
+            return paths.filter(path -> path.getFileName().toString().startsWith(prefix)
+                    && path.getFileName().toString().matches(".*\\.\\d{4}-\\d{2}\\.\\d+")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String savePartitionedHistory() {
+        String dataPath = directory.resolve("budget_data.bin").toString();
+        BudgetManager manager = new BudgetManager();
+        manager.setBudget("Food", 300);
+        manager.addExpenseToBudgetCents("Food", 1250, "Lunch", "Jan 10 2025 at 12:00");
+        manager.addExpenseToBudgetCents("", 4000, "Taxi", "Feb 02 2025 at 08:30");
+        manager.addExpenseToBudgetCents("Food", 500, "Snack", "");
+        StorageManager.save(manager, dataPath);
+        return dataPath;
+    }
+}
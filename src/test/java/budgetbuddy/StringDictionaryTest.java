@@ -0,0 +1,96 @@
+package budgetbuddy;
+
+import budgetbuddy.model.Budget;
+import budgetbuddy.model.Expense;
+import budgetbuddy.model.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void intern_repeatedText_sameIdAndSharedString() {
+        int id = StringDictionary.intern(new String("Bubble tea"));
+        assertEquals(id, StringDictionary.intern(new String("Bubble tea")));
+        assertSame(StringDictionary.text(id), StringDictionary.text(StringDictionary.intern("Bubble tea")));
+    }
+
+    @Test
+    public void intern_rangeOfLine_matchesWholeText() {
+        int id = StringDictionary.intern("Night bus");
+        String line = "EXPENSE:2.50|Night bus|Oct 05 2025 at 23:30|7";
+        assertEquals(id, StringDictionary.intern(line, 13, 22));
+    }
+
+    @Test
+    public void find_unknownText_notFound() {
+        assertEquals(StringDictionary.NOT_FOUND, StringDictionary.find("never interned 8c1f"));
+    }
+
+    @Test
+    public void intern_manyTexts_allIdsStable() {
+        int firstId = StringDictionary.intern("Stable 0");
+        for (int i = 1; i < 1000; i++) {
+            StringDictionary.intern("Stable " + i);
+        }
+        assertEquals(firstId, StringDictionary.find("Stable 0"));
+        assertEquals("Stable 999", StringDictionary.text(StringDictionary.find("Stable 999")));
+    }
+
+    @Test
+    public void intern_sameTextsFromManyThreads_oneIdEach() throws InterruptedException {
+        int threadCount = 4;
+        int textCount = 5000;
+        int[][] ids = new int[threadCount][textCount];
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int[] threadIds = ids[t];
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < textCount; i++) {
+                    int text = (i + offset * 997) % textCount;
+                    threadIds[text] = StringDictionary.intern("Parallel " + text);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < textCount; i++) {
+            assertEquals("Parallel " + i, StringDictionary.text(ids[0][i]));
+            for (int t = 1; t < threadCount; t++) {
+                assertEquals(ids[0][i], ids[t][i]);
+            }
+        }
+    }
+
+    @Test
+    public void expenses_sameDescription_shareDescriptionId() {
+        Expense first = new Expense(4.0, "Kopi");
+        Expense second = new Expense(4.5, "Kopi");
+        assertEquals(first.getDescriptionId(), second.getDescriptionId());
+        assertEquals("Kopi", second.getDescription());
+    }
+
+    @Test
+    public void findExpenses_keywordInDescription_matchesIgnoringCase() {
+        Budget budget = new Budget("Overall", 0);
+        budget.addExpense(new Expense(5.0, "Chicken Rice"));
+        budget.addExpense(new Expense(3.0, "Bus"));
+        budget.addExpense(new Expense(6.0, "Duck rice"));
+
+        List<Expense> matches = budget.findExpenses("RICE");
+
+        assertEquals(2, matches.size());
+        assertTrue(matches.stream().allMatch(e -> e.getDescription().toLowerCase().contains("rice")));
+        assertFalse(budget.findExpenses("rice").stream().anyMatch(e -> e.getDescription().equals("Bus")));
+    }
+}
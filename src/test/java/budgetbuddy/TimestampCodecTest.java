@@ -0,0 +1,95 @@
+package budgetbuddy;
+
+import budgetbuddy.parser.TimestampCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TimestampCodecTest {
+    private static final DateTimeFormatter FORMAT =
+            DateTimeFormatter.ofPattern("MMM dd yyyy 'at' HH:mm", Locale.ENGLISH);
+
+    @Test
+    public void appendTextAndParseText_randomTimes_matchFormatter() {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.of(1800, 1, 1, 0, 0);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            LocalDateTime dateTime = base.plusMinutes((long) (random.nextDouble() * 400L * 365 * 24 * 60));
+            out.setLength(0);
+            TimestampCodec.appendText(out, dateTime);
+            String expected = dateTime.format(FORMAT);
+
+            assertEquals(expected, out.toString());
+            assertEquals(TimestampCodec.toEpochMinute(dateTime),
+                    TimestampCodec.parseText(expected, 0, expected.length()));
+        }
+    }
+
+    @Test
+    public void appendIso_randomTimes_matchLocalDateTime() {
+        Random random = new Random(11);
+        LocalDateTime base = LocalDateTime.of(1800, 1, 1, 0, 0);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            LocalDateTime dateTime = base.plusMinutes((long) (random.nextDouble() * 400L * 365 * 24 * 60));
+            out.setLength(0);
+            TimestampCodec.appendIso(out, TimestampCodec.toEpochMinute(dateTime));
+
+            assertEquals(dateTime.toString(), out.toString());
+        }
+    }
+
+    @Test
+    public void parseIso_datesTimesAndSeconds_readOrInvalid() {
+        String[] inputs = {"2025-03-01T12:34", "2025-03-01 12:34", "2025-03-01 12:34:56", "2025-03-01",
+            "2024-02-29T23:59"};
+        LocalDateTime[] expected = {LocalDateTime.of(2025, 3, 1, 12, 34), LocalDateTime.of(2025, 3, 1, 12, 34),
+            LocalDateTime.of(2025, 3, 1, 12, 34), LocalDateTime.of(2025, 3, 1, 0, 0),
+            LocalDateTime.of(2024, 2, 29, 23, 59)};
+        for (int i = 0; i < inputs.length; i++) {
+            assertEquals(TimestampCodec.toEpochMinute(expected[i]),
+                    TimestampCodec.parseIso(inputs[i], 0, inputs[i].length()), inputs[i]);
+        }
+        String[] invalid = {"", "2025-02-29", "2025-13-01", "2025-03-01T24:00", "2025-03-01T12:60", "2025/03/01",
+            "2025-03-01X12:00", "2025-03-01 12:34:5x", "25-03-01"};
+        for (String input : invalid) {
+            assertEquals(TimestampCodec.INVALID, TimestampCodec.parseIso(input, 0, input.length()), input);
+        }
+    }
+
+    @Test
+    public void parseText_rangeOfLongerLine_readsInPlace() {
+        String line = "EXPENSE:12.00|Lunch|Feb 29 2024 at 23:59|42";
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59), TimestampCodec.parseDateTime(line, 20, 40));
+    }
+
+    @Test
+    public void parseText_malformedOrImpossible_invalid() {
+        String[] inputs = {"", "Feb 30 2025 at 10:00", "Feb 29 2025 at 10:00", "Mar 1 2025 at 10:00",
+            "Mar 01 2025 at 24:00", "Mar 01 2025 at 10:60", "mar 01 2025 at 10:00", "Mar 01 2025 on 10:00",
+            "Mar 01 0000 at 10:00", "Mar 01 2025 at 10:00 ", "12345"};
+        for (String input : inputs) {
+            assertEquals(TimestampCodec.INVALID, TimestampCodec.parseText(input, 0, input.length()), input);
+        }
+    }
+
+    @Test
+    public void parse_numericForm_roundTrips() {
+        LocalDateTime dateTime = LocalDateTime.of(1969, 12, 31, 23, 59);
+        StringBuilder out = new StringBuilder();
+        TimestampCodec.appendNumeric(out, TimestampCodec.toEpochMinute(dateTime));
+
+        assertEquals("-1", out.toString());
+        assertEquals(dateTime, TimestampCodec.parseDateTime(out, 0, out.length()));
+        assertNull(TimestampCodec.parseDateTime("12a4", 0, 4));
+        assertNull(TimestampCodec.parseDateTime("-", 0, 1));
+    }
+}
@@ -1,15 +1,19 @@
 package budgetbuddy.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import budgetbuddy.exception.InvalidInputException;
 import budgetbuddy.model.Budget;
 import budgetbuddy.model.BudgetManager;
-import budgetbuddy.model.Expense;
+import budgetbuddy.model.RecurringRule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -32,13 +36,17 @@ public class AddRecurringExpenseCommandTest {
             addRecurringExpenseCommand.execute(budgetManager);
             Map<String, Budget> budgets = budgetManager.getBudgets();
             Budget overallBudget = budgets.get("Overall");
-            List<Expense> expenses = overallBudget.getExpenses();
+            List<RecurringRule> rules = overallBudget.getRecurringRules();
 
-            assertEquals(3, expenses.size(), "There should be 3 recurring expenses in the Overall budget");
+            assertEquals(1, rules.size(), "There should be 1 recurring expense in the Overall budget");
+            assertEquals(3, rules.get(0).getOccurrenceCount(), "It should recur 3 times");
 
-            Expense firstExpense = expenses.get(0);
-            assertEquals(25.0, firstExpense.getAmount());
-            assertEquals("Gym", firstExpense.getDescription());
+            RecurringRule rule = rules.get(0);
+            assertEquals(2500, rule.getAmountCents());
+            assertEquals("Gym", rule.getDescription());
+            assertEquals(LocalDateTime.of(2025, 4, 21, 7, 0), rule.getOccurrenceTime(2));
+            assertEquals(75.0, overallBudget.getTotalExpenses());
+            assertTrue(overallBudget.getExpenses().isEmpty(), "Occurrences should not be stored as expenses");
 
         } catch (InvalidInputException e) {
             System.out.println("Unexpected invalid input during test 1");
@@ -47,7 +55,7 @@ public class AddRecurringExpenseCommandTest {
 
     @Test
     public void testExecute_maxIterationsExceeded_shouldNotAdd() {
-        String description = "add-recurring 10 c/Overall d/OverLimitTest t/Apr 01 2025 at 10:00 f/5 i/12";
+        String description = "add-recurring 10 c/Overall d/OverLimitTest t/Apr 01 2025 at 10:00 f/5 i/10001";
         addRecurringExpenseCommand = new AddRecurringExpenseCommand(description);
 
         try {
@@ -57,7 +65,7 @@ public class AddRecurringExpenseCommandTest {
         }
 
         Map<String, Budget> budgets = budgetManager.getBudgets();
-        assertTrue(!budgets.containsKey("Overall") || budgets.get("Overall").getExpenses().isEmpty(),
+        assertTrue(!budgets.containsKey("Overall") || budgets.get("Overall").getRecurringRules().isEmpty(),
                 "No expenses should be added when iterations exceed the limit");
     }
 
@@ -73,7 +81,7 @@ public class AddRecurringExpenseCommandTest {
         }
 
         Map<String, Budget> budgets = budgetManager.getBudgets();
-        assertTrue(!budgets.containsKey("Overall") || budgets.get("Overall").getExpenses().isEmpty(),
+        assertTrue(!budgets.containsKey("Overall") || budgets.get("Overall").getRecurringRules().isEmpty(),
                 "No expenses should be added when frequency exceeds the limit");
     }
 
@@ -86,13 +94,60 @@ public class AddRecurringExpenseCommandTest {
             addRecurringExpenseCommand.execute(budgetManager);
             Map<String, Budget> budgets = budgetManager.getBudgets();
             Budget overallBudget = budgets.get("Overall");
-            List<Expense> expenses = overallBudget.getExpenses();
+            List<RecurringRule> rules = overallBudget.getRecurringRules();
 
-            assertEquals(2, expenses.size(), "Fallback should still allow expenses to be added");
-            assertTrue(expenses.get(0).getDescription().contains("FallbackDate"), "Description should match");
+            assertEquals(2, rules.get(0).getOccurrenceCount(), "Fallback should still allow expenses to be added");
+            assertTrue(rules.get(0).getDescription().contains("FallbackDate"), "Description should match");
 
         } catch (InvalidInputException e) {
             System.out.println("Unexpected exception in fallback test.");
         }
     }
+
+    @Test
+    public void testExecute_categoryOverLimit_singleNotification() throws InvalidInputException {
+        budgetManager.setBudget("Food", 50);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(output));
+        try {
+            new AddRecurringExpenseCommand("add-recurring 20 c/Food d/Lunch t/Apr 01 2025 at 12:00 f/1 i/5")
+                    .execute(budgetManager);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertEquals(1, budgetManager.getBudgets().get("Food").getRecurringRules().size());
+        assertEquals(100.0, budgetManager.getBudgets().get("Food").getTotalExpenses());
+        String printed = output.toString();
+        assertTrue(printed.contains("Recurring Expense Added: $20.00 spent on Lunch every 1 day(s), 5 time(s)"),
+                printed);
+        assertEquals(1, printed.split("exceeded the budget limit for the 'Food'", -1).length - 1, printed);
+    }
+
+    @Test
+    public void testExecute_tenYearsDaily_singleRuleCountsEveryOccurrence() throws InvalidInputException {
+        new AddRecurringExpenseCommand("add-recurring 1.50 c/Overall d/Coffee t/Jan 01 2025 at 08:00 f/1 i/3650")
+                .execute(budgetManager);
+
+        Budget overallBudget = budgetManager.getBudgets().get("Overall");
+        assertEquals(1, overallBudget.getRecurringRules().size());
+        assertEquals(0, overallBudget.getExpenseCount());
+        assertEquals(5475.0, overallBudget.getTotalExpenses());
+    }
+
+    @Test
+    public void testDeleteRecurring_validIndex_ruleAndTotalRemoved() throws InvalidInputException {
+        budgetManager.setBudget("Gym", 500);
+        new AddRecurringExpenseCommand("add-recurring 40 c/Gym d/Membership t/Jan 01 2025 at 08:00 f/30 i/12")
+                .execute(budgetManager);
+        assertEquals(480.0, budgetManager.getBudgets().get("Gym").getTotalExpenses());
+
+        new DeleteRecurringCommand("delete-recurring 1").execute(budgetManager);
+
+        assertTrue(budgetManager.getBudgets().get("Overall").getRecurringRules().isEmpty());
+        assertEquals(0.0, budgetManager.getBudgets().get("Gym").getTotalExpenses());
+        assertThrows(InvalidInputException.class,
+                () -> new DeleteRecurringCommand("delete-recurring 1").execute(budgetManager));
+    }
 }
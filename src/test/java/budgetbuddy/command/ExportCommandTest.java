@@ -0,0 +1,140 @@
+package budgetbuddy.command;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.RecurringRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExportCommandTest {
+
+    private BudgetManager budgetManager;
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws InvalidInputException, IOException {
+        directory = Files.createTempDirectory("budgetbuddy-export");
+        budgetManager = new BudgetManager();
+        budgetManager.setBudget("Food", 300);
+        budgetManager.addExpenseToBudgetCents("Food", 1250, "Lunch, with \"Bob\"", "Mar 01 2025 at 12:00");
+        budgetManager.addExpenseToBudgetCents("", 4005, "Taxi\\home\ttip", "Mar 02 2025 at 08:30");
+        budgetManager.addExpenseToBudgetCents("Food", 7, "Gum", "Mar 03 2025 at 09:15");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testExportCsv_allExpenses_quotedWhereNeeded() throws Exception {
+        Path file = directory.resolve("expenses.csv");
+        new ExportCommand("export f/" + file).execute(budgetManager);
+
+        assertEquals("date,amount,description,category\n"
+                + "2025-03-01T12:00,12.50,\"Lunch, with \"\"Bob\"\"\",Food\n"
+                + "2025-03-02T08:30,40.05,Taxi\\home\ttip,\n"
+                + "2025-03-03T09:15,0.07,Gum,Food\n", readWithoutIds(file));
+    }
+
+    @Test
+    public void testExportJsonLines_allExpenses_escaped() throws Exception {
+        Path file = directory.resolve("expenses.jsonl");
+        new ExportCommand("export f/" + file).execute(budgetManager);
+
+        assertEquals("{\"date\":\"2025-03-01T12:00\",\"amount\":12.50,"
+                + "\"description\":\"Lunch, with \\\"Bob\\\"\",\"category\":\"Food\"}\n"
+                + "{\"date\":\"2025-03-02T08:30\",\"amount\":40.05,"
+                + "\"description\":\"Taxi\\\\home\\ttip\",\"category\":null}\n"
+                + "{\"date\":\"2025-03-03T09:15\",\"amount\":0.07,"
+                + "\"description\":\"Gum\",\"category\":\"Food\"}\n", readWithoutIds(file));
+    }
+
+    @Test
+    public void testExportCsv_categoryAndRange_onlyMatching() throws Exception {
+        Path file = directory.resolve("food.csv");
+        new ExportCommand("export f/" + file + " c/Food start/Mar 02 2025 at 00:00 end/Mar 31 2025 at 23:59")
+                .execute(budgetManager);
+
+        assertEquals("date,amount,description,category\n"
+                + "2025-03-03T09:15,0.07,Gum,Food\n", readWithoutIds(file));
+    }
+
+    @Test
+    public void testExportCsv_recurringExpenses_occurrencesInTimeOrderWithoutId() throws Exception {
+        budgetManager.addRecurringRule("Food", new RecurringRule(300, "Coffee",
+                LocalDateTime.of(2025, 3, 1, 12, 0), 1, 3));
+        budgetManager.addRecurringRule("", new RecurringRule(999, "Gym", LocalDateTime.of(2025, 2, 1, 7, 0), 30, 2));
+        Path file = directory.resolve("expenses.csv");
+        new ExportCommand("export f/" + file + " start/Mar 01 2025 at 00:00").execute(budgetManager);
+
+        assertEquals("date,amount,description,category\n"
+                + "2025-03-01T12:00,12.50,\"Lunch, with \"\"Bob\"\"\",Food\n"
+                + ",2025-03-01T12:00,3.00,Coffee,Food\n"
+                + "2025-03-02T08:30,40.05,Taxi\\home\ttip,\n"
+                + ",2025-03-02T12:00,3.00,Coffee,Food\n"
+                + ",2025-03-03T07:00,9.99,Gym,\n"
+                + "2025-03-03T09:15,0.07,Gum,Food\n"
+                + ",2025-03-03T12:00,3.00,Coffee,Food\n", readWithoutIds(file));
+    }
+
+    @Test
+    public void testExportJsonLines_recurringExpenseInCategory_nullId() throws Exception {
+        budgetManager.addRecurringRule("Food", new RecurringRule(300, "Coffee",
+                LocalDateTime.of(2025, 3, 3, 10, 0), 7, 2));
+        Path file = directory.resolve("food.jsonl");
+        new ExportCommand("export f/" + file + " c/Food start/Mar 02 2025 at 00:00").execute(budgetManager);
+
+        assertEquals("{\"date\":\"2025-03-03T09:15\",\"amount\":0.07,"
+                + "\"description\":\"Gum\",\"category\":\"Food\"}\n"
+                + "{\"id\":null,\"date\":\"2025-03-03T10:00\",\"amount\":3.00,"
+                + "\"description\":\"Coffee\",\"category\":\"Food\"}\n"
+                + "{\"id\":null,\"date\":\"2025-03-10T10:00\",\"amount\":3.00,"
+                + "\"description\":\"Coffee\",\"category\":\"Food\"}\n", readWithoutIds(file));
+    }
+
+    @Test
+    public void testExport_unknownCategory_throwsInvalidInputException() {
+        Path file = directory.resolve("rent.csv");
+        assertThrows(InvalidInputException.class,
+            () -> new ExportCommand("export f/" + file + " c/Rent").execute(budgetManager));
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(Path.of(file + ".tmp")));
+    }
+
+    @Test
+    public void testExport_unknownExtensionOrBadTime_throwsInvalidInputException() {
+        Path file = directory.resolve("expenses.xlsx");
+        assertThrows(InvalidInputException.class,
+            () -> new ExportCommand("export f/" + file).execute(budgetManager));
+        assertThrows(InvalidInputException.class,
+            () -> new ExportCommand("export f/" + directory.resolve("x.csv") + " start/yesterday")
+                    .execute(budgetManager));
+        assertThrows(InvalidInputException.class, () -> new ExportCommand("export").execute(budgetManager));
+        assertFalse(Files.exists(file));
+    }
+
+    /**
+     * Returns the file contents with the expense IDs left out, as they depend on the tests run before. The empty
+     * or null IDs of recurring occurrences are kept.
+     */
+    private static String readWithoutIds(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8).replaceAll("(?m)^(id,|\\d+,)", "")
+                .replaceAll("\\{\"id\":\\d+,", "{");
+    }
+}
@@ -88,6 +88,62 @@ public class FindExpenseCommandTest {
         assertTrue(output.contains("Lunch@Home"));
     }
 
+    @Test
+    public void execute_multipleKeywords_onlyExpensesWithAllWordsFound() throws InvalidInputException {
+        budgetManager.addExpenseToBudget("", 6.0, "Chicken rice", "");
+        budgetManager.addExpenseToBudget("", 7.0, "Chicken curry", "");
+        outputStreamCaptor.reset();
+
+        new FindExpenseCommand("find rice chicken").execute(budgetManager);
+
+        String output = outputStreamCaptor.toString();
+        assertTrue(output.contains("Chicken rice"));
+        assertFalse(output.contains("Chicken curry"));
+    }
+
+    @Test
+    public void execute_anyMode_expensesWithEitherWordFound() throws InvalidInputException {
+        outputStreamCaptor.reset();
+        new FindExpenseCommand("find m/any dinner groceries").execute(budgetManager);
+
+        String output = outputStreamCaptor.toString();
+        assertTrue(output.contains("Dinner"));
+        assertTrue(output.contains("Groceries"));
+        assertFalse(output.contains("Lunch"));
+    }
+
+    @Test
+    public void execute_partialWord_matchedOnlyInSubstringMode() throws InvalidInputException {
+        new FindExpenseCommand("find groc").execute(budgetManager);
+        assertTrue(outputStreamCaptor.toString().contains("No matching expenses found"));
+
+        outputStreamCaptor.reset();
+        new FindExpenseCommand("find m/substring groc").execute(budgetManager);
+        assertTrue(outputStreamCaptor.toString().contains("Groceries"));
+    }
+
+    @Test
+    public void execute_editedAndDeletedExpenses_indexKeptUpToDate() throws InvalidInputException {
+        // Display order is most recent first: 1 is Groceries, 2 is Dinner, 3 is Lunch
+        new EditExpenseCommand("edit-expense 1 d/Supper").execute(budgetManager);
+        new DeleteCommand("delete 3").execute(budgetManager);
+
+        outputStreamCaptor.reset();
+        new FindExpenseCommand("find m/any groceries lunch supper").execute(budgetManager);
+
+        String output = outputStreamCaptor.toString();
+        assertTrue(output.contains("Supper"));
+        assertFalse(output.contains("Groceries"));
+        assertFalse(output.contains("Lunch"));
+    }
+
+    @Test
+    public void execute_unknownMode_throwsInvalidInputException() {
+        FindExpenseCommand command = new FindExpenseCommand("find m/fuzzy lunch");
+
+        assertThrows(InvalidInputException.class, () -> command.execute(budgetManager));
+    }
+
     @Test
     public void  testIsExit_alwaysReturnsFalse() {
         // Test that FindExpenseCommand does not signal to exit the application
@@ -0,0 +1,147 @@
+package budgetbuddy.command;
+
+import budgetbuddy.exception.InvalidInputException;
+import budgetbuddy.model.BudgetManager;
+import budgetbuddy.model.Expense;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImportCommandTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private BudgetManager budgetManager;
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("budgetbuddy-import");
+        budgetManager = new BudgetManager();
+        budgetManager.setBudget("Food", 300);
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testImport_exportedFile_sameExpensesBack() throws Exception {
+        BudgetManager source = new BudgetManager();
+        source.setBudget("Food", 300);
+        source.addExpenseToBudgetCents("Food", 1250, "Lunch, with \"Bob\"", "Mar 01 2025 at 12:00");
+        source.addExpenseToBudgetCents("", 4005, "Taxi", "Mar 02 2025 at 08:30");
+        Path file = directory.resolve("expenses.csv");
+        new ExportCommand("export f/" + file).execute(source);
+
+        new ImportCommand("import f/" + file).execute(budgetManager);
+
+        assertEquals(source.getBudgets().get("Overall").getExpenses().toString(),
+                budgetManager.getBudgets().get("Overall").getExpenses().toString());
+        assertEquals(1250, budgetManager.getBudgets().get("Food").getTotalExpensesCents());
+        assertTrue(outContent.toString().contains("Imported 2 expense(s) totalling $52.55"));
+    }
+
+    @Test
+    public void testImport_bankStatementColumns_mappedAndBadLinesSkipped() throws Exception {
+        Path file = directory.resolve("statement.csv");
+        Files.writeString(file, "Posted,Payee,Debit,Notes\n"
+                + "2025-04-01 09:15:00,Coffee Shop,4.50,\n"
+                + "2025-04-02,\"Rent, April\",\"$1,200.00\",\"paid\nlate\"\n"
+                + "2025-04-03,Grocer,abc,\n"
+                + "04/03/2025,Grocer,12.00,\n"
+                + "\n"
+                + "2025-04-05T18:00,\"Dinner \"\"Luigi's\"\"\",35,\n", StandardCharsets.UTF_8);
+
+        new ImportCommand("import f/" + file + " a/Debit t/1 d/payee").execute(budgetManager);
+
+        List<Expense> expenses = budgetManager.getBudgets().get("Overall").getExpenses();
+        assertEquals(3, expenses.size());
+        assertEquals(123950, budgetManager.getTotalExpensesCents());
+        assertTrue(expenses.stream().anyMatch(expense -> expense.getDescription().equals("Rent, April")
+                && expense.getDateTime().equals(LocalDateTime.of(2025, 4, 2, 0, 0))));
+        assertTrue(expenses.stream().anyMatch(expense -> expense.getDescription().equals("Dinner \"Luigi's\"")));
+        String output = outContent.toString();
+        assertTrue(output.contains("Skipped 2 line(s)"));
+        assertTrue(output.contains("line 5: Not an amount"));
+        assertTrue(output.contains("line 6: unknown date \"04/03/2025\""));
+    }
+
+    @Test
+    public void testImport_categoryColumn_unknownCategoriesGoToOverall() throws Exception {
+        Path file = directory.resolve("categorised.csv");
+        Files.writeString(file, "date,amount,description,category\n"
+                + "2026-09-01T12:00,10.00,Lunch,Food\n"
+                + "2026-09-02T12:00,20.00,Jacket,Clothes\n"
+                + "2026-09-03T12:00,30.00,Misc,\n", StandardCharsets.UTF_8);
+
+        new ImportCommand("import f/" + file).execute(budgetManager);
+
+        assertEquals(6000, budgetManager.getTotalExpensesCents());
+        assertEquals(1000, budgetManager.getBudgets().get("Food").getTotalExpensesCents());
+        assertTrue(outContent.toString().contains("Budget categories not found, added to Overall Budget: Clothes"));
+    }
+
+    @Test
+    public void testImport_manyBatches_allAddedInFileOrder() throws Exception {
+        Path file = directory.resolve("large.csv");
+        StringBuilder csv = new StringBuilder("date,amount,description\n");
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        int count = 40000;
+        for (int i = 0; i < count; i++) {
+            csv.append(start.plusMinutes(i)).append(',').append(i % 100).append(".25,item ").append(i).append('\n');
+        }
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        new ImportCommand("import f/" + file).execute(budgetManager);
+
+        List<Expense> expenses = budgetManager.getBudgets().get("Overall").getExpenses();
+        assertEquals(count, expenses.size());
+        long expectedCents = 0;
+        for (int i = 0; i < count; i++) {
+            expectedCents += (i % 100) * 100 + 25;
+        }
+        assertEquals(expectedCents, budgetManager.getTotalExpensesCents());
+        List<Expense> byId = new ArrayList<>(expenses);
+        byId.sort(Comparator.comparingLong(Expense::getId));
+        for (int i = 0; i < count; i++) {
+            assertEquals(start.plusMinutes(i), byId.get(i).getDateTime());
+        }
+    }
+
+    @Test
+    public void testImport_missingColumnOrFile_throwsInvalidInputException() throws IOException {
+        Path file = directory.resolve("statement.csv");
+        Files.writeString(file, "Posted,Payee,Debit\n2025-04-01,Coffee,4.50\n", StandardCharsets.UTF_8);
+
+        assertThrows(InvalidInputException.class, () -> new ImportCommand("import f/" + file)
+                .execute(budgetManager));
+        assertThrows(InvalidInputException.class, () -> new ImportCommand("import f/" + file + " a/Debit t/Posted"
+                + " d/4").execute(budgetManager));
+        assertThrows(InvalidInputException.class, () -> new ImportCommand("import f/"
+                + directory.resolve("missing.csv")).execute(budgetManager));
+        assertThrows(InvalidInputException.class, () -> new ImportCommand("import").execute(budgetManager));
+        assertEquals(0, budgetManager.getTotalExpensesCents());
+    }
+}